@@ -15,6 +15,10 @@ android {
         versionCode = 1
         versionName = "1.0"
 
+        // Servidor del backend: -Peolos.urlServidor=http://IP:8000 o en gradle.properties
+        val urlServidor = project.findProperty("eolos.urlServidor") as String? ?: "http://172.20.10.12:8000"
+        buildConfigField("String", "URL_SERVIDOR", "\"$urlServidor\"")
+
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
     }
 
@@ -27,10 +31,17 @@ android {
             )
         }
     }
+    buildFeatures {
+        buildConfig = true // BuildConfig.DEBUG para Traza, URL_SERVIDOR para ClienteHttp
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        // SupervisorEscaneoTest: Handler, SystemClock (0) y Log sin emulador
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -47,5 +58,4 @@ dependencies {
     implementation("com.google.android.material:material:1.11.0")
     implementation("androidx.browser:browser:1.8.0")
     implementation("androidx.biometric:biometric:1.1.0")
-    implementation("androidx.localbroadcastmanager:localbroadcastmanager:1.1.0")
 }
\ No newline at end of file
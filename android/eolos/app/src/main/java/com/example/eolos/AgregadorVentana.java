@@ -0,0 +1,195 @@
+/**
+ * Fichero: AgregadorVentana.java
+ * Descripción: Resume por tipo de medición (PM2.5, PM10, CO2...) todas las lecturas de
+ *              una ventana de tiempo: número, mínimo, máximo, media y última. Al cerrar la
+ *              ventana entrega un resumen por tipo, así no se tira ninguna lectura y el
+ *              volumen de subidas queda acotado.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 22/11/2025
+ */
+
+package com.example.eolos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// -----------------------------------------------------------------------------------
+// Sin dependencias de Android. Acumuladores en arrays indexados por tipo (el tipo es el
+// byte alto del major, 0..255): añadir una lectura no crea objetos. Solo se crea un
+// Resumen por tipo al cerrar cada ventana.
+// -----------------------------------------------------------------------------------
+public class AgregadorVentana {
+
+    private static final int NUM_TIPOS = 256;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Resumen de un tipo en una ventana. Inmutable.
+     */
+    public static final class Resumen {
+        private final int tipoMedicion;
+        private final int lecturas;
+        private final float minimo;
+        private final float maximo;
+        private final float media;
+        private final float ultimo;
+        private final long instanteMedioMs;  // media de las horas de recepción
+        private final long instanteUltimoMs;
+        private final long monotonicoMedioMs; // la misma media en el reloj monotónico
+
+        Resumen(int tipoMedicion, int lecturas, float minimo, float maximo, float media,
+                float ultimo, long instanteMedioMs, long instanteUltimoMs, long monotonicoMedioMs) {
+            this.tipoMedicion = tipoMedicion;
+            this.lecturas = lecturas;
+            this.minimo = minimo;
+            this.maximo = maximo;
+            this.media = media;
+            this.ultimo = ultimo;
+            this.instanteMedioMs = instanteMedioMs;
+            this.instanteUltimoMs = instanteUltimoMs;
+            this.monotonicoMedioMs = monotonicoMedioMs;
+        }
+
+        public int getTipoMedicion() {
+            return tipoMedicion;
+        }
+
+        public int getLecturas() {
+            return lecturas;
+        }
+
+        public float getMinimo() {
+            return minimo;
+        }
+
+        public float getMaximo() {
+            return maximo;
+        }
+
+        public float getMedia() {
+            return media;
+        }
+
+        public float getUltimo() {
+            return ultimo;
+        }
+
+        public long getInstanteMedioMs() {
+            return instanteMedioMs;
+        }
+
+        public long getInstanteUltimoMs() {
+            return instanteUltimoMs;
+        }
+
+        /**
+         * @return media de los instantes de recepción en el reloj monotónico
+         *         (elapsedRealtime), para buscar la posición en HistorialUbicaciones
+         */
+        public long getMonotonicoMedioMs() {
+            return monotonicoMedioMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "Resumen{tipo=%d, n=%d, min=%.3f, max=%.3f, media=%.3f, ultimo=%.3f}",
+                    tipoMedicion, lecturas, minimo, maximo, media, ultimo);
+        }
+    } // class Resumen
+
+    // Acumuladores por tipo
+    private final int[] lecturas = new int[NUM_TIPOS];
+    private final float[] minimos = new float[NUM_TIPOS];
+    private final float[] maximos = new float[NUM_TIPOS];
+    private final double[] sumas = new double[NUM_TIPOS];
+    private final float[] ultimos = new float[NUM_TIPOS];
+    private final long[] sumasInstantes = new long[NUM_TIPOS];
+    private final long[] instantesUltimos = new long[NUM_TIPOS];
+    private final long[] sumasMonotonicos = new long[NUM_TIPOS];
+
+    // Tipos con alguna lectura en la ventana, en orden de llegada
+    private final int[] activos = new int[NUM_TIPOS];
+    private int numActivos = 0;
+
+    private long totalLecturas = 0;
+    private long totalResumenes = 0;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Suma una lectura a la ventana en curso.
+     *
+     * @param tipoMedicion tipo (0..255)
+     * @param valor        valor medido
+     * @param instanteMs   hora de pared de la recepción
+     * @param monotonicoMs la misma en el reloj monotónico (elapsedRealtimeNanos / 1e6)
+     */
+    public synchronized void anyadir(int tipoMedicion, float valor, long instanteMs, long monotonicoMs) {
+        int t = tipoMedicion & 0xFF;
+        if (lecturas[t] == 0) {
+            activos[numActivos++] = t;
+            minimos[t] = valor;
+            maximos[t] = valor;
+            sumas[t] = 0;
+            sumasInstantes[t] = 0;
+            sumasMonotonicos[t] = 0;
+        } else {
+            if (valor < minimos[t]) minimos[t] = valor;
+            if (valor > maximos[t]) maximos[t] = valor;
+        }
+        lecturas[t]++;
+        sumas[t] += valor;
+        ultimos[t] = valor;
+        sumasInstantes[t] += instanteMs;
+        instantesUltimos[t] = instanteMs;
+        sumasMonotonicos[t] += monotonicoMs;
+        totalLecturas++;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Cierra la ventana en curso y empieza una nueva.
+     *
+     * @return un resumen por cada tipo que tuvo lecturas (vacía si no hubo ninguna)
+     */
+    public synchronized List<Resumen> cerrarVentana() {
+        List<Resumen> resumenes = new ArrayList<>(numActivos);
+        for (int i = 0; i < numActivos; i++) {
+            int t = activos[i];
+            int n = lecturas[t];
+            resumenes.add(new Resumen(t, n, minimos[t], maximos[t], (float) (sumas[t] / n),
+                    ultimos[t], sumasInstantes[t] / n, instantesUltimos[t], sumasMonotonicos[t] / n));
+            lecturas[t] = 0;
+        }
+        numActivos = 0;
+        totalResumenes += resumenes.size();
+        return resumenes;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @return true si la ventana en curso no tiene lecturas
+     */
+    public synchronized boolean estaVacia() {
+        return numActivos == 0;
+    }
+
+    public synchronized long getTotalLecturas() {
+        return totalLecturas;
+    }
+
+    public synchronized long getTotalResumenes() {
+        return totalResumenes;
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -0,0 +1,116 @@
+/**
+ * Fichero: BeaconRegistrado.java
+ * Descripción: Entrada de la tabla de rutas del escáner: una placa (UUID) con su bici,
+ *              su listener propio y su estado de última detección.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 21/11/2025
+ */
+
+package com.example.eolos;
+
+import java.util.Locale;
+import java.util.UUID;
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+public class BeaconRegistrado {
+
+    /**
+     * Recibe las medidas de un beacon concreto.
+     */
+    public interface OyenteBeacon {
+        void onBeaconDetected(MedidaBeacon medida);
+    }
+
+    private final long uuidMasSignificativo;
+    private final long uuidMenosSignificativo;
+    private final String uuidTexto;
+    private volatile String idBici;
+    private volatile OyenteBeacon oyente;
+
+    // Estado de presencia (lo escribe solo el hilo del escáner)
+    private volatile long ultimaDeteccionMs = -1;
+    private long detecciones = 0;
+
+    // RSSI suavizado y distancia estimada de esta placa
+    private final FiltroProximidad filtro = new FiltroProximidad();
+    // Duplicados y pérdidas por contador de secuencia
+    private final SeguidorSecuencia secuencia = new SeguidorSecuencia();
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public BeaconRegistrado(long uuidMasSignificativo, long uuidMenosSignificativo,
+                            String idBici, OyenteBeacon oyente) {
+        this.uuidMasSignificativo = uuidMasSignificativo;
+        this.uuidMenosSignificativo = uuidMenosSignificativo;
+        this.uuidTexto = new UUID(uuidMasSignificativo, uuidMenosSignificativo)
+                .toString().toUpperCase(Locale.ROOT);
+        this.idBici = idBici;
+        this.oyente = oyente;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Anota una detección de este beacon.
+     *
+     * @param ahora instante actual en ms (reloj monotónico)
+     */
+    public void registrarDeteccion(long ahora) {
+        ultimaDeteccionMs = ahora;
+        detecciones++;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public long getUuidMasSignificativo() {
+        return uuidMasSignificativo;
+    }
+
+    public long getUuidMenosSignificativo() {
+        return uuidMenosSignificativo;
+    }
+
+    public String getUuidTexto() {
+        return uuidTexto;
+    }
+
+    public String getIdBici() {
+        return idBici;
+    }
+
+    public void setIdBici(String idBici) {
+        this.idBici = idBici;
+    }
+
+    public OyenteBeacon getOyente() {
+        return oyente;
+    }
+
+    public void setOyente(OyenteBeacon oyente) {
+        this.oyente = oyente;
+    }
+
+    /** @return instante (ms, reloj monotónico) de la última detección, o -1 si nunca */
+    public long getUltimaDeteccionMs() {
+        return ultimaDeteccionMs;
+    }
+
+    public long getDetecciones() {
+        return detecciones;
+    }
+
+    public FiltroProximidad getFiltro() {
+        return filtro;
+    }
+
+    public SeguidorSecuencia getSecuencia() {
+        return secuencia;
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -0,0 +1,235 @@
+/**
+ * Fichero: BusEventos.java
+ * Descripción: Bus de eventos dentro del proceso con temas tipados. Sustituye a los
+ *              broadcasts (LocalBroadcastManager y sendBroadcast global): sin Intents,
+ *              sin Bundles y sin pasar por el hilo principal si el suscriptor no lo pide.
+ *              Cada tema recuerda su último valor y se lo entrega a quien se suscribe.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 23/11/2025
+ */
+
+package com.example.eolos;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// -----------------------------------------------------------------------------------
+// Publicar no toma ningún cerrojo: cada tema guarda su lista de suscripciones en un
+// array inmutable dentro de un AtomicReference (se sustituye entero con compareAndSet
+// al suscribir o cancelar) y el último valor en otro AtomicReference.
+//
+// Cada suscripción elige su hilo con un Executor (EN_EL_HILO = el del que publica,
+// HILO_PRINCIPAL = el de la interfaz). Los eventos llevan un número de secuencia y una
+// suscripción nunca entrega uno más antiguo que el último que entregó, así el valor
+// repetido al suscribirse no puede pisar a uno publicado justo después.
+//
+// Sin dependencias de Android salvo HILO_PRINCIPAL, que solo se carga si se usa.
+// -----------------------------------------------------------------------------------
+public final class BusEventos {
+
+    /**
+     * Recibe los eventos de un tema.
+     */
+    public interface Suscriptor<T> {
+        void recibir(T evento);
+    }
+
+    /** Entrega en el hilo que publica (el suscriptor no debe bloquear). */
+    public static final Executor EN_EL_HILO = Runnable::run;
+
+    /** Entrega en el hilo principal (para tocar vistas). */
+    public static final Executor HILO_PRINCIPAL = comando -> HiloPrincipal.HANDLER.post(comando);
+
+    // -------------------------------------------------------------------------------
+    // Temas de la app
+    // -------------------------------------------------------------------------------
+    /** Resumen por tipo de cada ventana de lecturas de la placa (ServicioTrayecto). */
+    public static final Tema<AgregadorVentana.Resumen> RESUMEN_BEACON = new Tema<>("resumen_beacon");
+
+    /** Estado de presencia de la bici (ServicioTrayecto). */
+    public static final Tema<VidaBeacon.Estado> ESTADO_BEACON = new Tema<>("estado_beacon");
+
+    /** true mientras se mide la distancia GPS (ServicioTrayecto). */
+    public static final Tema<Boolean> SEGUIMIENTO_GPS = new Tema<>("seguimiento_gps");
+
+    private BusEventos() {
+    }
+
+    // Handler del hilo principal, creado la primera vez que se usa HILO_PRINCIPAL
+    private static final class HiloPrincipal {
+        static final Handler HANDLER = new Handler(Looper.getMainLooper());
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Tema tipado: lista de suscripciones y último valor publicado.
+     */
+    public static final class Tema<T> {
+
+        private final String nombre;
+        private final AtomicReference<Suscripcion<T>[]> suscripciones;
+        private final AtomicReference<Evento<T>> ultimo = new AtomicReference<>();
+        private final AtomicLong secuencia = new AtomicLong();
+
+        @SuppressWarnings("unchecked")
+        public Tema(String nombre) {
+            this.nombre = nombre;
+            this.suscripciones = new AtomicReference<>((Suscripcion<T>[]) new Suscripcion[0]);
+        }
+
+        // ---------------------------------------------------------------------------
+        // ---------------------------------------------------------------------------
+        /**
+         * Publica un evento: pasa a ser el último valor del tema y se entrega a todas las
+         * suscripciones activas, cada una en su hilo.
+         *
+         * @param valor evento (no null)
+         */
+        public void publicar(T valor) {
+            Evento<T> evento = new Evento<>(valor, secuencia.incrementAndGet());
+            // Con dos publicadores a la vez se queda el de secuencia mayor
+            ultimo.accumulateAndGet(evento, (previo, nuevo) ->
+                    (previo == null || previo.secuencia < nuevo.secuencia) ? nuevo : previo);
+            for (Suscripcion<T> s : suscripciones.get()) {
+                s.entregar(evento);
+            }
+        } // ()
+
+        // ---------------------------------------------------------------------------
+        // ---------------------------------------------------------------------------
+        /**
+         * Se suscribe al tema.
+         *
+         * @param hilo           dónde se llama al suscriptor (EN_EL_HILO, HILO_PRINCIPAL...)
+         * @param repetirUltimo  true para recibir al momento el último valor publicado
+         * @param suscriptor     destino de los eventos
+         * @return la suscripción, para cancelarla (p. ej. en onPause)
+         */
+        public Suscripcion<T> suscribir(Executor hilo, boolean repetirUltimo, Suscriptor<T> suscriptor) {
+            Suscripcion<T> nueva = new Suscripcion<>(this, hilo, suscriptor);
+            while (true) {
+                Suscripcion<T>[] actual = suscripciones.get();
+                Suscripcion<T>[] copia = Arrays.copyOf(actual, actual.length + 1);
+                copia[actual.length] = nueva;
+                if (suscripciones.compareAndSet(actual, copia)) break;
+            }
+            // Después de añadirla: si se publica algo entre medias, la secuencia evita
+            // que el valor repetido llegue después del nuevo
+            Evento<T> ultimoEvento = ultimo.get();
+            if (repetirUltimo && ultimoEvento != null) {
+                nueva.entregar(ultimoEvento);
+            }
+            return nueva;
+        } // ()
+
+        // ---------------------------------------------------------------------------
+        // ---------------------------------------------------------------------------
+        private void quitar(Suscripcion<T> s) {
+            while (true) {
+                Suscripcion<T>[] actual = suscripciones.get();
+                int i = 0;
+                while (i < actual.length && actual[i] != s) i++;
+                if (i == actual.length) return; // ya no estaba
+
+                @SuppressWarnings("unchecked")
+                Suscripcion<T>[] copia = (Suscripcion<T>[]) new Suscripcion[actual.length - 1];
+                System.arraycopy(actual, 0, copia, 0, i);
+                System.arraycopy(actual, i + 1, copia, i, actual.length - i - 1);
+                if (suscripciones.compareAndSet(actual, copia)) return;
+            }
+        } // ()
+
+        /**
+         * @return último valor publicado, o null si no se ha publicado nada
+         */
+        public T getUltimo() {
+            Evento<T> e = ultimo.get();
+            return (e == null) ? null : e.valor;
+        }
+
+        /**
+         * Olvida el último valor (los nuevos suscriptores no recibirán nada hasta la
+         * siguiente publicación).
+         */
+        public void olvidarUltimo() {
+            ultimo.set(null);
+        }
+
+        public int getNumSuscriptores() {
+            return suscripciones.get().length;
+        }
+
+        @Override
+        public String toString() {
+            return "Tema{" + nombre + "}";
+        }
+    } // class Tema
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private static final class Evento<T> {
+        final T valor;
+        final long secuencia;
+
+        Evento(T valor, long secuencia) {
+            this.valor = valor;
+            this.secuencia = secuencia;
+        }
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Suscripción a un tema. cancelar() es idempotente y, tras llamarla, no se entrega
+     * nada más aunque quede algún evento en cola en su hilo.
+     */
+    public static final class Suscripcion<T> {
+
+        private final Tema<T> tema;
+        private final Executor hilo;
+        private final Suscriptor<T> suscriptor;
+        private volatile boolean activa = true;
+        private final AtomicLong ultimaEntregada = new AtomicLong();
+
+        private Suscripcion(Tema<T> tema, Executor hilo, Suscriptor<T> suscriptor) {
+            this.tema = tema;
+            this.hilo = hilo;
+            this.suscriptor = suscriptor;
+        }
+
+        private void entregar(Evento<T> evento) {
+            hilo.execute(() -> {
+                if (!activa) return;
+                // Solo hacia delante: nunca un evento más viejo que el último entregado
+                long previa;
+                do {
+                    previa = ultimaEntregada.get();
+                    if (evento.secuencia <= previa) return;
+                } while (!ultimaEntregada.compareAndSet(previa, evento.secuencia));
+                suscriptor.recibir(evento.valor);
+            });
+        }
+
+        public void cancelar() {
+            if (!activa) return;
+            activa = false;
+            tema.quitar(this);
+        }
+
+        public boolean isActiva() {
+            return activa;
+        }
+    } // class Suscripcion
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
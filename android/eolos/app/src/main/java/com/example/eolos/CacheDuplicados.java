@@ -0,0 +1,175 @@
+/**
+ * Fichero: CacheDuplicados.java
+ * Descripción: Tabla de tamaño fijo MAC (48 bits como long) → último instante visto,
+ *              con caducidad. Direccionamiento abierto con sondeo lineal sobre arrays de
+ *              primitivos: no hay boxing ni reservas de memoria tras el constructor.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 20/11/2025
+ */
+
+package com.example.eolos;
+
+// -----------------------------------------------------------------------------------
+// Sustituye al HashMap<String, Long> lastSeen de EscanerIBeacons, que crecía con cada
+// dispositivo distinto durante el trayecto. Aquí la memoria es constante: las entradas
+// caducadas se barren periódicamente (purgar) y, si aun así la tabla está llena, la MAC
+// nueva simplemente no se recuerda (como mucho se procesa un duplicado).
+// -----------------------------------------------------------------------------------
+public class CacheDuplicados {
+
+    private static final long VACIO = -1L; // ninguna MAC de 48 bits vale -1
+    private static final long MAC_MAXIMA = 0xFFFF_FFFF_FFFFL;
+    private static final int CAPACIDAD_POR_DEFECTO = 256;
+
+    private final long[] claves;
+    private final long[] instantes;
+    private final int mascara;
+    private final int maximoOcupado;
+    private final long umbralMs;
+    private int ocupados = 0;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public CacheDuplicados(long umbralMs) {
+        this(umbralMs, CAPACIDAD_POR_DEFECTO);
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @param umbralMs  tiempo durante el que una MAC se considera duplicada
+     * @param capacidad número de huecos (se redondea a potencia de 2)
+     */
+    public CacheDuplicados(long umbralMs, int capacidad) {
+        int n = Integer.highestOneBit(Math.max(16, capacidad - 1)) << 1;
+        this.claves = new long[n];
+        this.instantes = new long[n];
+        this.mascara = n - 1;
+        this.maximoOcupado = (n * 3) / 4; // factor de carga 0.75
+        this.umbralMs = umbralMs;
+        vaciar();
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Comprueba si la MAC se vio hace menos de umbralMs. Si no, anota el instante. Las
+     * que no caben en 48 bits (Utilidades.MAC_INVALIDA) no se recuerdan: nunca son
+     * duplicado y no pueden confundirse con un hueco libre.
+     *
+     * @param mac   dirección MAC como long (ver Utilidades.macToLong)
+     * @param ahora instante actual en ms
+     * @return true si es un duplicado
+     */
+    public boolean esDuplicado(long mac, long ahora) {
+        if (mac < 0 || mac > MAC_MAXIMA) {
+            return false;
+        }
+        int i = hueco(mac);
+        if (claves[i] == mac) {
+            if (ahora - instantes[i] < umbralMs) {
+                return true;
+            }
+            instantes[i] = ahora;
+            return false;
+        }
+
+        // MAC nueva
+        if (ocupados >= maximoOcupado) {
+            purgar(ahora);
+            if (ocupados >= maximoOcupado) {
+                return false; // tabla llena de entradas vigentes: no se recuerda
+            }
+            i = hueco(mac);
+        }
+        claves[i] = mac;
+        instantes[i] = ahora;
+        ocupados++;
+        return false;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Elimina todas las entradas caducadas. Pensado para llamarse con un temporizador.
+     *
+     * @param ahora instante actual en ms
+     */
+    public void purgar(long ahora) {
+        int i = 0;
+        while (i < claves.length) {
+            if (claves[i] != VACIO && ahora - instantes[i] >= umbralMs) {
+                borrar(i);
+                // borrar() puede haber movido otra entrada a este hueco → volver a mirarlo
+            } else {
+                i++;
+            }
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public void vaciar() {
+        for (int i = 0; i < claves.length; i++) {
+            claves[i] = VACIO;
+        }
+        ocupados = 0;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public int getOcupados() {
+        return ocupados;
+    }
+
+    // -------------------------------------------------------------------------------
+    // Hueco donde está la clave o, si no está, el primer hueco vacío de su cadena
+    // -------------------------------------------------------------------------------
+    private int hueco(long clave) {
+        int i = dispersar(clave) & mascara;
+        while (claves[i] != VACIO && claves[i] != clave) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // Borrado con desplazamiento hacia atrás (sin lápidas): se recolocan las entradas
+    // siguientes de la cadena para que las búsquedas no se corten en el hueco nuevo.
+    // -------------------------------------------------------------------------------
+    private void borrar(int i) {
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (claves[j] == VACIO) {
+                break;
+            }
+            int k = dispersar(claves[j]) & mascara; // posición ideal de la entrada j
+            // Se mueve si su posición ideal no está en el tramo cíclico (i, j]
+            boolean enTramo = (i <= j) ? (i < k && k <= j) : (i < k || k <= j);
+            if (!enTramo) {
+                claves[i] = claves[j];
+                instantes[i] = instantes[j];
+                i = j;
+            }
+        }
+        claves[i] = VACIO;
+        ocupados--;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // Mezcla de bits (finalizador de MurmurHash3) para repartir MACs consecutivas
+    // -------------------------------------------------------------------------------
+    private static int dispersar(long clave) {
+        clave ^= (clave >>> 33);
+        clave *= 0xff51afd7ed558ccdL;
+        clave ^= (clave >>> 33);
+        return (int) clave;
+    } // ()
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -0,0 +1,181 @@
+/**
+ * Fichero: ClienteHttp.java
+ * Descripción: Cliente HTTP compartido por MotorPeticiones: una única URL de servidor
+ *              fijada al compilar, conexiones que se reutilizan (keep-alive) entre peticiones,
+ *              cuerpos en UTF-8 comprimidos con gzip si son grandes y respuestas gzip.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 27/11/2025
+ */
+
+package com.example.eolos;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// -----------------------------------------------------------------------------------
+// Reutilización de conexiones: HttpURLConnection ya guarda las conexiones abiertas por
+// host, pero solo devuelve una al almacén si la respuesta se ha leído ENTERA y cerrado,
+// también la de error (getErrorStream). Por eso aquí siempre se vacía el cuerpo, sea cual
+// sea el código, y disconnect() solo se usa para cortar (cancelación o error de red),
+// porque cierra el socket. Con el servidor guardando la conexión más que el intervalo
+// entre subidas (uvicorn --timeout-keep-alive, ver run.py), las medidas ya no pagan un
+// saludo TCP cada vez.
+//
+// Compresión:
+//   - petición: UTF-8; a partir de UMBRAL_GZIP bytes va con Content-Encoding: gzip (el
+//     backend la descomprime en api/compresion.py). Un JSON de medida (~250 B) no gana
+//     nada comprimido; la ruta del trayecto o las listas sí.
+//   - respuesta: se pide Accept-Encoding: gzip y se descomprime aquí (al poner la cabecera
+//     a mano, Android deja de hacerlo solo). Solo si hay cuerpo: un 204, un 304 o un HEAD
+//     pueden traer la cabecera sin ningún byte.
+//
+// URL del servidor: BuildConfig.URL_SERVIDOR, de la propiedad eolos.urlServidor de Gradle
+// (gradle.properties o -Peolos.urlServidor=...). No se cambia en ejecución.
+// -----------------------------------------------------------------------------------
+public final class ClienteHttp {
+
+    private static final String TAG = "ClienteHttp";
+
+    public static final int UMBRAL_GZIP = 1024;
+    private static final int TIMEOUT_CONEXION_MS = 10_000;
+    private static final int TIMEOUT_LECTURA_MS = 20_000;
+
+    private static final String URL_BASE = sinBarraFinal(BuildConfig.URL_SERVIDOR);
+
+    // Un búfer de lectura por hilo del pool (sin crear uno por petición)
+    private static final ThreadLocal<byte[]> BUFER = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    private ClienteHttp() {
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @return URL del servidor sin barra final (p. ej. "http://172.20.10.12:8000")
+     */
+    public static String getUrlBase() {
+        return URL_BASE;
+    }
+
+    /**
+     * @param ruta ruta que empieza por "/" (p. ej. "/api/v1/auth/login")
+     * @return URL completa en el servidor configurado
+     */
+    public static String url(String ruta) {
+        return URL_BASE + ruta;
+    }
+
+    private static String sinBarraFinal(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Hace la petición en el hilo actual y deja el resultado en p.codigo y
+     * p.cuerpoRespuesta (código 0 si falla la red).
+     */
+    static void realizar(MotorPeticiones.Peticion p) {
+        HttpURLConnection conexion = null;
+        boolean reutilizable = false;
+        try {
+            Traza.d(TAG, "{} {}", p.metodo, p.url);
+            conexion = (HttpURLConnection) new URL(p.url).openConnection();
+            p.conexion = conexion;
+            if (p.isCancelada()) return;
+
+            conexion.setConnectTimeout(TIMEOUT_CONEXION_MS);
+            conexion.setReadTimeout(TIMEOUT_LECTURA_MS);
+            conexion.setRequestMethod(p.metodo);
+            conexion.setRequestProperty("Accept", "application/json");
+            conexion.setRequestProperty("Accept-Encoding", "gzip");
+            if (p.token != null && !p.token.isEmpty()) {
+                conexion.setRequestProperty("Authorization", "Bearer " + p.token);
+            }
+
+            if (!"GET".equals(p.metodo) && p.cuerpo != null) {
+                byte[] datos = p.cuerpo.getBytes(StandardCharsets.UTF_8);
+                conexion.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+                if (datos.length >= UMBRAL_GZIP) {
+                    datos = comprimir(datos);
+                    conexion.setRequestProperty("Content-Encoding", "gzip");
+                }
+                conexion.setDoOutput(true);
+                conexion.setFixedLengthStreamingMode(datos.length);
+                try (OutputStream os = conexion.getOutputStream()) {
+                    os.write(datos);
+                }
+            }
+
+            p.codigo = conexion.getResponseCode();
+
+            // 2xx por getInputStream, el resto por getErrorStream: se leen los dos enteros
+            InputStream is = (p.codigo < 400) ? conexion.getInputStream() : conexion.getErrorStream();
+            if (is != null) {
+                try (InputStream entrada = descomprimir(is, conexion.getContentEncoding())) {
+                    p.cuerpoRespuesta = leer(entrada);
+                }
+            }
+            reutilizable = true;
+            Traza.d(TAG, "{} ← {}", p.ruta, p.codigo);
+        } catch (IOException | RuntimeException ex) {
+            p.codigo = 0;
+            p.cuerpoRespuesta = "";
+            if (!p.isCancelada()) {
+                Traza.w(TAG, "{}: error de red: {}", p.ruta, ex.getMessage());
+            }
+        } finally {
+            // Leída entera la respuesta, la conexión vuelve al almacén; si no, se cierra
+            if (conexion != null && !reutilizable) conexion.disconnect();
+            p.conexion = null;
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private static String leer(InputStream is) throws IOException {
+        byte[] bufer = BUFER.get();
+        ByteArrayOutputStream acumulado = new ByteArrayOutputStream();
+        int n;
+        while ((n = is.read(bufer)) != -1) {
+            acumulado.write(bufer, 0, n);
+        }
+        return new String(acumulado.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * GZIPInputStream lee la cabecera gzip al construirse: con un cuerpo vacío lanzaría
+     * EOFException y una respuesta correcta saldría como código 0. Se mira antes si hay
+     * algún byte.
+     */
+    private static InputStream descomprimir(InputStream is, String codificacion) throws IOException {
+        if (!"gzip".equalsIgnoreCase(codificacion)) return is;
+        PushbackInputStream conVistazo = new PushbackInputStream(is, 1);
+        int primero = conVistazo.read();
+        if (primero == -1) return conVistazo;
+        conVistazo.unread(primero);
+        return new GZIPInputStream(conVistazo);
+    }
+
+    private static byte[] comprimir(byte[] datos) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 2 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        }
+        return salida.toByteArray();
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
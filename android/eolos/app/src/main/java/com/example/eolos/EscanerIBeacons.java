@@ -14,32 +14,76 @@ import android.bluetooth.BluetoothAdapter;
 import android.bluetooth.BluetoothDevice;
 import android.bluetooth.le.BluetoothLeScanner;
 import android.bluetooth.le.ScanCallback;
+import android.bluetooth.le.ScanFilter;
 import android.bluetooth.le.ScanResult;
 import android.bluetooth.le.ScanSettings;
 import android.content.Context;
 import android.content.pm.PackageManager;
 import android.os.Build;
 import android.os.Handler;
-import android.util.Log;
+import android.os.Looper;
+import android.os.SystemClock;
 import androidx.core.app.ActivityCompat;
-import java.util.HashMap;
-import java.util.Map;
+import com.example.eolos.captura.GrabadorEscaneo;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
 public class EscanerIBeacons {
 
     private static final String TAG = ">>>>";
+    // Solo para no repetir el log de una misma MAC; los duplicados de verdad se
+    // detectan por el contador de secuencia (SeguidorSecuencia)
     private static final long DUPLICATE_THRESHOLD_MS = 3000;
-    private static final long REPEAT_SCAN_MS = 30_000;
+    private static final long INTERVALO_EVALUACION_MS = 5_000;
+    // Android degrada a oportunista los escaneos abiertos ~30 min → se reabren antes
+    private static final long MAX_DURACION_ESCANEO_MS = 25 * 60_000;
+    // Por encima de este número de placas no se pide un ScanFilter por UUID (los chips
+    // tienen pocos huecos de filtro): se usa uno solo por prefijo iBeacon y la tabla de
+    // rutas hace el resto.
+    private static final int MAX_FILTROS_POR_UUID = 16;
 
     private static EscanerIBeacons instance;
 
     private BluetoothLeScanner scanner;
     private ScanCallback scanCallback;
     public Context context;
-    private final Handler handler = new Handler();
+    // Hilo dueño de todo el estado del escáner (tabla, política, caché de MACs,
+    // supervisor): el que lo crea, que debe tener Looper. Los callbacks del escaneo
+    // llegan al hilo principal y se reenvían aquí antes de tocar nada.
+    private final Handler handler = new Handler(Looper.myLooper());
     private OnBeaconDetectedListener listener;
-    private final Map<String, Long> lastSeen = new HashMap<>();
+    private final CacheDuplicados lastSeen = new CacheDuplicados(DUPLICATE_THRESHOLD_MS);
+
+    // Tabla de rutas UUID → placa (bici, listener, última detección)
+    private final TablaBeacons tabla = new TablaBeacons();
+    // Decodificación sin Android (la misma que se reproduce en JVM desde una captura)
+    private final ProcesadorTramas procesador = new ProcesadorTramas(tabla);
+    private volatile GrabadorEscaneo grabador;
+    private volatile boolean filtrosObsoletos = false;
+
+    // Filtro por datos de fabricante: siempre se pasa alguno, porque desde Android 8.1 un
+    // escaneo sin filtros no entrega nada con la pantalla apagada. Si el chip no puede
+    // con uno por UUID se baja al de prefijo, y solo si tampoco puede con ese se escanea
+    // sin filtro.
+    private boolean filtroActivo = false;
+    private boolean filtroHardwareActivo = false;
+    private boolean filtroPorUuidActivo = false;
+    private boolean filtroPorUuidDescartado = false;
+    private boolean filtroDescartado = false;
+    private long registrosNulos = 0;
     private String idBici = "sin_asignar";
+    private long intervaloLotesMs = 0; // 0 = sin lotes
+
+    // Ciclo de trabajo adaptativo según presencia del beacon
+    private final PoliticaEscaneo politica = new PoliticaEscaneo();
+    private PoliticaEscaneo.Modo modoActual = PoliticaEscaneo.Modo.ADQUISICION;
+    private Runnable evaluacionPolitica;
+    private long inicioEscaneo = 0;
+
+    // Presupuesto de arranques, vuelta del Bluetooth y métricas de onScanFailed
+    private final SupervisorEscaneo supervisor;
 
     // =============================================================================
     // CALLBACK
@@ -47,8 +91,7 @@ public class EscanerIBeacons {
     /**
      * Interfaz callback para notificar detección de beacon
      */
-    public interface OnBeaconDetectedListener {
-        void onBeaconDetected(String jsonMedida);
+    public interface OnBeaconDetectedListener extends BeaconRegistrado.OyenteBeacon {
     }
 
     // =============================================================================
@@ -58,11 +101,24 @@ public class EscanerIBeacons {
      * Constructor privado (singleton).
      *
      * @param context  Contexto de la aplicación
-     * @param listener Listener que recibirá las medidas cuando se detecte el beacon correcto
+     * @param listener Listener por defecto para las placas registradas sin listener propio
      */
     private EscanerIBeacons(Context context, OnBeaconDetectedListener listener) {
         this.context = context.getApplicationContext();
         this.listener = listener;
+        this.supervisor = new SupervisorEscaneo(this.context, handler, new SupervisorEscaneo.Acciones() {
+            @Override
+            public void arrancar() {
+                iniciarBusqueda();
+            }
+
+            @Override
+            public void bluetoothApagado() {
+                // Android ya ha cerrado los escaneos; el scanner viejo no sirve al volver
+                scanCallback = null;
+                scanner = null;
+            }
+        });
     }
 
     // =============================================================================
@@ -70,7 +126,10 @@ public class EscanerIBeacons {
     // =============================================================================
     /**
      * Obtiene la única instancia de EscanerIBeacons (patrón Singleton).
-     * Si ya existe, actualiza el listener.
+     * Si ya existe, actualiza el listener. La primera llamada fija el hilo dueño del
+     * escáner (el suyo, que debe tener Looper): ahí corren la política, el supervisor,
+     * cada resultado del escaneo y el listener, y desde ahí deben llamarse los demás
+     * métodos.
      *
      * @param context  Contexto de la aplicación
      * @param listener Listener para recibir las detecciones
@@ -84,167 +143,374 @@ public class EscanerIBeacons {
         return instance;
     }
 
+    /**
+     * Bici por defecto para iniciarEscaneoAutomatico (modo de una sola placa).
+     */
     public void setIdBici(String id) {
         this.idBici = (id != null) ? id : "sin_asignar";
     }
 
+    /**
+     * Fija el intervalo de entrega por lotes. Se aplica en el siguiente arranque del
+     * escaneo.
+     *
+     * @param intervaloMs milisegundos entre lotes; 0 para recibir cada anuncio al momento
+     */
+    public void setIntervaloLotesMs(long intervaloMs) {
+        this.intervaloLotesMs = Math.max(0, intervaloMs);
+    }
+
     // =============================================================================
-    // FILTRADO DE DUPLICADOS + LOG
+    // LOG DEL DISPOSITIVO (limitado por MAC)
     // =============================================================================
     /**
-     * Muestra información del dispositivo detectado y filtra duplicados en menos de 5 segundos.
+     * Muestra información del dispositivo detectado, como mucho una vez cada
+     * DUPLICATE_THRESHOLD_MS por MAC.
      *
      * @param resultado Resultado del escaneo BLE
      */
     private void mostrarInformacionDispositivoBTLE(ScanResult resultado) {
         BluetoothDevice device = resultado.getDevice();
         String address = device.getAddress();
-        long now = System.currentTimeMillis();
+        long now = SystemClock.elapsedRealtime();
 
-        if (lastSeen.containsKey(address) && now - lastSeen.get(address) < DUPLICATE_THRESHOLD_MS) {
-            Log.d(TAG, "Duplicado ignorado → " + address);
+        if (lastSeen.esDuplicado(Utilidades.macToLong(address), now)) {
+            Traza.d(TAG, "Duplicado ignorado → {}", address);
             return;
         }
-        lastSeen.put(address, now);
 
         int rssi = resultado.getRssi();
-        Log.d(TAG, "Detectado → " + address + " | RSSI: " + rssi + " dBm");
+        Traza.d(TAG, "Detectado → {} | RSSI: {} dBm", address, rssi);
     }
 
     // =============================================================================
-    // ESCANEO EXCLUSIVO POR UUID
+    // REGISTRO DE PLACAS (TABLA DE RUTAS)
     // =============================================================================
     /**
-     * Inicia el escaneo BLE filtrando exclusivamente por el uuid del beacon indicado.
+     * Añade una placa a la sesión de escaneo (o actualiza su bici/listener si ya estaba).
+     * Si hay un escaneo en curso, los filtros se rehacen en la siguiente evaluación de la
+     * política, sin parar el escaneo por cada placa.
      *
-     * @param uuidBuscado uuid exacto del beacon a buscar
+     * @param uuid   uuid exacto del beacon de la placa
+     * @param idBici bici a la que va montada
+     * @param oyente listener propio de la placa; null para usar el listener global
+     * @return true si el UUID es válido y quedó registrado
      */
-    private void buscarPorUUID(final String uuidBuscado) {
-        Log.d(TAG, ">>> BUSCANDO POR UUID: " + uuidBuscado + " <<<");
-
-        if (scanCallback != null) detenerBusquedaDispositivosBTLE();
-
-        scanCallback = new ScanCallback() {
-            @Override
-            public void onScanResult(int callbackType, ScanResult result) {
-                byte[] record = result.getScanRecord().getBytes();
-                if (record == null || record.length < 25) return;
+    public boolean registrarBeacon(String uuid, String idBici, BeaconRegistrado.OyenteBeacon oyente) {
+        UUID u = parsearUUID(uuid);
+        if (u == null) return false;
+
+        BeaconRegistrado existente = tabla.buscar(u.getMostSignificantBits(), u.getLeastSignificantBits());
+        if (existente != null) {
+            existente.setIdBici(idBici);
+            existente.setOyente(oyente);
+            return true;
+        }
+        tabla.poner(new BeaconRegistrado(u.getMostSignificantBits(), u.getLeastSignificantBits(),
+                idBici, oyente));
+        filtrosObsoletos = (scanCallback != null);
+        return true;
+    }
 
-                // === EXTRAER UUID (bytes 9–24) ===
-                StringBuilder uuidBuilder = new StringBuilder();
-                for (int i = 9; i < 25; i++) {
-                    uuidBuilder.append(String.format("%02X", record[i]));
-                }
-                String uuidDetectado = uuidBuilder.toString();
-                uuidDetectado = uuidDetectado.substring(0,8) + "-" +
-                        uuidDetectado.substring(8,12) + "-" +
-                        uuidDetectado.substring(12,16) + "-" +
-                        uuidDetectado.substring(16,20) + "-" +
-                        uuidDetectado.substring(20,32);
-
-                if (!uuidDetectado.equalsIgnoreCase(uuidBuscado)) {
-                    return; // No es nuestro beacon → ignorar
-                }
+    /**
+     * Quita una placa de la sesión de escaneo.
+     *
+     * @param uuid uuid del beacon
+     * @return true si estaba registrada
+     */
+    public boolean eliminarBeacon(String uuid) {
+        UUID u = parsearUUID(uuid);
+        if (u == null) return false;
+        boolean quitado = tabla.quitar(u.getMostSignificantBits(), u.getLeastSignificantBits()) != null;
+        if (quitado) {
+            filtrosObsoletos = (scanCallback != null);
+        }
+        return quitado;
+    }
 
-                Log.d(TAG, "BEACON CORRECTO → " + uuidDetectado);
-                mostrarInformacionDispositivoBTLE(result);
+    /**
+     * @return copia de las placas registradas (con su última detección)
+     */
+    public List<BeaconRegistrado> getBeaconsRegistrados() {
+        return tabla.listar();
+    }
 
-                // === PARSEAR TRAMA iBeacon ===
-                TramaIBeacon trama = new TramaIBeacon(record);
+    private static UUID parsearUUID(String uuid) {
+        if (uuid == null) return null;
+        try {
+            return UUID.fromString(uuid.trim());
+        } catch (IllegalArgumentException e) {
+            Traza.e(TAG, "UUID no válido → {}", uuid);
+            return null;
+        }
+    }
 
-                int majorRaw = Utilidades.bytesToInt(trama.getMajor());
-                int tipoMedicion = (majorRaw >> 8) & 0xFF;   // 11=CO2, 12=Temperatura, 13=Ruido...
-                int contador = majorRaw & 0xFF;
+    // =============================================================================
+    // ESCANEO DE LAS PLACAS REGISTRADAS
+    // =============================================================================
+    /**
+     * Inicia el escaneo BLE de todas las placas de la tabla de rutas, con filtros en el
+     * controlador si es posible.
+     */
+    private void iniciarBusqueda() {
+        Traza.d(TAG, ">>> BUSCANDO {} PLACA(S) <<<", tabla.getTamanyo());
 
-                int minorRaw = Utilidades.bytesToInt(trama.getMinor());
-                float valorMedido = minorRaw / 1000.0f; // porque en el ESP32 multiplicamos ×1000
+        if (scanCallback != null) detenerBusquedaDispositivosBTLE();
+        filtrosObsoletos = false;
 
-                String mac = result.getDevice().getAddress();
-                String nombreBeacon = "desconocido";
+        if (tabla.getTamanyo() == 0) {
+            Traza.w(TAG, "No hay placas registradas → no se escanea");
+            return;
+        }
 
-                try {
-                    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.S ||
-                            ActivityCompat.checkSelfPermission(context, Manifest.permission.BLUETOOTH_CONNECT)
-                                    == PackageManager.PERMISSION_GRANTED) {
+        scanCallback = new ScanCallback() {
+            @Override
+            public void onScanResult(int callbackType, ScanResult result) {
+                // Llega al hilo principal: se procesa en el del handler, como la política
+                handler.post(() -> procesarResultado(result));
+            }
 
-                        String tempName = result.getDevice().getName();
-                        if (tempName != null && !tempName.isEmpty()) {
-                            nombreBeacon = tempName;
-                        }
+            @Override
+            public void onBatchScanResults(List<ScanResult> results) {
+                // Modo por lotes: el controlador acumula anuncios y los entrega de golpe.
+                // Una sola pasada (en el hilo del handler) por el mismo camino de
+                // decodificación/duplicados.
+                handler.post(() -> {
+                    for (int i = 0, n = results.size(); i < n; i++) {
+                        procesarResultado(results.get(i));
                     }
-                } catch (Exception e) {
-                    // Si explota por permiso → se queda "desconocido"
-                    Log.w(TAG, "No se pudo leer el nombre del beacon (sin permiso BLUETOOTH_CONNECT)");
-                }                if (nombreBeacon == null || nombreBeacon.isEmpty()) {
-                    nombreBeacon = "desconocido";
-                }
-                int rssi = result.getRssi();
-
-                // === JSON COMPLETO CON TODO ===
-                String jsonCompleto = String.format(
-                        "{"
-                                + "\"uuid\":\"%s\","
-                                + "\"mac\":\"%s\","
-                                + "\"nombre\":\"%s\","
-                                + "\"rssi\":%d,"
-                                + "\"major\":%d,"
-                                + "\"tipo_medicion\":%d,"
-                                + "\"contador\":%d,"
-                                + "\"minor\":%d,"
-                                + "\"valor_medido\":%.3f,"
-                                + "\"id_bici\":\"%s\""
-                                + "}",
-                        uuidDetectado,
-                        mac,
-                        nombreBeacon,           // ← NUEVO: nombre del beacon
-                        rssi,
-                        majorRaw,
-                        tipoMedicion,
-                        contador,
-                        minorRaw,
-                        valorMedido,
-                        idBici
-                );
-
-                Log.i(TAG, "TRAMA COMPLETA → " + jsonCompleto);
-
-                if (listener != null) {
-                    listener.onBeaconDetected(jsonCompleto);
-                }
+                });
             }
 
             @Override
             public void onScanFailed(int errorCode) {
-                Log.e(TAG, "Escaneo fallido → código: " + errorCode);
+                Traza.e(TAG, "Escaneo fallido → código: {}", errorCode);
+                Traza.volcarALogcat(TAG); // qué pasó justo antes
+                // El callback llega al hilo principal; el supervisor vive en el del handler
+                handler.post(() -> {
+                    supervisor.registrarFallo(errorCode);
+
+                    // El chip aceptó el filtro pero no puede aplicarlo → reintentar con uno
+                    // solo por prefijo y, si tampoco, sin filtro
+                    if (filtroActivo
+                            && (errorCode == SCAN_FAILED_FEATURE_UNSUPPORTED
+                            || errorCode == SCAN_FAILED_OUT_OF_HARDWARE_RESOURCES)) {
+                        if (filtroPorUuidActivo) {
+                            Traza.w(TAG, "Filtros por UUID rechazados → solo prefijo iBeacon");
+                            filtroPorUuidDescartado = true;
+                        } else {
+                            Traza.w(TAG, "Filtro rechazado → sin filtro (con la pantalla apagada no llegarán resultados)");
+                            filtroDescartado = true;
+                        }
+                        supervisor.solicitarArranque();
+                    }
+                });
             }
         };
 
         if (scanner == null) {
             inicializarBlueTooth();
             if (scanner == null) {
-                Log.e(TAG, "No se pudo inicializar Bluetooth LE Scanner");
+                Traza.e(TAG, "No se pudo inicializar Bluetooth LE Scanner");
                 return;
             }
         }
 
-        ScanSettings settings = new ScanSettings.Builder()
-                .setScanMode(ScanSettings.SCAN_MODE_LOW_LATENCY)  // Más rápido para pruebas
-                .build();
+        ScanSettings.Builder constructorSettings = new ScanSettings.Builder()
+                .setScanMode(modoAndroid(modoActual));
+
+        // Entrega por lotes: el controlador encola los anuncios y despierta a la app
+        // una vez por intervalo (onBatchScanResults) en lugar de una vez por anuncio.
+        // En adquisición no se usa: ahí interesa enterarse cuanto antes.
+        BluetoothAdapter adapter = BluetoothAdapter.getDefaultAdapter();
+        boolean quiereLotes = intervaloLotesMs > 0 && modoActual != PoliticaEscaneo.Modo.ADQUISICION;
+        if (quiereLotes && adapter != null && adapter.isOffloadedScanBatchingSupported()) {
+            constructorSettings.setReportDelay(intervaloLotesMs);
+            Traza.d(TAG, "Entrega por lotes cada {} ms", intervaloLotesMs);
+        } else if (quiereLotes) {
+            Traza.w(TAG, "El chip no soporta lotes → entrega por anuncio");
+        }
+        ScanSettings settings = constructorSettings.build();
+
+        List<ScanFilter> filtros = construirFiltros(adapter);
+        filtroActivo = (filtros != null);
+        filtroHardwareActivo = filtroActivo && adapter != null && adapter.isOffloadedFilteringSupported();
 
         try {
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
                 if (ActivityCompat.checkSelfPermission(context, Manifest.permission.BLUETOOTH_SCAN)
                         == PackageManager.PERMISSION_GRANTED) {
-                    scanner.startScan(null, settings, scanCallback);
+                    scanner.startScan(filtros, settings, scanCallback);
                 }
             } else {
-                scanner.startScan(null, settings, scanCallback);
+                scanner.startScan(filtros, settings, scanCallback);
             }
-            Log.d(TAG, "Escaneo iniciado correctamente");
+            inicioEscaneo = SystemClock.elapsedRealtime();
+            Traza.d(TAG, "Escaneo iniciado correctamente (modo: {}, filtro hardware: {})",
+                    modoActual, filtroHardwareActivo);
         } catch (Exception e) {
-            Log.e(TAG, "Error al iniciar escaneo → " + e.getMessage());
+            Traza.e(TAG, "Error al iniciar escaneo → {}", e.getMessage());
+        }
+    }
+    // =============================================================================
+    // PROCESAR UN RESULTADO (individual o dentro de un lote)
+    // =============================================================================
+    /**
+     * Filtra, decodifica y notifica un resultado de escaneo. Es el único camino de
+     * entrada tanto para onScanResult como para onBatchScanResults, siempre en el hilo
+     * del handler (el listener también se llama ahí).
+     *
+     * @param result Resultado del escaneo BLE
+     */
+    private void procesarResultado(ScanResult result) {
+        if (result.getScanRecord() == null) {
+            registrosNulos++;
+            return;
+        }
+        byte[] record = result.getScanRecord().getBytes();
+        long mac = Utilidades.macToLong(result.getDevice().getAddress());
+        long instanteNanos = result.getTimestampNanos();
+
+        // Captura de la trama cruda (solo si se ha pedido con setGrabador)
+        GrabadorEscaneo g = grabador;
+        if (g != null) {
+            try {
+                g.grabar(record, result.getRssi(), mac, instanteNanos);
+            } catch (IOException e) {
+                Traza.e(TAG, "Error grabando escaneo → {}. Se deja de grabar", e.getMessage());
+                grabador = null;
+            }
+        }
+
+        // Instante real de recepción (en lotes puede ser varios segundos anterior a ahora)
+        long instanteMs = System.currentTimeMillis()
+                - (SystemClock.elapsedRealtimeNanos() - instanteNanos) / 1_000_000L;
+
+        MedidaBeacon medida = procesador.procesar(record, result.getRssi(), mac, instanteNanos, instanteMs);
+        if (medida == null) {
+            return; // no es nuestra o repite una lectura ya entregada
+        }
+        politica.registrarDeteccion(SystemClock.elapsedRealtime());
+        mostrarInformacionDispositivoBTLE(result);
+
+        Traza.i(TAG, "TRAMA COMPLETA → {}", medida);
+
+        BeaconRegistrado beacon = procesador.getBeacon(medida);
+        BeaconRegistrado.OyenteBeacon oyente = (beacon != null) ? beacon.getOyente() : null;
+        if (oyente == null) oyente = listener;
+        if (oyente != null) {
+            oyente.onBeaconDetected(medida);
+        }
+    }
+
+    // =============================================================================
+    // CAPTURA DE TRAMAS CRUDAS
+    // =============================================================================
+    /**
+     * Empieza (o deja, con null) de grabar todas las tramas que llegan, antes de filtrar,
+     * para reproducirlas después en una JVM con ReproductorEscaneo.
+     *
+     * @param grabador grabador abierto, o null para dejar de grabar
+     */
+    public void setGrabador(GrabadorEscaneo grabador) {
+        this.grabador = grabador;
+    }
+
+    // =============================================================================
+    // TRADUCCIÓN DE LA POLÍTICA A AJUSTES DE ANDROID
+    // =============================================================================
+    private static int modoAndroid(PoliticaEscaneo.Modo modo) {
+        switch (modo) {
+            case ESTABLE:
+                return ScanSettings.SCAN_MODE_BALANCED;
+            case AHORRO:
+                return ScanSettings.SCAN_MODE_LOW_POWER;
+            case ADQUISICION:
+            default:
+                return ScanSettings.SCAN_MODE_LOW_LATENCY;
         }
     }
+
+    // =============================================================================
+    // FILTRO EN EL CONTROLADOR BLUETOOTH
+    // =============================================================================
+    /**
+     * Construye los ScanFilter por datos de fabricante (Apple 0x004C) para que el
+     * controlador descarte sin despertar a la app todo lo que no sea una de nuestras placas:
+     * uno por UUID mientras haya pocas placas; con muchas, uno solo que deja pasar
+     * cualquier iBeacon y la tabla de rutas discrimina por UUID. Sin filtrado offload los
+     * mismos filtros los aplica la pila Bluetooth en software: no ahorran despertares de
+     * la radio, pero el escaneo sigue entregando con la pantalla apagada.
+     *
+     * @return lista de filtros, o null solo si el chip ha rechazado incluso el de prefijo
+     */
+    private List<ScanFilter> construirFiltros(BluetoothAdapter adapter) {
+        filtroPorUuidActivo = false;
+        if (filtroDescartado) {
+            Traza.w(TAG, "Sin filtro de escaneo → con la pantalla apagada no llegarán resultados");
+            return null;
+        }
+        if (adapter == null || !adapter.isOffloadedFilteringSupported()) {
+            Traza.d(TAG, "Sin filtrado offload → la pila Bluetooth filtra en software");
+        }
+
+        List<BeaconRegistrado> beacons = tabla.listar();
+        List<ScanFilter> filtros = new ArrayList<>(Math.min(beacons.size(), MAX_FILTROS_POR_UUID));
+
+        if (filtroPorUuidDescartado || beacons.size() > MAX_FILTROS_POR_UUID) {
+            Traza.d(TAG, "{} placas → filtro solo por prefijo iBeacon", beacons.size());
+            filtros.add(new ScanFilter.Builder()
+                    .setManufacturerData(LectorTramaIBeacon.COMPANY_ID_APPLE,
+                            LectorTramaIBeacon.construirDatosFabricante(0L, 0L),
+                            LectorTramaIBeacon.construirMascaraFabricante(false))
+                    .build());
+            return filtros;
+        }
+
+        for (BeaconRegistrado b : beacons) {
+            filtros.add(new ScanFilter.Builder()
+                    .setManufacturerData(LectorTramaIBeacon.COMPANY_ID_APPLE,
+                            LectorTramaIBeacon.construirDatosFabricante(
+                                    b.getUuidMasSignificativo(), b.getUuidMenosSignificativo()),
+                            LectorTramaIBeacon.construirMascaraFabricante(true))
+                    .build());
+        }
+        filtroPorUuidActivo = true;
+        return filtros;
+    }
+
+    /**
+     * @return true si el escaneo actual usa el filtro del controlador
+     */
+    public boolean isFiltroHardwareActivo() {
+        return filtroHardwareActivo;
+    }
+
+    /**
+     * Callbacks que llegaron a la app y no eran nuestro beacon: los que el filtro dejó
+     * pasar (con el de prefijo, iBeacons ajenos) o todos los anuncios cercanos si se
+     * escanea sin filtro. Los que el controlador descarta no llegan y no se pueden contar
+     * desde aquí.
+     */
+    public long getCallbacksRechazadosEnSoftware() {
+        return registrosNulos + procesador.getRechazadas();
+    }
+
+    /**
+     * Callbacks que sí correspondían a nuestro beacon.
+     */
+    public long getCallbacksAceptados() {
+        return procesador.getAceptadas();
+    }
+
+    /**
+     * Tramas de nuestras placas descartadas por repetir (tipo, contador) de una lectura
+     * ya entregada.
+     */
+    public long getTramasDuplicadas() {
+        return procesador.getDuplicadas();
+    }
+
     // =============================================================================
     // DETENER ESCANEO
     // =============================================================================
@@ -263,7 +529,7 @@ public class EscanerIBeacons {
                     scanner.stopScan(scanCallback);
                 }
             } catch (Exception e) {
-                Log.e(TAG, "Error al detener escaneo → " + e.getMessage());
+                Traza.e(TAG, "Error al detener escaneo → {}", e.getMessage());
             }
         }
         scanCallback = null;
@@ -273,43 +539,127 @@ public class EscanerIBeacons {
     // =============================================================================
     /**
      * Inicializa el adaptador Bluetooth y obtiene el BluetoothLeScanner.
-     * Si Bluetooth no está disponible o desactivado, registra advertencia.
+     * Si Bluetooth no está disponible o desactivado, registra advertencia (el
+     * supervisor vuelve a arrancar el escaneo cuando se encienda).
      */
     public void inicializarBlueTooth() {
         BluetoothAdapter adapter = BluetoothAdapter.getDefaultAdapter();
         if (adapter == null || !adapter.isEnabled()) {
-            Log.w(TAG, "Bluetooth no disponible o desactivado");
+            Traza.w(TAG, "Bluetooth no disponible o desactivado");
             return;
         }
         scanner = adapter.getBluetoothLeScanner();
         if (scanner != null) {
-            Log.d(TAG, "Bluetooth LE Scanner inicializado");
+            Traza.d(TAG, "Bluetooth LE Scanner inicializado");
         }
     }
 
     // =============================================================================
-    // ESCANEO AUTOMÁTICO CADA 30 SEGUNDOS
+    // ESCANEO AUTOMÁTICO CON POLÍTICA ADAPTATIVA
     // =============================================================================
     /**
-     * Inicia el escaneo automático del beacon indicado. Detiene cualquier escaneo previo,
-     * realiza un primer escaneo inmediato y lo repite cada 30 segundos.
+     * Inicia el escaneo automático de una sola placa (la bici del usuario). Es una flota
+     * de una: vacía la tabla, registra el UUID con la bici de setIdBici y el listener
+     * global, y arranca.
+     *
+     * El escaneo abierto (p. ej. al cambiar de bici) no se para aquí: lo cierra
+     * iniciarBusqueda() justo antes de abrir el nuevo. Si el supervisor aplaza el arranque
+     * por presupuesto, mientras tanto sigue escaneando con sus filtros de antes y la tabla
+     * ya nueva; con filtros por UUID la placa nueva no se ve hasta el arranque, pero no se
+     * abre un hueco sin escaneo.
      *
      * @param uuid uuid exacto del beacon a escanear
      */
     public void iniciarEscaneoAutomatico(String uuid) {
         if (uuid == null || uuid.trim().isEmpty()) return;
 
-        handler.removeCallbacksAndMessages(null);
+        detenerEvaluacion();
+        tabla.vaciar();
+        if (!registrarBeacon(uuid, idBici, null)) {
+            detenerBusquedaDispositivosBTLE(); // sin placas no hay nada que escanear
+            return;
+        }
+        iniciarEscaneoFlota();
+    }
+
+    /**
+     * Inicia un único escaneo para todas las placas registradas con registrarBeacon.
+     * Sustituye al escaneo previo cuando el arranque se hace de verdad (no antes, si el
+     * supervisor lo aplaza), arranca en modo adquisición (baja latencia) y
+     * programa una evaluación periódica de la política: si el modo cambia, la tabla de
+     * placas ha cambiado o el escaneo lleva demasiado tiempo abierto, se reinicia con los
+     * nuevos ajustes. Todos los arranques pasan por el supervisor, que los aplaza si se
+     * acaba el presupuesto de Android y reabre el escaneo cuando vuelve el Bluetooth.
+     */
+    public void iniciarEscaneoFlota() {
+        detenerEvaluacion();
+        politica.reiniciar();
+        modoActual = politica.getModo();
+        supervisor.activar();
         inicializarBlueTooth();
-        buscarPorUUID(uuid);
+        supervisor.solicitarArranque();
 
-        handler.postDelayed(new Runnable() {
+        evaluacionPolitica = new Runnable() {
             @Override
             public void run() {
-                detenerBusquedaDispositivosBTLE();
-                buscarPorUUID(uuid);
+                long ahora = SystemClock.elapsedRealtime();
+                lastSeen.purgar(ahora); // barrido de MACs caducadas: memoria plana
+                PoliticaEscaneo.Modo modoNuevo = politica.evaluar(ahora);
+
+                boolean cambioModo = (modoNuevo != modoActual);
+                boolean refrescar = (ahora - inicioEscaneo >= MAX_DURACION_ESCANEO_MS);
+
+                if (cambioModo || refrescar || filtrosObsoletos) {
+                    Traza.d(TAG, "Política de escaneo: {} → {}{}", modoActual, modoNuevo,
+                            refrescar ? " (refresco)" : filtrosObsoletos ? " (placas cambiadas)" : "");
+                    registrarPerdidas(); // cómo le ha ido al modo que se abandona
+                    modoActual = modoNuevo;
+                    // Si no cabe en el presupuesto sigue el escaneo actual hasta que haya hueco
+                    supervisor.solicitarArranque();
+                }
+                handler.postDelayed(this, INTERVALO_EVALUACION_MS);
             }
-        }, REPEAT_SCAN_MS);
+        };
+        handler.postDelayed(evaluacionPolitica, INTERVALO_EVALUACION_MS);
+    }
+
+    private void detenerEvaluacion() {
+        if (evaluacionPolitica != null) {
+            handler.removeCallbacks(evaluacionPolitica);
+        }
+    }
+
+    /**
+     * Deja en el log la tasa de pérdidas reciente de cada placa, para comparar los
+     * ajustes de escaneo entre sí.
+     */
+    private void registrarPerdidas() {
+        if (!Traza.activo(Traza.DEBUG)) return;
+        for (BeaconRegistrado b : tabla.listar()) {
+            Traza.d(TAG, "Pérdidas recientes {} ({}): {}%", b.getUuidTexto(), modoActual,
+                    porcentaje(b.getSecuencia().getTasaPerdidasReciente()));
+        }
+    }
+
+    /**
+     * @return tasa (0..1) en tanto por ciento con un decimal, sin formatear texto
+     */
+    private static double porcentaje(double tasa) {
+        return Math.round(tasa * 1000) / 10.0;
+    }
+
+    /**
+     * @return modo de escaneo en uso (adquisición, estable o ahorro)
+     */
+    public PoliticaEscaneo.Modo getModoEscaneo() {
+        return modoActual;
+    }
+
+    /**
+     * @return supervisor del escaneo (arranques, aplazamientos y fallos por código)
+     */
+    public SupervisorEscaneo getSupervisor() {
+        return supervisor;
     }
 
     // =============================================================================
@@ -320,10 +670,31 @@ public class EscanerIBeacons {
      * Debe llamarse al cerrar la aplicación o al desconectar.
      */
     public void destroy() {
+        supervisor.desactivar();
         detenerBusquedaDispositivosBTLE();
         handler.removeCallbacksAndMessages(null);
-        lastSeen.clear();
+        lastSeen.vaciar();
+        Traza.i(TAG, "Supervisor → {}", supervisor.resumen());
+        Traza.i(TAG, "Callbacks aceptados: {} | rechazados en software: {}", getCallbacksAceptados(),
+                getCallbacksRechazadosEnSoftware());
+        Traza.i(TAG, "Duplicados: {} | filtro hardware: {}", getTramasDuplicadas(), filtroHardwareActivo);
+        for (BeaconRegistrado b : tabla.listar()) {
+            SeguidorSecuencia s = b.getSecuencia();
+            Traza.i(TAG, "Placa {} → lecturas: {} | perdidas: {}", b.getUuidTexto(), s.getRecibidas(),
+                    s.getPerdidas());
+            Traza.i(TAG, "Placa {} → tasa de pérdidas: {}%", b.getUuidTexto(), porcentaje(s.getTasaPerdidas()));
+        }
+        tabla.vaciar();
+        GrabadorEscaneo g = grabador;
+        grabador = null;
+        if (g != null) {
+            try {
+                g.cerrar();
+            } catch (IOException e) {
+                Traza.e(TAG, "Error cerrando la grabación → {}", e.getMessage());
+            }
+        }
         instance = null;
-        Log.d(TAG, "EscanerIBeacons destruido");
+        Traza.d(TAG, "EscanerIBeacons destruido");
     }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+/**
+ * Fichero: FiltroProximidad.java
+ * Descripción: Filtro de Kalman de una dimensión sobre el RSSI de una placa, con
+ *              estimación de distancia a partir del txPower de la trama iBeacon y una
+ *              clasificación de proximidad con histéresis (cerca / media / lejos).
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 21/11/2025
+ */
+
+package com.example.eolos;
+
+// -----------------------------------------------------------------------------------
+// Modelo: el RSSI "real" es una constante que deriva con el tiempo (ruido de proceso
+// proporcional al tiempo entre lecturas) y cada lectura le suma ruido gaussiano. Son
+// unas pocas operaciones por trama y ninguna reserva de memoria.
+//
+// Distancia por pérdida de trayecto: d = 10 ^ ((txPower - rssi) / (10 · n)), donde
+// txPower es el RSSI esperado a 1 m (byte 29 de la trama; la placa manda -53).
+// -----------------------------------------------------------------------------------
+public class FiltroProximidad {
+
+    public enum Proximidad {
+        DESCONOCIDA,
+        CERCA,  // la bici está al lado del móvil: "es mi bici"
+        MEDIA,
+        LEJOS   // el usuario se ha alejado de la bici
+    }
+
+    // Varianza de una lectura de RSSI (≈ 4 dB de desviación típica en BLE)
+    private static final double RUIDO_MEDIDA = 16.0;
+    // Cuánto puede variar el RSSI real por segundo (dB² / s): andando, bastante
+    private static final double RUIDO_PROCESO_POR_S = 4.0;
+    // Exponente de pérdida de trayecto (2 = espacio libre; 2.5–3 en interiores)
+    private static final double EXPONENTE_TRAYECTO = 2.0;
+    // RSSI a 1 m si la trama no trae un txPower razonable
+    private static final int TX_POWER_POR_DEFECTO = -59;
+
+    // Umbrales de proximidad (m), con histéresis para no oscilar en la frontera
+    private static final double ENTRADA_CERCA_M = 2.0;
+    private static final double SALIDA_CERCA_M = 3.0;
+    private static final double ENTRADA_LEJOS_M = 6.0;
+    private static final double SALIDA_LEJOS_M = 4.5;
+
+    private double rssi;          // estimación
+    private double varianza;      // incertidumbre de la estimación
+    private long ultimaLecturaMs = -1;
+    private int txPower = TX_POWER_POR_DEFECTO;
+    private Proximidad proximidad = Proximidad.DESCONOCIDA;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Incorpora una lectura.
+     *
+     * @param rssiMedido RSSI de la trama (dBm)
+     * @param txPower    RSSI de referencia a 1 m que viene en la trama (dBm)
+     * @param ahora      instante de la lectura en ms (reloj monotónico)
+     * @return RSSI suavizado
+     */
+    public synchronized double actualizar(int rssiMedido, int txPower, long ahora) {
+        if (txPower < -100 || txPower > -20) {
+            txPower = TX_POWER_POR_DEFECTO; // byte sin calibrar o de otro firmware
+        }
+        this.txPower = txPower;
+
+        if (ultimaLecturaMs < 0) {
+            rssi = rssiMedido;
+            varianza = RUIDO_MEDIDA;
+        } else {
+            // Predicción: tras un silencio largo la estimación vale poco → se fía más de la lectura
+            double dt = Math.max(0, ahora - ultimaLecturaMs) / 1000.0;
+            varianza += RUIDO_PROCESO_POR_S * dt;
+
+            // Corrección
+            double ganancia = varianza / (varianza + RUIDO_MEDIDA);
+            rssi += ganancia * (rssiMedido - rssi);
+            varianza *= (1.0 - ganancia);
+        }
+        ultimaLecturaMs = ahora;
+
+        clasificar(getDistanciaMetros());
+        return rssi;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private void clasificar(double d) {
+        switch (proximidad) {
+            case DESCONOCIDA:
+                proximidad = (d <= ENTRADA_CERCA_M) ? Proximidad.CERCA
+                        : (d >= ENTRADA_LEJOS_M) ? Proximidad.LEJOS : Proximidad.MEDIA;
+                break;
+            case CERCA:
+                if (d >= ENTRADA_LEJOS_M) proximidad = Proximidad.LEJOS;
+                else if (d > SALIDA_CERCA_M) proximidad = Proximidad.MEDIA;
+                break;
+            case MEDIA:
+                if (d <= ENTRADA_CERCA_M) proximidad = Proximidad.CERCA;
+                else if (d >= ENTRADA_LEJOS_M) proximidad = Proximidad.LEJOS;
+                break;
+            case LEJOS:
+                if (d <= ENTRADA_CERCA_M) proximidad = Proximidad.CERCA;
+                else if (d < SALIDA_LEJOS_M) proximidad = Proximidad.MEDIA;
+                break;
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public synchronized void reiniciar() {
+        ultimaLecturaMs = -1;
+        varianza = 0;
+        proximidad = Proximidad.DESCONOCIDA;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public synchronized double getRssiSuavizado() {
+        return rssi;
+    }
+
+    /** @return distancia estimada en metros, o -1 si aún no hay lecturas */
+    public synchronized double getDistanciaMetros() {
+        if (ultimaLecturaMs < 0) return -1;
+        return Math.pow(10.0, (txPower - rssi) / (10.0 * EXPONENTE_TRAYECTO));
+    }
+
+    public synchronized Proximidad getProximidad() {
+        return proximidad;
+    }
+
+    /** @return instante (ms, reloj monotónico) de la última lectura, o -1 si nunca */
+    public synchronized long getUltimaLecturaMs() {
+        return ultimaLecturaMs;
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
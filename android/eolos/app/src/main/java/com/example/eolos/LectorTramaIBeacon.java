@@ -0,0 +1,203 @@
+/**
+ * Fichero: LectorTramaIBeacon.java
+ * Descripción: Decodificador reutilizable (flyweight) de tramas iBeacon. Lee los campos
+ *              directamente del byte[] del scan record con operaciones de bits, sin copiar
+ *              arrays ni crear objetos por trama.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 20/11/2025
+ */
+
+package com.example.eolos;
+
+// -----------------------------------------------------------------------------------
+// Misma disposición de bytes que TramaIBeacon:
+//
+//   0..2   advFlags       (3 bytes)
+//   3..4   advHeader      (2 bytes)
+//   5..6   companyID      (2 bytes)
+//   7      iBeaconType    (1 byte)
+//   8      iBeaconLength  (1 byte)
+//   9..24  uuid           (16 bytes)
+//   25..26 major          (2 bytes)
+//   27..28 minor          (2 bytes)
+//   29     txPower        (1 byte)
+//
+// Uso: una única instancia por hilo de escaneo. Se llama a envolver() con cada
+// scan record y se leen los campos con los getters. No guarda copia de los bytes,
+// así que los valores solo son válidos hasta la siguiente llamada a envolver().
+// -----------------------------------------------------------------------------------
+public class LectorTramaIBeacon {
+
+    public static final int LONGITUD_MINIMA = 30;
+    public static final int COMPANY_ID_APPLE = 0x004C;
+    private static final int LONGITUD_DATOS_FABRICANTE = 23;
+
+    private static final int POS_ADV_FLAGS = 0;
+    private static final int POS_ADV_HEADER = 3;
+    private static final int POS_COMPANY_ID = 5;
+    private static final int POS_IBEACON_TYPE = 7;
+    private static final int POS_IBEACON_LENGTH = 8;
+    private static final int POS_UUID = 9;
+    private static final int POS_MAJOR = 25;
+    private static final int POS_MINOR = 27;
+    private static final int POS_TX_POWER = 29;
+
+    private byte[] losBytes;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Apunta el lector a un nuevo scan record. No copia nada.
+     *
+     * @param bytes Bytes crudos del scan record
+     * @return true si el record tiene longitud suficiente para ser una trama iBeacon
+     */
+    public boolean envolver(byte[] bytes) {
+        if (bytes == null || bytes.length < LONGITUD_MINIMA) {
+            this.losBytes = null;
+            return false;
+        }
+        this.losBytes = bytes;
+        return true;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // Descarte rápido de lo que no es iBeacon: companyID 0x004C, tipo 0x02 y
+    // longitud 0x15. Son 4 comparaciones de bytes, sin tocar el resto de la trama.
+    // -------------------------------------------------------------------------------
+    public boolean esIBeacon() {
+        return losBytes != null
+                && losBytes[POS_COMPANY_ID] == (byte) COMPANY_ID_APPLE
+                && losBytes[POS_COMPANY_ID + 1] == (byte) (COMPANY_ID_APPLE >> 8)
+                && losBytes[POS_IBEACON_TYPE] == (byte) 0x02
+                && losBytes[POS_IBEACON_LENGTH] == (byte) 0x15;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // Compara el UUID de la trama con uno ya convertido a dos long
+    // (ver java.util.UUID.getMostSignificantBits/getLeastSignificantBits)
+    // -------------------------------------------------------------------------------
+    public boolean tieneUUID(long masSignificativo, long menosSignificativo) {
+        return getUUIDMenosSignificativo() == menosSignificativo
+                && getUUIDMasSignificativo() == masSignificativo;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // Datos de fabricante (sin el companyID) para un ScanFilter que case con el
+    // prefijo iBeacon y el UUID indicado: 0x02 0x15 + uuid + major/minor/txPower.
+    // -------------------------------------------------------------------------------
+    public static byte[] construirDatosFabricante(long uuidMasSignificativo, long uuidMenosSignificativo) {
+        byte[] datos = new byte[LONGITUD_DATOS_FABRICANTE];
+        datos[0] = 0x02;
+        datos[1] = 0x15;
+        for (int i = 0; i < 8; i++) {
+            datos[2 + i] = (byte) (uuidMasSignificativo >>> (56 - 8 * i));
+            datos[10 + i] = (byte) (uuidMenosSignificativo >>> (56 - 8 * i));
+        }
+        return datos;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // Máscara para los datos anteriores: tipo, longitud y (opcionalmente) UUID deben
+    // coincidir; major, minor y txPower se ignoran.
+    // -------------------------------------------------------------------------------
+    public static byte[] construirMascaraFabricante(boolean conUUID) {
+        byte[] mascara = new byte[LONGITUD_DATOS_FABRICANTE];
+        int hasta = conUUID ? 18 : 2;
+        for (int i = 0; i < hasta; i++) {
+            mascara[i] = (byte) 0xFF;
+        }
+        return mascara;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public byte[] getLosBytes() {
+        return losBytes;
+    }
+
+    // -------------------------------------------------------------------------------
+    // UUID como dos long (big-endian), igual que java.util.UUID
+    // -------------------------------------------------------------------------------
+    public long getUUIDMasSignificativo() {
+        return Utilidades.bytesToLong(losBytes, POS_UUID, 8);
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public long getUUIDMenosSignificativo() {
+        return Utilidades.bytesToLong(losBytes, POS_UUID + 8, 8);
+    }
+
+    // -------------------------------------------------------------------------------
+    // Mismo valor que Utilidades.bytesToInt(trama.getMajor())
+    // -------------------------------------------------------------------------------
+    public int getMajor() {
+        return Utilidades.bytesToInt(losBytes, POS_MAJOR, 2);
+    }
+
+    // -------------------------------------------------------------------------------
+    // Mismo valor que Utilidades.bytesToInt(trama.getMinor()) (con signo: el ESP32
+    // puede mandar valores negativos)
+    // -------------------------------------------------------------------------------
+    public int getMinor() {
+        return Utilidades.bytesToInt(losBytes, POS_MINOR, 2);
+    }
+
+    // -------------------------------------------------------------------------------
+    // Byte alto del major: tipo de medida, se interpreta con MedidaBeacon.TIPO_*
+    // -------------------------------------------------------------------------------
+    public int getTipoMedicion() {
+        return losBytes[POS_MAJOR] & 0xFF;
+    }
+
+    // -------------------------------------------------------------------------------
+    // Byte bajo del major: contador de muestra del emisor
+    // -------------------------------------------------------------------------------
+    public int getContador() {
+        return losBytes[POS_MAJOR + 1] & 0xFF;
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public byte getTxPower() {
+        return losBytes[POS_TX_POWER];
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public int getAdvFlags() {
+        return Utilidades.bytesToInt(losBytes, POS_ADV_FLAGS, 3) & 0xFFFFFF;
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public int getAdvHeader() {
+        return Utilidades.bytesToInt(losBytes, POS_ADV_HEADER, 2) & 0xFFFF;
+    }
+
+    // -------------------------------------------------------------------------------
+    // El company ID viaja en little-endian (0x4C 0x00 → 0x004C)
+    // -------------------------------------------------------------------------------
+    public int getCompanyID() {
+        return (losBytes[POS_COMPANY_ID] & 0xFF) | ((losBytes[POS_COMPANY_ID + 1] & 0xFF) << 8);
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public byte getiBeaconType() {
+        return losBytes[POS_IBEACON_TYPE];
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public byte getiBeaconLength() {
+        return losBytes[POS_IBEACON_LENGTH];
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
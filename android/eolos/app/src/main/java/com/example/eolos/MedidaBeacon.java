@@ -0,0 +1,182 @@
+/**
+ * Fichero: MedidaBeacon.java
+ * Descripción: Medida recibida de la placa por iBeacon, ya decodificada. Objeto inmutable
+ *              con campos primitivos que viaja escáner → servicio → lógica/UI. El JSON
+ *              solo se construye al enviarla al servidor.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 20/11/2025
+ */
+
+package com.example.eolos;
+
+import java.util.Locale;
+import java.util.UUID;
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+public final class MedidaBeacon {
+
+    // Tipos que codifica el ESP32 en el byte alto del major, con el significado que les
+    // da la app y con el que los guarda el backend. Publicador.h del firmware llama a
+    // esos mismos códigos CO2, TEMPERATURA y RUIDO: la única tabla que vale aquí es esta
+    public static final int TIPO_PM2_5 = 11;
+    public static final int TIPO_PM10 = 12;
+    public static final int TIPO_CO2 = 13;
+
+    private final long uuidMasSignificativo;
+    private final long uuidMenosSignificativo;
+    private final long mac;
+    private final int rssi;
+    private final float rssiSuavizado;
+    private final float distanciaMetros;
+    private final FiltroProximidad.Proximidad proximidad;
+    private final int tipoMedicion;
+    private final int contador;
+    private final float valorMedido;
+    private final long instanteMs;     // hora de pared (ms desde 1970) de la recepción
+    private final long instanteNanos;  // elapsedRealtimeNanos de la recepción
+    private final String idBici;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public MedidaBeacon(long uuidMasSignificativo, long uuidMenosSignificativo, long mac, int rssi,
+                        float rssiSuavizado, float distanciaMetros,
+                        FiltroProximidad.Proximidad proximidad,
+                        int tipoMedicion, int contador, float valorMedido,
+                        long instanteMs, long instanteNanos, String idBici) {
+        this.uuidMasSignificativo = uuidMasSignificativo;
+        this.uuidMenosSignificativo = uuidMenosSignificativo;
+        this.mac = mac;
+        this.rssi = rssi;
+        this.rssiSuavizado = rssiSuavizado;
+        this.distanciaMetros = distanciaMetros;
+        this.proximidad = proximidad;
+        this.tipoMedicion = tipoMedicion;
+        this.contador = contador;
+        this.valorMedido = valorMedido;
+        this.instanteMs = instanteMs;
+        this.instanteNanos = instanteNanos;
+        this.idBici = idBici;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public long getUuidMasSignificativo() {
+        return uuidMasSignificativo;
+    }
+
+    public long getUuidMenosSignificativo() {
+        return uuidMenosSignificativo;
+    }
+
+    public long getMac() {
+        return mac;
+    }
+
+    public int getRssi() {
+        return rssi;
+    }
+
+    /** RSSI tras el filtro de Kalman de la placa */
+    public float getRssiSuavizado() {
+        return rssiSuavizado;
+    }
+
+    /** distancia estimada en metros a partir del RSSI suavizado y el txPower */
+    public float getDistanciaMetros() {
+        return distanciaMetros;
+    }
+
+    public FiltroProximidad.Proximidad getProximidad() {
+        return proximidad;
+    }
+
+    public int getTipoMedicion() {
+        return tipoMedicion;
+    }
+
+    public int getContador() {
+        return contador;
+    }
+
+    /** major tal como lo emite la placa: (tipo << 8) + contador */
+    public int getMajor() {
+        return (tipoMedicion << 8) | contador;
+    }
+
+    public float getValorMedido() {
+        return valorMedido;
+    }
+
+    public long getInstanteMs() {
+        return instanteMs;
+    }
+
+    public long getInstanteNanos() {
+        return instanteNanos;
+    }
+
+    public String getIdBici() {
+        return idBici;
+    }
+
+    // -------------------------------------------------------------------------------
+    // Conversiones a texto: solo para logs o para el borde de red
+    // -------------------------------------------------------------------------------
+    public String getUuidTexto() {
+        return new UUID(uuidMasSignificativo, uuidMenosSignificativo).toString().toUpperCase(Locale.ROOT);
+    }
+
+    public String getMacTexto() {
+        return Utilidades.longToMac(mac);
+    }
+
+    /**
+     * Nombre del tipo tal como lo espera el backend ("pm2_5", "pm10", "co2"), o null si
+     * el tipo no se conoce.
+     */
+    public static String tipoParaServidor(int tipoMedicion) {
+        switch (tipoMedicion) {
+            case TIPO_PM2_5: return "pm2_5";
+            case TIPO_PM10: return "pm10";
+            case TIPO_CO2: return "co2";
+            default: return null;
+        }
+    }
+
+    /**
+     * Nombre del tipo para mostrar en pantalla.
+     */
+    public static String tipoParaMostrar(int tipoMedicion) {
+        switch (tipoMedicion) {
+            case TIPO_PM2_5: return "PM2.5";
+            case TIPO_PM10: return "PM10";
+            case TIPO_CO2: return "CO2";
+            default: return "Desconocido";
+        }
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Override
+    public String toString() {
+        return "MedidaBeacon{" +
+                "uuid=" + getUuidTexto() +
+                ", mac=" + getMacTexto() +
+                ", rssi=" + rssi +
+                ", rssiSuavizado=" + rssiSuavizado +
+                ", distancia=" + distanciaMetros +
+                ", proximidad=" + proximidad +
+                ", tipo=" + tipoMedicion +
+                ", contador=" + contador +
+                ", valor=" + valorMedido +
+                ", idBici='" + idBici + '\'' +
+                '}';
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -0,0 +1,311 @@
+/**
+ * Fichero: MotorPeticiones.java
+ * Descripción: Motor de peticiones REST de la app: un pool de pocos hilos compartido por
+ *              todas las pantallas y lógicas, con un límite de peticiones a la vez por
+ *              endpoint (una ráfaga de guardar-medida no deja esperando a
+ *              finalizar-trayecto ni al perfil), cancelación y respuesta en el hilo que
+ *              elija quien pide. Sustituye al AsyncTask de PeticionarioREST.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 27/11/2025
+ */
+
+package com.example.eolos;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// -----------------------------------------------------------------------------------
+//   enviar() --> carril del endpoint --(menos de 'limite' en curso)--> pool (HILOS)
+//                                    --(lleno)--> cola del carril (FIFO, MAX_EN_ESPERA)
+//   al terminar una: sale la siguiente de su carril
+//   respuesta --> Executor de quien pidió (hilo principal, Handler de un servicio...)
+//
+// Carril = ruta de la URL sin host ni query. Por defecto LIMITE_POR_DEFECTO a la vez;
+// setLimite() lo cambia por endpoint. Como cada carril solo entrega al pool lo que cabe,
+// la cola del pool nunca pasa de la suma de límites y un endpoint lento solo frena lo
+// suyo. Los hilos del pool mueren tras VIDA_HILO_S sin trabajo (nada vivo en reposo).
+//
+// Cancelar una petición en espera la saca de su carril; una en curso corta la conexión.
+// En los dos casos no se llama a su respuesta. cancelarSiEnEspera() solo hace lo primero.
+//
+// Errores de red: respuesta con código 0 y cuerpo "" (como hacía PeticionarioREST). La
+// conexión HTTP (keep-alive, gzip, URL del servidor) es cosa de ClienteHttp.
+// -----------------------------------------------------------------------------------
+public final class MotorPeticiones {
+
+    private static final String TAG = "MotorPeticiones";
+
+    public static final int HILOS = 4;
+    public static final int LIMITE_POR_DEFECTO = 2;
+    private static final int MAX_EN_ESPERA = 64;
+    private static final long VIDA_HILO_S = 30;
+
+    /** Respuesta en el hilo principal (para tocar vistas). */
+    public static final Executor HILO_PRINCIPAL = comando -> HiloPrincipal.HANDLER.post(comando);
+
+    private static final class HiloPrincipal {
+        static final Handler HANDLER = new Handler(Looper.getMainLooper());
+    }
+
+    private static volatile MotorPeticiones instancia;
+
+    private final ThreadPoolExecutor pool;
+    private final Map<String, Carril> carriles = new HashMap<>(); // con el cerrojo del motor
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public static MotorPeticiones getInstancia() {
+        MotorPeticiones m = instancia;
+        if (m == null) {
+            synchronized (MotorPeticiones.class) {
+                m = instancia;
+                if (m == null) {
+                    m = new MotorPeticiones();
+                    instancia = m;
+                }
+            }
+        }
+        return m;
+    } // ()
+
+    private MotorPeticiones() {
+        AtomicInteger numero = new AtomicInteger();
+        pool = new ThreadPoolExecutor(HILOS, HILOS, VIDA_HILO_S, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), tarea -> {
+                    Thread hilo = new Thread(() -> {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        tarea.run();
+                    }, "rest-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+        pool.allowCoreThreadTimeOut(true);
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Cambia cuántas peticiones a la vez admite un endpoint.
+     *
+     * @param ruta   ruta sin host ni query (p. ej. "/api/v1/trayectos/guardar-medida")
+     * @param limite 1 o más
+     */
+    public synchronized void setLimite(String ruta, int limite) {
+        carril(ruta).limite = Math.max(1, limite);
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Encola una petición.
+     *
+     * @param metodo         "GET", "POST", "PUT"...
+     * @param url            URL completa
+     * @param cuerpo         cuerpo JSON (null si no hay)
+     * @param token          JWT para "Authorization: Bearer" (null si no hace falta)
+     * @param hiloRespuesta  dónde se llama a 'respuesta'
+     * @param respuesta      recibe código y cuerpo (código 0 si falló la red)
+     * @return la petición, para cancelarla
+     */
+    public Peticion enviar(String metodo, String url, String cuerpo, String token,
+                           Executor hiloRespuesta, PeticionarioREST.RespuestaREST respuesta) {
+        Peticion p = new Peticion(this, metodo, url, cuerpo, token, rutaDe(url), hiloRespuesta, respuesta);
+        boolean rechazada = false;
+        synchronized (this) {
+            Carril c = carril(p.ruta);
+            if (c.enCurso < c.limite) {
+                c.enCurso++;
+                lanzar(p);
+            } else if (c.espera.size() < MAX_EN_ESPERA) {
+                c.espera.addLast(p);
+            } else {
+                rechazada = true;
+            }
+        }
+        if (rechazada) {
+            Traza.w(TAG, "Cola llena en {}: petición rechazada", p.ruta);
+            p.estado.set(Peticion.TERMINADA);
+            p.entregar(0, "");
+        }
+        return p;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    // Con el cerrojo del motor
+    private void lanzar(Peticion p) {
+        pool.execute(() -> {
+            try {
+                if (p.estado.compareAndSet(Peticion.ESPERANDO, Peticion.EN_CURSO)) {
+                    realizar(p);
+                }
+            } finally {
+                terminada(p);
+            }
+        });
+    }
+
+    private void terminada(Peticion p) {
+        synchronized (this) {
+            Carril c = carril(p.ruta);
+            c.enCurso--;
+            Peticion siguiente;
+            while ((siguiente = c.espera.pollFirst()) != null) {
+                if (siguiente.estado.get() == Peticion.ESPERANDO) {
+                    c.enCurso++;
+                    lanzar(siguiente);
+                    break;
+                }
+            }
+        }
+    }
+
+    private synchronized void quitarDeEspera(Peticion p) {
+        Carril c = carriles.get(p.ruta);
+        if (c != null) c.espera.remove(p);
+    }
+
+    private Carril carril(String ruta) {
+        Carril c = carriles.get(ruta);
+        if (c == null) {
+            c = new Carril();
+            carriles.put(ruta, c);
+        }
+        return c;
+    }
+
+    /**
+     * Ruta de la URL sin esquema, host ni query.
+     */
+    static String rutaDe(String url) {
+        int inicio = url.indexOf("://");
+        inicio = (inicio < 0) ? 0 : url.indexOf('/', inicio + 3);
+        if (inicio < 0) return "/";
+        int fin = url.indexOf('?', inicio);
+        return (fin < 0) ? url.substring(inicio) : url.substring(inicio, fin);
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Hace la petición HTTP en el hilo del pool (ClienteHttp) y entrega el resultado.
+     */
+    private void realizar(Peticion p) {
+        ClienteHttp.realizar(p);
+        if (p.estado.compareAndSet(Peticion.EN_CURSO, Peticion.TERMINADA)) {
+            p.entregar(p.codigo, p.cuerpoRespuesta);
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private static final class Carril {
+        int limite = LIMITE_POR_DEFECTO;
+        int enCurso = 0;
+        final ArrayDeque<Peticion> espera = new ArrayDeque<>();
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Petición encolada o en curso.
+     */
+    public static final class Peticion {
+        static final int ESPERANDO = 0;
+        static final int EN_CURSO = 1;
+        static final int TERMINADA = 2;
+        static final int CANCELADA = 3;
+
+        private final MotorPeticiones motor;
+        final String metodo;
+        final String url;
+        final String cuerpo;
+        final String token;
+        final String ruta;
+        private final Executor hiloRespuesta;
+        private final PeticionarioREST.RespuestaREST respuesta;
+        final AtomicInteger estado = new AtomicInteger(ESPERANDO);
+        volatile HttpURLConnection conexion;
+        // Resultado, escrito y leído en el hilo del pool
+        int codigo = 0;
+        String cuerpoRespuesta = "";
+
+        private Peticion(MotorPeticiones motor, String metodo, String url, String cuerpo, String token,
+                         String ruta, Executor hiloRespuesta, PeticionarioREST.RespuestaREST respuesta) {
+            this.motor = motor;
+            this.metodo = metodo;
+            this.url = url;
+            this.cuerpo = cuerpo;
+            this.token = token;
+            this.ruta = ruta;
+            this.hiloRespuesta = hiloRespuesta;
+            this.respuesta = respuesta;
+        }
+
+        /**
+         * Cancela la petición: no se llamará a su respuesta. Si ya estaba en marcha se
+         * corta la conexión (el servidor puede haberla recibido igualmente).
+         *
+         * @return false si ya había terminado o estaba cancelada
+         */
+        public boolean cancelar() {
+            if (estado.compareAndSet(ESPERANDO, CANCELADA)) {
+                motor.quitarDeEspera(this);
+                return true;
+            }
+            if (estado.compareAndSet(EN_CURSO, CANCELADA)) {
+                HttpURLConnection c = conexion;
+                if (c != null) c.disconnect();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Cancela la petición solo si aún no ha salido (sigue en la cola de su carril).
+         * Una en curso se deja terminar: sirve para sustituir un envío pendiente por otro
+         * más reciente sin cortar el que el servidor ya está atendiendo.
+         *
+         * @return false si ya estaba en curso, había terminado o estaba cancelada
+         */
+        public boolean cancelarSiEnEspera() {
+            if (estado.compareAndSet(ESPERANDO, CANCELADA)) {
+                motor.quitarDeEspera(this);
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelada() {
+            return estado.get() == CANCELADA;
+        }
+
+        public boolean isTerminada() {
+            return estado.get() == TERMINADA;
+        }
+
+        private void entregar(int codigo, String cuerpoRespuesta) {
+            if (respuesta == null) return;
+            hiloRespuesta.execute(() -> {
+                if (!isCancelada()) respuesta.callback(codigo, cuerpoRespuesta);
+            });
+        }
+    } // class Peticion
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -0,0 +1,128 @@
+/**
+ * Fichero: PoliticaEscaneo.java
+ * Descripción: Decide el ciclo de trabajo del escaneo BLE según la presencia del beacon.
+ *              Empieza en baja latencia para encontrar la placa, baja a modos más
+ *              económicos cuando la detección es estable y vuelve a subir si se pierde.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 20/11/2025
+ */
+
+package com.example.eolos;
+
+// -----------------------------------------------------------------------------------
+// Máquina de estados sin dependencias de Android (los tiempos se pasan desde fuera,
+// normalmente SystemClock.elapsedRealtime()).
+//
+//   ADQUISICION --(N detecciones seguidas)--> ESTABLE --(T estable)--> AHORRO
+//        ^                                       |                       |
+//        +-----------(silencio)------------------+-----(silencio)--------+
+// -----------------------------------------------------------------------------------
+public class PoliticaEscaneo {
+
+    public enum Modo {
+        ADQUISICION, // SCAN_MODE_LOW_LATENCY, sin lotes
+        ESTABLE,     // SCAN_MODE_BALANCED
+        AHORRO       // SCAN_MODE_LOW_POWER
+    }
+
+    // Detecciones consecutivas (sin huecos mayores que MAX_HUECO_MS) para darla por estable
+    private static final int DETECCIONES_PARA_ESTABLE = 3;
+    private static final long MAX_HUECO_MS = 10_000;
+
+    // Tiempo estable antes de pasar a bajo consumo
+    private static final long ESTABLE_HASTA_AHORRO_MS = 120_000;
+
+    // Silencio tras el cual se vuelve a adquisición (en AHORRO la ventana de escucha es
+    // más corta, así que se le da algo más de margen)
+    private static final long SILENCIO_ESTABLE_MS = 15_000;
+    private static final long SILENCIO_AHORRO_MS = 25_000;
+
+    private Modo modo = Modo.ADQUISICION;
+    private int deteccionesSeguidas = 0;
+    private long ultimaDeteccion = -1;
+    private long inicioEstable = -1;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Vuelve al estado inicial (adquisición).
+     */
+    public void reiniciar() {
+        modo = Modo.ADQUISICION;
+        deteccionesSeguidas = 0;
+        ultimaDeteccion = -1;
+        inicioEstable = -1;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Anota una detección del beacon.
+     *
+     * @param ahora instante actual en ms (reloj monotónico)
+     */
+    public void registrarDeteccion(long ahora) {
+        if (ultimaDeteccion >= 0 && ahora - ultimaDeteccion <= MAX_HUECO_MS) {
+            deteccionesSeguidas++;
+        } else {
+            deteccionesSeguidas = 1;
+        }
+        ultimaDeteccion = ahora;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Recalcula el modo con la información acumulada.
+     *
+     * @param ahora instante actual en ms (reloj monotónico)
+     * @return modo en el que debería estar el escaneo
+     */
+    public Modo evaluar(long ahora) {
+        long silencio = (ultimaDeteccion < 0) ? Long.MAX_VALUE : ahora - ultimaDeteccion;
+
+        switch (modo) {
+            case ADQUISICION:
+                if (deteccionesSeguidas >= DETECCIONES_PARA_ESTABLE && silencio <= MAX_HUECO_MS) {
+                    modo = Modo.ESTABLE;
+                    inicioEstable = ahora;
+                }
+                break;
+
+            case ESTABLE:
+                if (silencio > SILENCIO_ESTABLE_MS) {
+                    escalar();
+                } else if (ahora - inicioEstable >= ESTABLE_HASTA_AHORRO_MS) {
+                    modo = Modo.AHORRO;
+                }
+                break;
+
+            case AHORRO:
+                if (silencio > SILENCIO_AHORRO_MS) {
+                    escalar();
+                }
+                break;
+        }
+        return modo;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private void escalar() {
+        modo = Modo.ADQUISICION;
+        deteccionesSeguidas = 0;
+        inicioEstable = -1;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public Modo getModo() {
+        return modo;
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
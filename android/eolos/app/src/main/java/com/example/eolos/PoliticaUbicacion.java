@@ -0,0 +1,167 @@
+/**
+ * Fichero: PoliticaUbicacion.java
+ * Descripción: Decide el ritmo de las peticiones de ubicación según la velocidad: alta
+ *              precisión cada 2 s mientras se pedalea y un modo económico cuando la bici
+ *              lleva un rato parada (semáforo, parada a mitad de trayecto). Vuelve a
+ *              ritmo completo en cuanto hay movimiento. Lleva la cuenta del tiempo en cada modo.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 25/11/2025
+ */
+
+package com.example.eolos;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// -----------------------------------------------------------------------------------
+// Máquina de estados sin dependencias de Android (los tiempos se pasan desde fuera,
+// normalmente SystemClock.elapsedRealtime()).
+//
+//   MOVIMIENTO --(velocidad < UMBRAL_PARADO durante PARADO_TRAS_MS)--> PARADO
+//   PARADO --(velocidad > UMBRAL_MOVIMIENTO o aviso de movimiento)--> MOVIMIENTO (al momento)
+//
+// Los dos umbrales son distintos para que el ruido del GPS alrededor de uno solo no haga
+// saltar de modo en modo. Las velocidades desconocidas (< 0) no cuentan.
+// -----------------------------------------------------------------------------------
+public class PoliticaUbicacion {
+
+    public enum Modo {
+        MOVIMIENTO(2_000, 1_000),   // PRIORITY_HIGH_ACCURACY
+        PARADO(15_000, 10_000);     // PRIORITY_BALANCED_POWER_ACCURACY
+
+        private final long intervaloMs;
+        private final long intervaloMinimoMs;
+
+        Modo(long intervaloMs, long intervaloMinimoMs) {
+            this.intervaloMs = intervaloMs;
+            this.intervaloMinimoMs = intervaloMinimoMs;
+        }
+
+        public long getIntervaloMs() {
+            return intervaloMs;
+        }
+
+        public long getIntervaloMinimoMs() {
+            return intervaloMinimoMs;
+        }
+    }
+
+    // m/s: por debajo de ~2.5 km/h se considera parado; por encima de ~5 km/h, en marcha
+    private static final float UMBRAL_PARADO = 0.7f;
+    private static final float UMBRAL_MOVIMIENTO = 1.4f;
+
+    // Tiempo seguido por debajo del umbral antes de bajar el ritmo
+    private static final long PARADO_TRAS_MS = 20_000;
+
+    private Modo modo = Modo.MOVIMIENTO;
+    private long inicioLento = -1;
+    private long inicioModo = -1;
+    private final long[] tiempoPorModo = new long[Modo.values().length];
+    private long cambios = 0;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Vuelve a MOVIMIENTO y pone a cero los tiempos.
+     *
+     * @param ahora instante actual en ms (reloj monotónico)
+     */
+    public void reiniciar(long ahora) {
+        modo = Modo.MOVIMIENTO;
+        inicioLento = -1;
+        inicioModo = ahora;
+        Arrays.fill(tiempoPorModo, 0);
+        cambios = 0;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Anota la velocidad de una posición nueva.
+     *
+     * @param ahora      instante actual en ms (reloj monotónico)
+     * @param velocidad  m/s, o negativa si no se conoce
+     * @return true si el modo ha cambiado
+     */
+    public boolean registrarVelocidad(long ahora, float velocidad) {
+        if (velocidad < 0) return false;
+
+        if (modo == Modo.PARADO) {
+            return velocidad > UMBRAL_MOVIMIENTO && cambiarA(Modo.MOVIMIENTO, ahora);
+        }
+
+        if (velocidad >= UMBRAL_PARADO) {
+            inicioLento = -1;
+            return false;
+        }
+        if (inicioLento < 0) {
+            inicioLento = ahora;
+        }
+        return ahora - inicioLento >= PARADO_TRAS_MS && cambiarA(Modo.PARADO, ahora);
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Aviso de movimiento que no viene del GPS (acelerómetro): vuelve al ritmo completo
+     * sin esperar a la siguiente posición.
+     *
+     * @param ahora instante actual en ms (reloj monotónico)
+     * @return true si el modo ha cambiado
+     */
+    public boolean registrarMovimiento(long ahora) {
+        return cambiarA(Modo.MOVIMIENTO, ahora);
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private boolean cambiarA(Modo nuevo, long ahora) {
+        if (nuevo == modo) return false;
+        if (inicioModo >= 0) {
+            tiempoPorModo[modo.ordinal()] += ahora - inicioModo;
+        }
+        modo = nuevo;
+        inicioModo = ahora;
+        inicioLento = -1;
+        cambios++;
+        return true;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public Modo getModo() {
+        return modo;
+    }
+
+    /**
+     * @return ms pasados en 'm' hasta 'ahora' (incluido el tramo en curso)
+     */
+    public long getTiempoEnModo(Modo m, long ahora) {
+        long t = tiempoPorModo[m.ordinal()];
+        if (m == modo && inicioModo >= 0) {
+            t += ahora - inicioModo;
+        }
+        return t;
+    }
+
+    public long getCambios() {
+        return cambios;
+    }
+
+    /**
+     * Resumen de una línea para el log.
+     */
+    public String resumen(long ahora) {
+        long movimiento = getTiempoEnModo(Modo.MOVIMIENTO, ahora);
+        long parado = getTiempoEnModo(Modo.PARADO, ahora);
+        long total = Math.max(1, movimiento + parado);
+        return String.format(Locale.ROOT, "movimiento: %d s | parado: %d s (%.0f%%) | cambios: %d",
+                movimiento / 1000, parado / 1000, 100.0 * parado / total, cambios);
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
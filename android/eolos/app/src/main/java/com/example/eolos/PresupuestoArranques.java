@@ -0,0 +1,123 @@
+/**
+ * Fichero: PresupuestoArranques.java
+ * Descripción: Lleva la cuenta de los arranques de escaneo BLE recientes para no pasar
+ *              del límite de Android (5 startScan en 30 s). Si se pasa, el sistema deja
+ *              el escaneo abierto pero sin entregar resultados, y no avisa.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 22/11/2025
+ */
+
+package com.example.eolos;
+
+// -----------------------------------------------------------------------------------
+// Sin dependencias de Android (los tiempos se pasan desde fuera, normalmente
+// SystemClock.elapsedRealtime()).
+//
+// El límite es de la app, no de cada escáner: EscanerIBeacons se destruye al acabar
+// cada trayecto y su supervisor con él, así que todos comparten delProceso(). Con uno
+// por supervisor, parar y volver a empezar un trayecto dejaba la cuenta a cero y se
+// podían encadenar más de MAX_ARRANQUES arranques en VENTANA_MS.
+//
+// Guarda los instantes de los últimos MAX_ARRANQUES arranques en un anillo: el más
+// antiguo es el que decide cuándo queda libre el siguiente hueco. Los arranques
+// normales (cambio de modo, refresco, placas nuevas) dejan RESERVA huecos sin usar
+// para que la vuelta del Bluetooth pueda arrancar al momento.
+// -----------------------------------------------------------------------------------
+public class PresupuestoArranques {
+
+    // Límite del sistema (GattService: NUM_SCAN_DURATIONS_KEPT / EXCESSIVE_SCANNING_PERIOD_MS)
+    public static final int MAX_ARRANQUES = 5;
+    public static final long VENTANA_MS = 30_000;
+    // Margen por diferencias de reloj entre la app y el servicio Bluetooth
+    private static final long MARGEN_MS = 500;
+    private static final int RESERVA = 1;
+
+    private static final PresupuestoArranques DEL_PROCESO = new PresupuestoArranques();
+
+    private final long[] arranques = new long[MAX_ARRANQUES];
+    private int siguiente = 0;  // posición del más antiguo (y del próximo a escribir)
+    private int usados = 0;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @return presupuesto compartido por todos los supervisores del proceso
+     */
+    public static PresupuestoArranques delProceso() {
+        return DEL_PROCESO;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Si cabe, apunta el arranque en el mismo paso (sin que otro supervisor pueda colarse
+     * entre la consulta y el apunte).
+     *
+     * @param ahora   instante actual
+     * @param urgente true para poder gastar también los huecos de reserva
+     * @return 0 si el arranque queda apuntado; si no, milisegundos que hay que esperar
+     */
+    public synchronized long reservarArranque(long ahora, boolean urgente) {
+        long espera = esperaParaArrancar(ahora, urgente);
+        if (espera == 0) {
+            registrarArranque(ahora);
+        }
+        return espera;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @param ahora   instante actual
+     * @param urgente true para poder gastar también los huecos de reserva
+     * @return milisegundos que hay que esperar para poder arrancar (0 = ya)
+     */
+    public synchronized long esperaParaArrancar(long ahora, boolean urgente) {
+        int limite = urgente ? MAX_ARRANQUES : MAX_ARRANQUES - RESERVA;
+        if (contarRecientes(ahora) < limite) {
+            return 0;
+        }
+        // El hueco se libera cuando caduca el arranque que deja 'limite' por delante
+        int indice = (siguiente + (MAX_ARRANQUES - limite)) % MAX_ARRANQUES;
+        return Math.max(1, arranques[indice] + VENTANA_MS + MARGEN_MS - ahora);
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Apunta un arranque hecho en 'ahora'.
+     */
+    public synchronized void registrarArranque(long ahora) {
+        arranques[siguiente] = ahora;
+        siguiente = (siguiente + 1) % MAX_ARRANQUES;
+        if (usados < MAX_ARRANQUES) usados++;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @return arranques dentro de la ventana que acaba en 'ahora'
+     */
+    public synchronized int contarRecientes(long ahora) {
+        int n = 0;
+        for (int i = 0; i < usados; i++) {
+            int indice = (siguiente - 1 - i + MAX_ARRANQUES) % MAX_ARRANQUES;
+            if (ahora - arranques[indice] >= VENTANA_MS + MARGEN_MS) break; // más antiguos, también fuera
+            n++;
+        }
+        return n;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public synchronized void reiniciar() {
+        siguiente = 0;
+        usados = 0;
+    } // ()
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
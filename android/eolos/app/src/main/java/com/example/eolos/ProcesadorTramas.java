@@ -0,0 +1,132 @@
+/**
+ * Fichero: ProcesadorTramas.java
+ * Descripción: Camino de decodificación de las tramas iBeacon sin dependencias de
+ *              Android: descarte rápido, ruta UUID → placa, proximidad, duplicados por
+ *              contador y construcción de la MedidaBeacon. Lo usa EscanerIBeacons con
+ *              cada ScanResult y el reproductor de capturas en una JVM normal.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 21/11/2025
+ */
+
+package com.example.eolos;
+
+// -----------------------------------------------------------------------------------
+// Un procesador por hilo de escaneo (el lector es un flyweight reutilizado).
+// -----------------------------------------------------------------------------------
+public class ProcesadorTramas {
+
+    private final TablaBeacons tabla;
+    private final LectorTramaIBeacon lector = new LectorTramaIBeacon(); // reutilizado en cada trama
+
+    private long rechazadas = 0;
+    private long aceptadas = 0;
+    private long duplicadas = 0;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public ProcesadorTramas(TablaBeacons tabla) {
+        this.tabla = tabla;
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Procesa un scan record crudo.
+     *
+     * @param record        bytes del scan record
+     * @param rssi          RSSI de la recepción (dBm)
+     * @param mac           MAC del emisor como long (ver Utilidades.macToLong)
+     * @param instanteNanos instante de recepción, reloj monotónico (elapsedRealtimeNanos)
+     * @param instanteMs    el mismo instante en hora de pared (ms desde 1970)
+     * @return la medida si es una lectura nueva de una placa registrada; null si la trama
+     *         no es nuestra o repite una lectura ya entregada
+     */
+    public MedidaBeacon procesar(byte[] record, int rssi, long mac, long instanteNanos, long instanteMs) {
+        // === DESCARTE RÁPIDO: longitud y prefijo iBeacon ===
+        if (!lector.envolver(record) || !lector.esIBeacon()) {
+            rechazadas++;
+            return null;
+        }
+
+        // === RUTA: UUID de la trama → placa registrada, O(1) y sin crear objetos ===
+        // (con filtros por UUID en el controlador casi nada debería rechazarse aquí)
+        BeaconRegistrado beacon = tabla.buscar(lector.getUUIDMasSignificativo(),
+                lector.getUUIDMenosSignificativo());
+        if (beacon == null) {
+            rechazadas++;
+            return null; // No es ninguna de nuestras placas → ignorar
+        }
+        aceptadas++;
+        long instante = instanteNanos / 1_000_000L;
+        beacon.registrarDeteccion(instante);
+
+        // === PARSEAR TRAMA iBeacon (sin copias) ===
+        int tipoMedicion = lector.getTipoMedicion();   // MedidaBeacon.TIPO_*
+        int contador = lector.getContador();
+
+        // === PROXIMIDAD: RSSI suavizado por placa + distancia por txPower ===
+        // (también con las repeticiones: cada una es una muestra de RSSI válida)
+        FiltroProximidad filtro = beacon.getFiltro();
+        double rssiSuavizado = filtro.actualizar(rssi, lector.getTxPower(), instante);
+
+        // === DUPLICADOS: misma (placa, tipo, contador) → misma lectura ===
+        if (beacon.getSecuencia().registrar(tipoMedicion, contador) == SeguidorSecuencia.DUPLICADA) {
+            duplicadas++;
+            return null;
+        }
+
+        float valorMedido = lector.getMinor() / 1000.0f; // porque en el ESP32 multiplicamos ×1000
+
+        return new MedidaBeacon(
+                beacon.getUuidMasSignificativo(),
+                beacon.getUuidMenosSignificativo(),
+                mac,
+                rssi,
+                (float) rssiSuavizado,
+                (float) filtro.getDistanciaMetros(),
+                filtro.getProximidad(),
+                tipoMedicion,
+                contador,
+                valorMedido,
+                instanteMs,
+                instanteNanos,
+                beacon.getIdBici()
+        );
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Placa a la que va dirigida una medida devuelta por procesar().
+     */
+    public BeaconRegistrado getBeacon(MedidaBeacon medida) {
+        return tabla.buscar(medida.getUuidMasSignificativo(), medida.getUuidMenosSignificativo());
+    }
+
+    /** tramas que no eran iBeacon o no eran de ninguna placa registrada */
+    public long getRechazadas() {
+        return rechazadas;
+    }
+
+    /** tramas de placas registradas (incluidas las repetidas) */
+    public long getAceptadas() {
+        return aceptadas;
+    }
+
+    /** tramas de placas registradas descartadas por repetir una lectura */
+    public long getDuplicadas() {
+        return duplicadas;
+    }
+
+    public void reiniciarContadores() {
+        rechazadas = 0;
+        aceptadas = 0;
+        duplicadas = 0;
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
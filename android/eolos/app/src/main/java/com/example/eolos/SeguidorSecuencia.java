@@ -0,0 +1,169 @@
+/**
+ * Fichero: SeguidorSecuencia.java
+ * Descripción: Deduplicación exacta de lecturas por (tipo de medición, contador) de una
+ *              placa, usando el contador de 8 bits del byte bajo del major. Cuenta los
+ *              huecos del contador de la placa para dar una tasa de pérdida en vivo.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 21/11/2025
+ */
+
+package com.example.eolos;
+
+// -----------------------------------------------------------------------------------
+// El firmware repite el mismo anuncio (mismo contador) durante su intervalo de emisión
+// y el móvil lo recibe varias veces. Con el contador se sabe exactamente si una trama
+// es una lectura nueva, sin depender de ventanas de tiempo.
+//
+// El contador es uno solo por placa (Loop::cont de eolos.ino, +1 por vuelta del loop)
+// y va en todas las medidas publicadas en esa vuelta. Por eso:
+//   - duplicado: mismo (tipo, contador) que la última lectura de ese tipo
+//   - pérdidas: huecos del contador de la placa, sea cual sea el tipo. Un tipo que no
+//     se publica en todas las vueltas no da pérdidas falsas, y dos tipos de la misma
+//     vuelta (mismo contador) cuentan una sola vez.
+//
+// Diferencia d = (contador - último de la placa) mod 256:
+//   d == 0        → misma vuelta del loop (otro tipo, o repetición)
+//   1 <= d <= 127 → vuelta nueva; se perdieron d - 1 vueltas entre medias
+//   d >= 128      → el contador ha ido hacia atrás: placa reiniciada o trama vieja de
+//                   un lote; se acepta como nueva sin contar pérdidas
+//
+// Una instancia por placa (ver BeaconRegistrado). La escribe solo el hilo del escáner.
+// -----------------------------------------------------------------------------------
+public class SeguidorSecuencia {
+
+    public static final int NUEVA = 0;
+    public static final int DUPLICADA = 1;
+    public static final int REINICIO = 2;
+
+    private static final int SIN_CONTADOR = -1;
+    private static final int MAX_SALTO = 127;
+    // Peso de la historia en la tasa reciente (≈ últimas 20 lecturas)
+    private static final double DECAIMIENTO = 0.95;
+
+    private final int[] ultimoContador = new int[256]; // indexado por tipo de medición
+    private int ultimoContadorPlaca = SIN_CONTADOR;
+
+    private long recibidas = 0;
+    private long vueltas = 0;
+    private long perdidas = 0;
+    private long duplicadas = 0;
+    private long reinicios = 0;
+    private double esperadasRecientes = 0;
+    private double recibidasRecientes = 0;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public SeguidorSecuencia() {
+        reiniciar();
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Clasifica una trama y actualiza las estadísticas.
+     *
+     * @param tipoMedicion byte alto del major (0..255)
+     * @param contador     byte bajo del major (0..255)
+     * @return NUEVA, DUPLICADA o REINICIO
+     */
+    public synchronized int registrar(int tipoMedicion, int contador) {
+        int tipo = tipoMedicion & 0xFF;
+        contador &= 0xFF;
+
+        if (ultimoContador[tipo] == contador) {
+            duplicadas++;
+            return DUPLICADA;
+        }
+        ultimoContador[tipo] = contador;
+        recibidas++;
+
+        if (ultimoContadorPlaca == SIN_CONTADOR) {
+            ultimoContadorPlaca = contador;
+            anotarVuelta(1);
+            return NUEVA;
+        }
+
+        int salto = (contador - ultimoContadorPlaca) & 0xFF;
+        if (salto == 0) {
+            return NUEVA; // otro tipo de la misma vuelta
+        }
+
+        ultimoContadorPlaca = contador;
+        if (salto <= MAX_SALTO) {
+            perdidas += salto - 1;
+            anotarVuelta(salto);
+            return NUEVA;
+        }
+
+        reinicios++;
+        anotarVuelta(1);
+        return REINICIO;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private void anotarVuelta(int esperadas) {
+        vueltas++;
+        esperadasRecientes = esperadasRecientes * DECAIMIENTO + esperadas;
+        recibidasRecientes = recibidasRecientes * DECAIMIENTO + 1;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public synchronized void reiniciar() {
+        for (int i = 0; i < ultimoContador.length; i++) {
+            ultimoContador[i] = SIN_CONTADOR;
+        }
+        ultimoContadorPlaca = SIN_CONTADOR;
+        recibidas = 0;
+        vueltas = 0;
+        perdidas = 0;
+        duplicadas = 0;
+        reinicios = 0;
+        esperadasRecientes = 0;
+        recibidasRecientes = 0;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /** lecturas distintas recibidas */
+    public synchronized long getRecibidas() {
+        return recibidas;
+    }
+
+    /** vueltas del loop de la placa recibidas (contadores distintos) */
+    public synchronized long getVueltas() {
+        return vueltas;
+    }
+
+    /** vueltas del loop que faltan según los huecos del contador de la placa */
+    public synchronized long getPerdidas() {
+        return perdidas;
+    }
+
+    /** tramas repetidas descartadas */
+    public synchronized long getDuplicadas() {
+        return duplicadas;
+    }
+
+    public synchronized long getReinicios() {
+        return reinicios;
+    }
+
+    /** @return vueltas perdidas / esperadas desde el principio (0..1) */
+    public synchronized double getTasaPerdidas() {
+        long esperadas = vueltas + perdidas;
+        return (esperadas == 0) ? 0 : (double) perdidas / esperadas;
+    }
+
+    /** @return tasa de pérdidas de las últimas lecturas (0..1), para ver el efecto de los ajustes de escaneo */
+    public synchronized double getTasaPerdidasReciente() {
+        return (esperadasRecientes == 0) ? 0 : 1.0 - recibidasRecientes / esperadasRecientes;
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
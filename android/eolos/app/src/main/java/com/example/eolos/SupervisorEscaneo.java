@@ -0,0 +1,255 @@
+/**
+ * Fichero: SupervisorEscaneo.java
+ * Descripción: Vigila el escaneo BLE desde fuera: reparte los arranques según el
+ *              presupuesto de Android (aplazando los que no caben), reabre el escaneo en
+ *              cuanto vuelve el Bluetooth y cuenta los fallos de onScanFailed por código.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 22/11/2025
+ */
+
+package com.example.eolos;
+
+import android.bluetooth.BluetoothAdapter;
+import android.bluetooth.le.ScanCallback;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.SystemClock;
+
+// -----------------------------------------------------------------------------------
+// Todo se ejecuta en el hilo del Handler que se le pasa (el mismo que usa
+// EscanerIBeacons para la política), así que no hace falta sincronizar nada más. El
+// presupuesto es el del proceso (PresupuestoArranques.delProceso()): sobrevive a cada
+// supervisor, que muere con su escáner al acabar el trayecto.
+//
+//   solicitarArranque() --(cabe)----> acciones.arrancar()
+//                       --(no cabe)--> se aplaza hasta que caduque un arranque; si
+//                                      mientras tanto se pide otro, se funden en uno
+//   Bluetooth OFF ------------------> acciones.bluetoothApagado(), se cancela lo pendiente
+//   Bluetooth ON -------------------> arranque urgente (puede usar la reserva)
+// -----------------------------------------------------------------------------------
+public class SupervisorEscaneo {
+
+    /**
+     * Lo que el supervisor pide al escáner.
+     */
+    public interface Acciones {
+        /** Parar el escaneo que haya (si lo hay) y abrir uno nuevo. */
+        void arrancar();
+
+        /** El Bluetooth se ha apagado: los escaneos abiertos ya no valen. */
+        void bluetoothApagado();
+    }
+
+    private static final String TAG = "SupervisorBLE";
+
+    // Códigos de ScanCallback.SCAN_FAILED_* (1..6); el resto va a la última casilla
+    private static final int MAX_CODIGO = 7;
+    // ScanCallback.SCAN_FAILED_SCANNING_TOO_FREQUENTLY solo es pública desde API 33; el
+    // código es el mismo en todas las versiones
+    private static final int CODIGO_DEMASIADO_FRECUENTE = 6;
+
+    private final Context context;
+    private final Handler handler;
+    private final Acciones acciones;
+    private final PresupuestoArranques presupuesto = PresupuestoArranques.delProceso();
+
+    private final int[] fallos = new int[MAX_CODIGO + 1];
+    private long arranques = 0;
+    private long aplazados = 0;
+    private long recuperaciones = 0;
+
+    private boolean activo = false;
+    private boolean bluetoothEncendido = true;
+    private boolean arranquePendiente = false;
+
+    private final Runnable arranqueAplazado = () -> {
+        arranquePendiente = false;
+        solicitarArranque();
+    };
+
+    private final BroadcastReceiver receptorBluetooth = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context c, Intent intent) {
+            int estado = intent.getIntExtra(BluetoothAdapter.EXTRA_STATE, BluetoothAdapter.ERROR);
+            alCambiarEstado(estado);
+        }
+    };
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @param context  contexto de la aplicación (para el receptor del Bluetooth)
+     * @param handler  hilo donde se llaman las acciones
+     * @param acciones escáner supervisado
+     */
+    public SupervisorEscaneo(Context context, Handler handler, Acciones acciones) {
+        this.context = context.getApplicationContext();
+        this.handler = handler;
+        this.acciones = acciones;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Empieza a escuchar los cambios de estado del Bluetooth. Se puede llamar varias veces.
+     */
+    public void activar() {
+        if (activo) return;
+        activo = true;
+        BluetoothAdapter adapter = BluetoothAdapter.getDefaultAdapter();
+        bluetoothEncendido = (adapter != null && adapter.isEnabled());
+        context.registerReceiver(receptorBluetooth,
+                new IntentFilter(BluetoothAdapter.ACTION_STATE_CHANGED), null, handler);
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Deja de escuchar y cancela cualquier arranque aplazado.
+     */
+    public void desactivar() {
+        if (!activo) return;
+        activo = false;
+        handler.removeCallbacks(arranqueAplazado);
+        arranquePendiente = false;
+        try {
+            context.unregisterReceiver(receptorBluetooth);
+        } catch (IllegalArgumentException e) {
+            Traza.w(TAG, "Receptor de Bluetooth ya desregistrado");
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Pide (re)abrir el escaneo. Arranca ya si cabe en el presupuesto; si no, lo aplaza
+     * hasta que quede un hueco, manteniendo mientras tanto el escaneo que haya abierto.
+     */
+    public void solicitarArranque() {
+        pedirArranque(false);
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private void pedirArranque(boolean urgente) {
+        if (!bluetoothEncendido) {
+            Traza.d(TAG, "Bluetooth apagado → el arranque espera a que vuelva");
+            return;
+        }
+        if (arranquePendiente) {
+            return; // ya hay uno aplazado: ese recogerá los últimos cambios
+        }
+
+        long ahora = SystemClock.elapsedRealtime();
+        long espera = presupuesto.reservarArranque(ahora, urgente);
+        if (espera > 0) {
+            aplazados++;
+            arranquePendiente = true;
+            Traza.w(TAG, "Presupuesto de arranques agotado ({} recientes) → se aplaza {} ms",
+                    presupuesto.contarRecientes(ahora), espera);
+            handler.postDelayed(arranqueAplazado, espera);
+            return;
+        }
+
+        arranques++;
+        acciones.arrancar();
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private void alCambiarEstado(int estado) {
+        switch (estado) {
+            case BluetoothAdapter.STATE_ON:
+                if (bluetoothEncendido) return;
+                bluetoothEncendido = true;
+                recuperaciones++;
+                Traza.i(TAG, "Bluetooth encendido → se reabre el escaneo");
+                handler.removeCallbacks(arranqueAplazado);
+                arranquePendiente = false;
+                pedirArranque(true);
+                break;
+            case BluetoothAdapter.STATE_TURNING_OFF:
+            case BluetoothAdapter.STATE_OFF:
+                if (!bluetoothEncendido) return;
+                bluetoothEncendido = false;
+                Traza.w(TAG, "Bluetooth apagándose → escaneo parado hasta que vuelva");
+                handler.removeCallbacks(arranqueAplazado);
+                arranquePendiente = false;
+                acciones.bluetoothApagado();
+                break;
+            default:
+                break;
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Apunta un onScanFailed. SCAN_FAILED_SCANNING_TOO_FREQUENTLY (6) es que el sistema
+     * ha visto más arranques que los que lleva el presupuesto (p. ej. de un proceso
+     * anterior de la app, si Android lo ha reiniciado): se reintenta cuando haya hueco.
+     *
+     * @param codigo errorCode de ScanCallback.onScanFailed
+     */
+    public void registrarFallo(int codigo) {
+        fallos[(codigo > 0 && codigo < MAX_CODIGO) ? codigo : MAX_CODIGO]++;
+        if (codigo == ScanCallback.SCAN_FAILED_APPLICATION_REGISTRATION_FAILED
+                || codigo == CODIGO_DEMASIADO_FRECUENTE) {
+            solicitarArranque();
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // Métricas
+    // -------------------------------------------------------------------------------
+    /**
+     * @return veces que onScanFailed devolvió 'codigo' (fuera de 1..6 se suman juntos)
+     */
+    public int getFallos(int codigo) {
+        return fallos[(codigo > 0 && codigo < MAX_CODIGO) ? codigo : MAX_CODIGO];
+    }
+
+    public long getArranques() {
+        return arranques;
+    }
+
+    public long getArranquesAplazados() {
+        return aplazados;
+    }
+
+    public long getRecuperacionesBluetooth() {
+        return recuperaciones;
+    }
+
+    public boolean isBluetoothEncendido() {
+        return bluetoothEncendido;
+    }
+
+    /**
+     * Resumen de una línea para el log.
+     */
+    public String resumen() {
+        StringBuilder sb = new StringBuilder()
+                .append("arranques: ").append(arranques)
+                .append(" | aplazados: ").append(aplazados)
+                .append(" | vueltas del BT: ").append(recuperaciones)
+                .append(" | fallos:");
+        boolean alguno = false;
+        for (int c = 1; c <= MAX_CODIGO; c++) {
+            if (fallos[c] == 0) continue;
+            sb.append(' ').append(c == MAX_CODIGO ? "otros" : String.valueOf(c)).append('=').append(fallos[c]);
+            alguno = true;
+        }
+        if (!alguno) sb.append(" ninguno");
+        return sb.toString();
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -0,0 +1,160 @@
+/**
+ * Fichero: TablaBeacons.java
+ * Descripción: Tabla de rutas UUID → BeaconRegistrado para escanear muchas placas a la vez.
+ *              Búsqueda O(1) a partir de los dos long del UUID leídos de la trama, sin
+ *              crear objetos en la búsqueda.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 21/11/2025
+ */
+
+package com.example.eolos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// -----------------------------------------------------------------------------------
+// Direccionamiento abierto con sondeo lineal. La tabla crece (x2) al pasar del 50% de
+// ocupación; eso solo ocurre al registrar placas, nunca en el camino de cada trama.
+//
+// Hilos: se escribe desde el hilo que registra las placas y se lee desde el callback
+// de escaneo. Las escrituras publican un array nuevo entero (copy-on-write), así que
+// el lector siempre ve una tabla consistente sin bloquear.
+// -----------------------------------------------------------------------------------
+public class TablaBeacons {
+
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    private volatile BeaconRegistrado[] huecos = new BeaconRegistrado[CAPACIDAD_INICIAL];
+    private volatile int tamanyo = 0;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Busca la placa con ese UUID.
+     *
+     * @return la entrada o null si no está registrada
+     */
+    public BeaconRegistrado buscar(long uuidMasSignificativo, long uuidMenosSignificativo) {
+        BeaconRegistrado[] t = huecos;
+        int mascara = t.length - 1;
+        int i = dispersar(uuidMasSignificativo, uuidMenosSignificativo) & mascara;
+        BeaconRegistrado b;
+        while ((b = t[i]) != null) {
+            if (b.getUuidMenosSignificativo() == uuidMenosSignificativo
+                    && b.getUuidMasSignificativo() == uuidMasSignificativo) {
+                return b;
+            }
+            i = (i + 1) & mascara;
+        }
+        return null;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Registra (o sustituye) una placa.
+     */
+    public synchronized void poner(BeaconRegistrado beacon) {
+        BeaconRegistrado[] t = huecos;
+        int capacidad = t.length;
+        if ((tamanyo + 1) * 2 > capacidad) {
+            capacidad *= 2;
+        }
+        BeaconRegistrado[] nueva = new BeaconRegistrado[capacidad];
+        int n = 0;
+        for (BeaconRegistrado b : t) {
+            if (b != null && !mismoUUID(b, beacon)) {
+                insertar(nueva, b);
+                n++;
+            }
+        }
+        insertar(nueva, beacon);
+        huecos = nueva;
+        tamanyo = n + 1;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Quita una placa de la tabla.
+     *
+     * @return la entrada quitada o null si no estaba
+     */
+    public synchronized BeaconRegistrado quitar(long uuidMasSignificativo, long uuidMenosSignificativo) {
+        BeaconRegistrado quitado = buscar(uuidMasSignificativo, uuidMenosSignificativo);
+        if (quitado == null) {
+            return null;
+        }
+        BeaconRegistrado[] t = huecos;
+        BeaconRegistrado[] nueva = new BeaconRegistrado[t.length];
+        for (BeaconRegistrado b : t) {
+            if (b != null && b != quitado) {
+                insertar(nueva, b);
+            }
+        }
+        huecos = nueva;
+        tamanyo--;
+        return quitado;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public synchronized void vaciar() {
+        huecos = new BeaconRegistrado[CAPACIDAD_INICIAL];
+        tamanyo = 0;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public int getTamanyo() {
+        return tamanyo;
+    }
+
+    // -------------------------------------------------------------------------------
+    // Copia de las entradas (para construir filtros, listar en pantalla...)
+    // -------------------------------------------------------------------------------
+    public List<BeaconRegistrado> listar() {
+        BeaconRegistrado[] t = huecos;
+        List<BeaconRegistrado> lista = new ArrayList<>(tamanyo);
+        for (BeaconRegistrado b : t) {
+            if (b != null) {
+                lista.add(b);
+            }
+        }
+        return lista;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private static void insertar(BeaconRegistrado[] t, BeaconRegistrado beacon) {
+        int mascara = t.length - 1;
+        int i = dispersar(beacon.getUuidMasSignificativo(), beacon.getUuidMenosSignificativo()) & mascara;
+        while (t[i] != null) {
+            i = (i + 1) & mascara;
+        }
+        t[i] = beacon;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private static boolean mismoUUID(BeaconRegistrado a, BeaconRegistrado b) {
+        return a.getUuidMasSignificativo() == b.getUuidMasSignificativo()
+                && a.getUuidMenosSignificativo() == b.getUuidMenosSignificativo();
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private static int dispersar(long mas, long menos) {
+        long h = mas * 0x9E3779B97F4A7C15L ^ menos;
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return (int) h;
+    } // ()
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
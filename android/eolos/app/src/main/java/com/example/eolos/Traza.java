@@ -0,0 +1,412 @@
+/**
+ * Fichero: Traza.java
+ * Descripción: Log del proyecto con niveles y mensajes parametrizados ("{}"). El texto
+ *              solo se construye si el nivel está activo; además, los últimos eventos se
+ *              guardan sin formatear en un buffer circular que se puede volcar tras un
+ *              problema, sin pagar logcat en el camino de cada trama.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 22/11/2025
+ */
+
+package com.example.eolos;
+
+import android.util.Log;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+// -----------------------------------------------------------------------------------
+// Uso:
+//     Traza.d(TAG, "Detectado → {} | RSSI: {} dBm", mac, rssi);
+//
+// - Los argumentos primitivos (long, double) tienen sobrecargas propias, también
+//   mezclados con un objeto delante (etiqueta + número): no hay boxing. Las mezclas que
+//   no tienen sobrecarga pasan por las de Object y sí crean objetos; en el camino de
+//   cada trama hay que usar una que exista o ir detrás de Traza.activo().
+// - Los argumentos se evalúan siempre, aunque el nivel no esté activo: nada de
+//   String.format ni concatenaciones en la llamada; si hace falta calcular algo caro,
+//   detrás de Traza.activo().
+// - El buffer circular guarda la plantilla y los argumentos (referencias y bits de los
+//   primitivos) en arrays reservados al arrancar: anotar un evento no reserva memoria.
+//   El texto se monta solo al volcar (los objetos se guardan por referencia, así que se
+//   ve su estado en ese momento).
+// - Niveles: los de android.util.Log (VERBOSE=2 ... ERROR=6). En release, v/d no hacen
+//   nada (BuildConfig.DEBUG es constante y el compilador quita el cuerpo; la llamada
+//   queda, la app no se minifica). i queda solo en el buffer circular; w/e van también
+//   a logcat.
+// -----------------------------------------------------------------------------------
+public final class Traza {
+
+    public static final int VERBOSE = Log.VERBOSE;
+    public static final int DEBUG = Log.DEBUG;
+    public static final int INFO = Log.INFO;
+    public static final int WARN = Log.WARN;
+    public static final int ERROR = Log.ERROR;
+
+    private static final boolean DEPURACION = BuildConfig.DEBUG;
+    private static final int CAPACIDAD = 512; // eventos en el buffer circular
+    private static final int MAX_ARGS = 3;
+
+    // Tipos de argumento en el buffer
+    private static final byte NINGUNO = 0;
+    private static final byte OBJETO = 1;
+    private static final byte ENTERO = 2;
+    private static final byte REAL = 3;
+
+    private static volatile int nivelLogcat = DEPURACION ? DEBUG : WARN;
+    private static volatile int nivelBuffer = DEPURACION ? DEBUG : INFO;
+
+    // Buffer circular en arrays paralelos
+    private static final long[] instantes = new long[CAPACIDAD];
+    private static final byte[] niveles = new byte[CAPACIDAD];
+    private static final String[] etiquetas = new String[CAPACIDAD];
+    private static final String[] plantillas = new String[CAPACIDAD];
+    private static final Throwable[] errores = new Throwable[CAPACIDAD];
+    private static final byte[] tipos = new byte[CAPACIDAD * MAX_ARGS];
+    private static final Object[] objetos = new Object[CAPACIDAD * MAX_ARGS];
+    private static final long[] bits = new long[CAPACIDAD * MAX_ARGS];
+    private static int siguiente = 0;
+    private static long total = 0;
+
+    private Traza() {
+    }
+
+    // -------------------------------------------------------------------------------
+    // Configuración
+    // -------------------------------------------------------------------------------
+    /** Nivel mínimo que se escribe en logcat. */
+    public static void setNivelLogcat(int nivel) {
+        nivelLogcat = nivel;
+    }
+
+    /** Nivel mínimo que se guarda en el buffer circular. */
+    public static void setNivelBuffer(int nivel) {
+        nivelBuffer = nivel;
+    }
+
+    /** @return true si un mensaje de este nivel haría algún trabajo */
+    public static boolean activo(int nivel) {
+        return nivel >= nivelLogcat || nivel >= nivelBuffer;
+    }
+
+    // -------------------------------------------------------------------------------
+    // VERBOSE
+    // -------------------------------------------------------------------------------
+    public static void v(String etiqueta, String mensaje) {
+        if (DEPURACION) anotar(VERBOSE, etiqueta, mensaje, null, NINGUNO, null, 0, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void v(String etiqueta, String plantilla, Object a) {
+        if (DEPURACION) anotar(VERBOSE, etiqueta, plantilla, null, OBJETO, a, 0, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void v(String etiqueta, String plantilla, Object a, Object b) {
+        if (DEPURACION) anotar(VERBOSE, etiqueta, plantilla, null, OBJETO, a, 0, OBJETO, b, 0, NINGUNO, null, 0);
+    }
+
+    public static void v(String etiqueta, String plantilla, Object a, Object b, Object c) {
+        if (DEPURACION) anotar(VERBOSE, etiqueta, plantilla, null, OBJETO, a, 0, OBJETO, b, 0, OBJETO, c, 0);
+    }
+
+    public static void v(String etiqueta, String plantilla, long a) {
+        if (DEPURACION) anotar(VERBOSE, etiqueta, plantilla, null, ENTERO, null, a, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void v(String etiqueta, String plantilla, long a, long b) {
+        if (DEPURACION) anotar(VERBOSE, etiqueta, plantilla, null, ENTERO, null, a, ENTERO, null, b, NINGUNO, null, 0);
+    }
+
+    public static void v(String etiqueta, String plantilla, double a) {
+        if (DEPURACION) anotar(VERBOSE, etiqueta, plantilla, null, REAL, null, Double.doubleToRawLongBits(a), NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void v(String etiqueta, String plantilla, double a, double b) {
+        if (DEPURACION) anotar(VERBOSE, etiqueta, plantilla, null, REAL, null, Double.doubleToRawLongBits(a),
+                REAL, null, Double.doubleToRawLongBits(b), NINGUNO, null, 0);
+    }
+
+    public static void v(String etiqueta, String plantilla, Object a, long b) {
+        if (DEPURACION) anotar(VERBOSE, etiqueta, plantilla, null, OBJETO, a, 0, ENTERO, null, b, NINGUNO, null, 0);
+    }
+
+    public static void v(String etiqueta, String plantilla, Object a, double b) {
+        if (DEPURACION) anotar(VERBOSE, etiqueta, plantilla, null, OBJETO, a, 0, REAL, null, Double.doubleToRawLongBits(b), NINGUNO, null, 0);
+    }
+
+    public static void v(String etiqueta, String plantilla, Object a, Object b, double c) {
+        if (DEPURACION) anotar(VERBOSE, etiqueta, plantilla, null, OBJETO, a, 0, OBJETO, b, 0,
+                REAL, null, Double.doubleToRawLongBits(c));
+    }
+
+    // -------------------------------------------------------------------------------
+    // DEBUG
+    // -------------------------------------------------------------------------------
+    public static void d(String etiqueta, String mensaje) {
+        if (DEPURACION) anotar(DEBUG, etiqueta, mensaje, null, NINGUNO, null, 0, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void d(String etiqueta, String plantilla, Object a) {
+        if (DEPURACION) anotar(DEBUG, etiqueta, plantilla, null, OBJETO, a, 0, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void d(String etiqueta, String plantilla, Object a, Object b) {
+        if (DEPURACION) anotar(DEBUG, etiqueta, plantilla, null, OBJETO, a, 0, OBJETO, b, 0, NINGUNO, null, 0);
+    }
+
+    public static void d(String etiqueta, String plantilla, Object a, Object b, Object c) {
+        if (DEPURACION) anotar(DEBUG, etiqueta, plantilla, null, OBJETO, a, 0, OBJETO, b, 0, OBJETO, c, 0);
+    }
+
+    public static void d(String etiqueta, String plantilla, long a) {
+        if (DEPURACION) anotar(DEBUG, etiqueta, plantilla, null, ENTERO, null, a, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void d(String etiqueta, String plantilla, long a, long b) {
+        if (DEPURACION) anotar(DEBUG, etiqueta, plantilla, null, ENTERO, null, a, ENTERO, null, b, NINGUNO, null, 0);
+    }
+
+    public static void d(String etiqueta, String plantilla, double a) {
+        if (DEPURACION) anotar(DEBUG, etiqueta, plantilla, null, REAL, null, Double.doubleToRawLongBits(a), NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void d(String etiqueta, String plantilla, double a, double b) {
+        if (DEPURACION) anotar(DEBUG, etiqueta, plantilla, null, REAL, null, Double.doubleToRawLongBits(a),
+                REAL, null, Double.doubleToRawLongBits(b), NINGUNO, null, 0);
+    }
+
+    public static void d(String etiqueta, String plantilla, Object a, long b) {
+        if (DEPURACION) anotar(DEBUG, etiqueta, plantilla, null, OBJETO, a, 0, ENTERO, null, b, NINGUNO, null, 0);
+    }
+
+    public static void d(String etiqueta, String plantilla, Object a, double b) {
+        if (DEPURACION) anotar(DEBUG, etiqueta, plantilla, null, OBJETO, a, 0, REAL, null, Double.doubleToRawLongBits(b), NINGUNO, null, 0);
+    }
+
+    public static void d(String etiqueta, String plantilla, Object a, Object b, double c) {
+        if (DEPURACION) anotar(DEBUG, etiqueta, plantilla, null, OBJETO, a, 0, OBJETO, b, 0,
+                REAL, null, Double.doubleToRawLongBits(c));
+    }
+
+    // -------------------------------------------------------------------------------
+    // INFO (en release solo va al buffer circular)
+    // -------------------------------------------------------------------------------
+    public static void i(String etiqueta, String mensaje) {
+        anotar(INFO, etiqueta, mensaje, null, NINGUNO, null, 0, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void i(String etiqueta, String plantilla, Object a) {
+        anotar(INFO, etiqueta, plantilla, null, OBJETO, a, 0, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void i(String etiqueta, String plantilla, Object a, Object b) {
+        anotar(INFO, etiqueta, plantilla, null, OBJETO, a, 0, OBJETO, b, 0, NINGUNO, null, 0);
+    }
+
+    public static void i(String etiqueta, String plantilla, Object a, Object b, Object c) {
+        anotar(INFO, etiqueta, plantilla, null, OBJETO, a, 0, OBJETO, b, 0, OBJETO, c, 0);
+    }
+
+    public static void i(String etiqueta, String plantilla, long a) {
+        anotar(INFO, etiqueta, plantilla, null, ENTERO, null, a, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void i(String etiqueta, String plantilla, long a, long b) {
+        anotar(INFO, etiqueta, plantilla, null, ENTERO, null, a, ENTERO, null, b, NINGUNO, null, 0);
+    }
+
+    public static void i(String etiqueta, String plantilla, double a) {
+        anotar(INFO, etiqueta, plantilla, null, REAL, null, Double.doubleToRawLongBits(a), NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void i(String etiqueta, String plantilla, double a, double b) {
+        anotar(INFO, etiqueta, plantilla, null, REAL, null, Double.doubleToRawLongBits(a),
+                REAL, null, Double.doubleToRawLongBits(b), NINGUNO, null, 0);
+    }
+
+    public static void i(String etiqueta, String plantilla, Object a, long b) {
+        anotar(INFO, etiqueta, plantilla, null, OBJETO, a, 0, ENTERO, null, b, NINGUNO, null, 0);
+    }
+
+    public static void i(String etiqueta, String plantilla, Object a, double b) {
+        anotar(INFO, etiqueta, plantilla, null, OBJETO, a, 0, REAL, null, Double.doubleToRawLongBits(b), NINGUNO, null, 0);
+    }
+
+    public static void i(String etiqueta, String plantilla, Object a, long b, long c) {
+        anotar(INFO, etiqueta, plantilla, null, OBJETO, a, 0, ENTERO, null, b, ENTERO, null, c);
+    }
+
+    // -------------------------------------------------------------------------------
+    // WARN (también en release)
+    // -------------------------------------------------------------------------------
+    public static void w(String etiqueta, String mensaje) {
+        anotar(WARN, etiqueta, mensaje, null, NINGUNO, null, 0, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void w(String etiqueta, String plantilla, Object a) {
+        anotar(WARN, etiqueta, plantilla, null, OBJETO, a, 0, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void w(String etiqueta, String plantilla, Object a, Object b) {
+        anotar(WARN, etiqueta, plantilla, null, OBJETO, a, 0, OBJETO, b, 0, NINGUNO, null, 0);
+    }
+
+    public static void w(String etiqueta, String plantilla, long a) {
+        anotar(WARN, etiqueta, plantilla, null, ENTERO, null, a, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void w(String etiqueta, String plantilla, long a, long b) {
+        anotar(WARN, etiqueta, plantilla, null, ENTERO, null, a, ENTERO, null, b, NINGUNO, null, 0);
+    }
+
+    public static void w(String etiqueta, String plantilla, Object a, long b) {
+        anotar(WARN, etiqueta, plantilla, null, OBJETO, a, 0, ENTERO, null, b, NINGUNO, null, 0);
+    }
+
+    // -------------------------------------------------------------------------------
+    // ERROR (también en release)
+    // -------------------------------------------------------------------------------
+    public static void e(String etiqueta, String mensaje) {
+        anotar(ERROR, etiqueta, mensaje, null, NINGUNO, null, 0, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void e(String etiqueta, String mensaje, Throwable error) {
+        anotar(ERROR, etiqueta, mensaje, error, NINGUNO, null, 0, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void e(String etiqueta, String plantilla, Object a) {
+        anotar(ERROR, etiqueta, plantilla, null, OBJETO, a, 0, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    public static void e(String etiqueta, String plantilla, Object a, Object b) {
+        anotar(ERROR, etiqueta, plantilla, null, OBJETO, a, 0, OBJETO, b, 0, NINGUNO, null, 0);
+    }
+
+    public static void e(String etiqueta, String plantilla, long a) {
+        anotar(ERROR, etiqueta, plantilla, null, ENTERO, null, a, NINGUNO, null, 0, NINGUNO, null, 0);
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private static void anotar(int nivel, String etiqueta, String plantilla, Throwable error,
+                               byte t0, Object o0, long b0,
+                               byte t1, Object o1, long b1,
+                               byte t2, Object o2, long b2) {
+        if (nivel >= nivelBuffer) {
+            synchronized (Traza.class) {
+                int i = siguiente;
+                instantes[i] = System.currentTimeMillis();
+                niveles[i] = (byte) nivel;
+                etiquetas[i] = etiqueta;
+                plantillas[i] = plantilla;
+                errores[i] = error;
+                int k = i * MAX_ARGS;
+                tipos[k] = t0; objetos[k] = o0; bits[k] = b0;
+                tipos[k + 1] = t1; objetos[k + 1] = o1; bits[k + 1] = b1;
+                tipos[k + 2] = t2; objetos[k + 2] = o2; bits[k + 2] = b2;
+                siguiente = (i + 1) % CAPACIDAD;
+                total++;
+            }
+        }
+
+        if (nivel >= nivelLogcat) {
+            String texto = formatear(plantilla,
+                    texto(t0, o0, b0), texto(t1, o1, b1), texto(t2, o2, b2));
+            if (error != null) {
+                texto = texto + '\n' + Log.getStackTraceString(error);
+            }
+            Log.println(nivel, etiqueta, texto);
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private static String texto(byte tipo, Object o, long b) {
+        switch (tipo) {
+            case OBJETO: return String.valueOf(o);
+            case ENTERO: return Long.toString(b);
+            case REAL: return Double.toString(Double.longBitsToDouble(b));
+            default: return null;
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // Sustituye cada "{}" por el siguiente argumento no nulo de la lista
+    // -------------------------------------------------------------------------------
+    static String formatear(String plantilla, String a, String b, String c) {
+        if (plantilla == null) return "null";
+        if (a == null) return plantilla;
+
+        StringBuilder sb = new StringBuilder(plantilla.length() + 32);
+        String[] args = {a, b, c};
+        int usado = 0;
+        int desde = 0;
+        int pos;
+        while (usado < MAX_ARGS && args[usado] != null && (pos = plantilla.indexOf("{}", desde)) >= 0) {
+            sb.append(plantilla, desde, pos).append(args[usado++]);
+            desde = pos + 2;
+        }
+        sb.append(plantilla, desde, plantilla.length());
+        return sb.toString();
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // VOLCADO DEL BUFFER CIRCULAR
+    // -------------------------------------------------------------------------------
+    /**
+     * Devuelve los eventos del buffer circular, del más antiguo al más reciente, ya
+     * formateados (una línea por evento).
+     */
+    public static String volcar() {
+        SimpleDateFormat hora = new SimpleDateFormat("HH:mm:ss.SSS", Locale.ROOT);
+        StringBuilder sb = new StringBuilder();
+        synchronized (Traza.class) {
+            int n = (int) Math.min(total, CAPACIDAD);
+            int i = (total > CAPACIDAD) ? siguiente : 0;
+            for (int c = 0; c < n; c++, i = (i + 1) % CAPACIDAD) {
+                int k = i * MAX_ARGS;
+                sb.append(hora.format(new Date(instantes[i])))
+                        .append(' ').append(letra(niveles[i]))
+                        .append('/').append(etiquetas[i]).append(": ")
+                        .append(formatear(plantillas[i],
+                                texto(tipos[k], objetos[k], bits[k]),
+                                texto(tipos[k + 1], objetos[k + 1], bits[k + 1]),
+                                texto(tipos[k + 2], objetos[k + 2], bits[k + 2])));
+                if (errores[i] != null) {
+                    sb.append(" [").append(errores[i]).append(']');
+                }
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    } // ()
+
+    /**
+     * Escribe el buffer circular en logcat (nivel WARN para que salga también en release).
+     */
+    public static void volcarALogcat(String etiqueta) {
+        String volcado = volcar();
+        Log.w(etiqueta, "===== ÚLTIMOS EVENTOS (" + Math.min(total, CAPACIDAD) + ") =====");
+        for (String linea : volcado.split("\n")) {
+            Log.w(etiqueta, linea);
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private static char letra(int nivel) {
+        switch (nivel) {
+            case VERBOSE: return 'V';
+            case DEBUG: return 'D';
+            case INFO: return 'I';
+            case WARN: return 'W';
+            default: return 'E';
+        }
+    } // ()
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -1,6 +1,5 @@
 package com.example.eolos;
 
-import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.UUID;
 
@@ -9,6 +8,10 @@ import java.util.UUID;
 // -----------------------------------------------------------------------------------
 public class Utilidades {
 
+    // Lo que devuelve macToLong() si el texto no es una MAC. Fuera del rango de 48 bits y
+    // distinto de cualquier otro valor especial (CacheDuplicados usa -1 como hueco libre)
+    public static final long MAC_INVALIDA = Long.MIN_VALUE;
+
     // -------------------------------------------------------------------------------
     // -------------------------------------------------------------------------------
     public static byte[] stringToBytes ( String texto ) {
@@ -71,17 +74,99 @@ public class Utilidades {
     }
 
     // -------------------------------------------------------------------------------
+    // Como new BigInteger(bytes).intValue(): null o vacío no es un número y lanza
+    // IllegalArgumentException (una trama cortada no se lee como un 0 válido)
     // -------------------------------------------------------------------------------
     public static int bytesToInt( byte[] bytes ) {
-        return new BigInteger(bytes).intValue();
+        if ( bytes == null ) {
+            throw new IllegalArgumentException( "bytesToInt(): bytes null" );
+        }
+        return bytesToInt( bytes, 0, bytes.length );
     }
 
     // -------------------------------------------------------------------------------
+    // Como new BigInteger(bytes).longValue(), con el mismo contrato que bytesToInt()
     // -------------------------------------------------------------------------------
     public static long bytesToLong( byte[] bytes ) {
-        return new BigInteger(bytes).longValue();
+        if ( bytes == null ) {
+            throw new IllegalArgumentException( "bytesToLong(): bytes null" );
+        }
+        return bytesToLong( bytes, 0, bytes.length );
     }
 
+    // -------------------------------------------------------------------------------
+    // Versión sin reservas de memoria: lee 'longitud' bytes big-endian a partir de
+    // 'desde'. Mismo resultado que new BigInteger(trozo).intValue(): el primer byte
+    // lleva el signo y si hay más de 4 bytes se quedan los 32 bits bajos. Con longitud
+    // 0 lanza IllegalArgumentException, como BigInteger con un array vacío.
+    // -------------------------------------------------------------------------------
+    public static int bytesToInt( byte[] bytes, int desde, int longitud ) {
+        if ( longitud <= 0 ) {
+            throw new IllegalArgumentException( "bytesToInt(): longitud " + longitud );
+        }
+        int res = bytes[ desde ]; // extensión de signo
+        for ( int i = desde + 1; i < desde + longitud; i++ ) {
+            res = (res << 8) | (bytes[ i ] & 0xFF);
+        }
+        return res;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // Igual que bytesToInt( bytes, desde, longitud ) pero a long (64 bits bajos)
+    // -------------------------------------------------------------------------------
+    public static long bytesToLong( byte[] bytes, int desde, int longitud ) {
+        if ( longitud <= 0 ) {
+            throw new IllegalArgumentException( "bytesToLong(): longitud " + longitud );
+        }
+        long res = bytes[ desde ]; // extensión de signo
+        for ( int i = desde + 1; i < desde + longitud; i++ ) {
+            res = (res << 8) | (bytes[ i ] & 0xFF);
+        }
+        return res;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // "AA:BB:CC:DD:EE:FF" → 0xAABBCCDDEEFF (48 bits), sin crear objetos.
+    // Devuelve MAC_INVALIDA si el texto no es una MAC.
+    // -------------------------------------------------------------------------------
+    public static long macToLong( String mac ) {
+        if ( mac == null || mac.length() != 17 ) {
+            return MAC_INVALIDA;
+        }
+        long res = 0;
+        for ( int i = 0; i < 17; i++ ) {
+            char c = mac.charAt( i );
+            if ( i % 3 == 2 ) {
+                if ( c != ':' ) {
+                    return MAC_INVALIDA;
+                }
+                continue;
+            }
+            int cuarteto = Character.digit( c, 16 );
+            if ( cuarteto < 0 ) {
+                return MAC_INVALIDA;
+            }
+            res = (res << 4) | cuarteto;
+        }
+        return res;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // 0xAABBCCDDEEFF → "AA:BB:CC:DD:EE:FF"
+    // -------------------------------------------------------------------------------
+    public static String longToMac( long mac ) {
+        StringBuilder sb = new StringBuilder( 17 );
+        for ( int i = 5; i >= 0; i-- ) {
+            int b = (int) (mac >>> (8 * i)) & 0xFF;
+            sb.append( Character.toUpperCase( Character.forDigit( b >>> 4, 16 ) ) );
+            sb.append( Character.toUpperCase( Character.forDigit( b & 0xF, 16 ) ) );
+            if ( i > 0 ) {
+                sb.append( ':' );
+            }
+        }
+        return sb.toString();
+    } // ()
+
     // -------------------------------------------------------------------------------
     // -------------------------------------------------------------------------------
     public static int bytesToIntOK( byte[] bytes ) {
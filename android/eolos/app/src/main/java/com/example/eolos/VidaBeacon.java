@@ -0,0 +1,138 @@
+/**
+ * Fichero: VidaBeacon.java
+ * Descripción: Estado de presencia de la bici (buscando, cerca, conectada, alejada o
+ *              perdida) como máquina de estados con un único plazo de caducidad, en lugar
+ *              de comprobar cada pocos segundos si ha llegado alguna trama.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 23/11/2025
+ */
+
+package com.example.eolos;
+
+// -----------------------------------------------------------------------------------
+// Sin dependencias de Android (los tiempos se pasan desde fuera, normalmente
+// SystemClock.elapsedRealtime()).
+//
+//   BUSCANDO --trama--> CERCA / CONECTADO / ALEJADO (según FiltroProximidad)
+//   CERCA <--> CONECTADO <--> ALEJADO                (según cada trama)
+//   cualquiera de las tres --(sin tramas TIMEOUT)--> PERDIDO --trama--> ...
+//
+// El plazo es perezoso: cada trama solo mueve ultimaDeteccion; quien programa el aviso
+// lo pone en getPlazo() y, cuando salta, llama a comprobar(): si mientras tanto han
+// llegado tramas, el plazo se ha corrido y basta con reprogramarlo. Así no se quita ni
+// se pone ningún temporizador por trama.
+// -----------------------------------------------------------------------------------
+public class VidaBeacon {
+
+    public enum Estado {
+        BUSCANDO,   // aún no ha llegado ninguna trama
+        CERCA,      // proximidad CERCA
+        CONECTADO,  // proximidad MEDIA (o sin distancia fiable)
+        ALEJADO,    // proximidad LEJOS: llegan tramas pero el usuario se ha ido
+        PERDIDO;    // han dejado de llegar tramas
+
+        /**
+         * @return true si cuenta como "la bici está con el usuario"
+         */
+        public boolean isConectado() {
+            return this == CERCA || this == CONECTADO;
+        }
+    }
+
+    private final long timeoutMs;
+    private Estado estado = Estado.BUSCANDO;
+    private long ultimaDeteccion = -1;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @param timeoutMs silencio tras el cual se da la placa por perdida
+     */
+    public VidaBeacon(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Apunta una trama recibida.
+     *
+     * @param ahora       instante de la recepción
+     * @param proximidad  proximidad filtrada de la placa
+     * @return true si el estado ha cambiado
+     */
+    public synchronized boolean registrarDeteccion(long ahora, FiltroProximidad.Proximidad proximidad) {
+        ultimaDeteccion = ahora;
+        Estado nuevo;
+        switch (proximidad) {
+            case CERCA:
+                nuevo = Estado.CERCA;
+                break;
+            case LEJOS:
+                nuevo = Estado.ALEJADO;
+                break;
+            default:
+                nuevo = Estado.CONECTADO;
+                break;
+        }
+        if (nuevo == estado) return false;
+        estado = nuevo;
+        return true;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Revisa el plazo. Se llama cuando vence el temporizador programado en getPlazo().
+     *
+     * @param ahora instante actual
+     * @return true si la placa acaba de pasar a PERDIDO
+     */
+    public synchronized boolean comprobar(long ahora) {
+        if (!isVigilando() || ahora < ultimaDeteccion + timeoutMs) {
+            return false;
+        }
+        estado = Estado.PERDIDO;
+        return true;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @return instante en que vence el plazo actual, o Long.MAX_VALUE si no hay nada que
+     *         vigilar (buscando o ya perdida)
+     */
+    public synchronized long getPlazo() {
+        return isVigilando() ? ultimaDeteccion + timeoutMs : Long.MAX_VALUE;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Vuelve a BUSCANDO (nueva placa).
+     */
+    public synchronized void reiniciar() {
+        estado = Estado.BUSCANDO;
+        ultimaDeteccion = -1;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private boolean isVigilando() {
+        return estado != Estado.BUSCANDO && estado != Estado.PERDIDO;
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+
+    public synchronized long getUltimaDeteccion() {
+        return ultimaDeteccion;
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -1,11 +1,11 @@
 package com.example.eolos.activities;
 
-import android.content.BroadcastReceiver;
-import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
 import android.widget.ImageView;
@@ -14,12 +14,16 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.eolos.BusEventos;
+import com.example.eolos.MedidaBeacon;
 import com.example.eolos.R;
-import com.example.eolos.servicio.GpsDistanceTrackerService;
+import com.example.eolos.servicio.EstadoTrayecto;
+import com.example.eolos.servicio.ServicioTrayecto;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.biometric.BiometricManager;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
+
+import java.util.Locale;
 
 public class HomeActivity extends AppCompatActivity {
     @Override
@@ -113,72 +117,108 @@ public class HomeActivity extends AppCompatActivity {
     }
 
     //------------------------------------------------------------------------------------------
-    //  void  →  void
-    //  setupDistanceLiveTracking() – VERSIÓN FINAL 100% FUNCIONAL
+    //  Trayecto actual: se muestrea ServicioTrayecto.getEstado() una vez por segundo y solo
+    //  mientras la pantalla está visible (onResume → onPause). Nada de eventos por posición.
     //------------------------------------------------------------------------------------------
-    private final BroadcastReceiver distanceReceiver = new BroadcastReceiver() {
+    private static final long TIC_TRAYECTO_MS = 1_000;
+
+    private final Handler handlerUi = new Handler(Looper.getMainLooper());
+    private final EstadoTrayecto.Lectura lecturaTrayecto = new EstadoTrayecto.Lectura();
+    private final StringBuilder textoDetalle = new StringBuilder();
+    private BusEventos.Suscripcion<Boolean> suscripcionSeguimiento;
+    private TextView tvDistancia;
+    private TextView tvDetalle;
+    private long segundosMostrados = -1;
+
+    private final Runnable ticTrayecto = new Runnable() {
         @Override
-        public void onReceive(Context context, Intent intent) {
-            String action = intent.getAction();
-            Log.d("GPS_DIST", "BROADCAST RECIBIDO en Home → " + action);
+        public void run() {
+            pintarTrayecto();
+            handlerUi.postDelayed(this, TIC_TRAYECTO_MS);
+        }
+    };
 
-            View contenedor = findViewById(R.id.contenedor_trayecto_actual);
-            TextView tv = findViewById(R.id.tv_distancia_actual);
+    private void pintarTrayecto() {
+        if (tvDistancia == null || tvDetalle == null) return;
 
-            if (contenedor == null || tv == null) {
-                Log.e("GPS_DIST", "ERROR: Views no encontradas!");
-                return;
-            }
+        boolean cambia = ServicioTrayecto.getEstado().leer(lecturaTrayecto);
+        long segundos = lecturaTrayecto.getDuracionMs(SystemClock.elapsedRealtime()) / 1000;
+        if (!cambia && segundos == segundosMostrados) return;
+        segundosMostrados = segundos;
 
-            if (GpsDistanceTrackerService.ACCION_ACTUALIZAR_DISTANCIA.equals(action)) {
-                float metros = intent.getFloatExtra(GpsDistanceTrackerService.EXTRA_DISTANCIA, 0f);
-                Log.d("GPS_DIST", "Distancia actualizada: " + metros + " metros");
+        if (cambia) {
+            double metros = lecturaTrayecto.getDistanciaM();
+            tvDistancia.setText(metros >= 1000
+                    ? String.format(Locale.ROOT, "%.2f km", metros / 1000)
+                    : String.format(Locale.ROOT, "%.1f m", metros));
+        }
 
-                contenedor.setVisibility(View.VISIBLE);
-                tv.setText(metros >= 1000
-                        ? String.format("%.2f km", metros / 1000f)
-                        : String.format("%.1f m", metros));
-            }
-            else if (GpsDistanceTrackerService.ACCION_SERVICIO_DETENIDO.equals(action)) {
-                Log.d("GPS_DIST", "Servicio GPS detenido");
-                contenedor.setVisibility(View.GONE);
-                tv.setText("0.0 m");
-            }
+        // m:ss · km/h · última medida de cada tipo
+        textoDetalle.setLength(0);
+        textoDetalle.append(segundos / 60).append(':');
+        if (segundos % 60 < 10) textoDetalle.append('0');
+        textoDetalle.append(segundos % 60);
+        float velocidad = lecturaTrayecto.getVelocidadMs();
+        if (velocidad >= 0) {
+            textoDetalle.append(" · ").append(Math.round(velocidad * 36) / 10f).append(" km/h");
         }
-    };
+        for (int i = 0; i < lecturaTrayecto.getNumTipos(); i++) {
+            String nombre = nombreTipo(lecturaTrayecto.getTipo(i));
+            if (nombre == null) continue;
+            textoDetalle.append(" · ").append(nombre).append(' ')
+                    .append(Math.round(lecturaTrayecto.getValor(i) * 10) / 10f);
+        }
+        tvDetalle.setText(textoDetalle);
+    }
 
-    private void iniciarSeguiminetoDistancia() {
-        // Verificar estado actual del servicio al iniciar la actividad
-        if (GpsDistanceTrackerService.isRunning()) {
-            View contenedor = findViewById(R.id.contenedor_trayecto_actual);
-            if (contenedor != null) {
-                contenedor.setVisibility(View.VISIBLE);
-            }
-            Log.d("GPS_DIST", "Servicio GPS está corriendo al iniciar Home");
+    private static String nombreTipo(int tipo) {
+        switch (tipo) {
+            case MedidaBeacon.TIPO_PM2_5: return "PM2.5";
+            case MedidaBeacon.TIPO_PM10:  return "PM10";
+            case MedidaBeacon.TIPO_CO2:   return "CO₂";
+            default:                      return null;
+        }
+    }
+
+    private void mostrarSeguimiento(boolean activo) {
+        View contenedor = findViewById(R.id.contenedor_trayecto_actual);
+        if (contenedor == null || tvDistancia == null) return;
+
+        if (activo) {
+            contenedor.setVisibility(View.VISIBLE);
         } else {
-            Log.d("GPS_DIST", "Servicio GPS NO está corriendo al iniciar Home");
+            Log.d("GPS_DIST", "Servicio GPS detenido");
+            contenedor.setVisibility(View.GONE);
+            tvDistancia.setText("0.0 m");
         }
     }
 
     @Override
     protected void onResume() {
         super.onResume();
+        tvDistancia = findViewById(R.id.tv_distancia_actual);
+        tvDetalle = findViewById(R.id.tv_detalle_trayecto_actual);
+        if (tvDistancia == null || tvDetalle == null) {
+            Log.e("GPS_DIST", "ERROR: Views no encontradas!");
+        }
 
-        IntentFilter filter = new IntentFilter();
-        filter.addAction(GpsDistanceTrackerService.ACCION_ACTUALIZAR_DISTANCIA);
-        filter.addAction(GpsDistanceTrackerService.ACCION_SERVICIO_DETENIDO);
-        LocalBroadcastManager.getInstance(this).registerReceiver(distanceReceiver, filter);
+        // Con repetición del último valor: al volver a Home se ve si hay trayecto
+        suscripcionSeguimiento = BusEventos.SEGUIMIENTO_GPS.suscribir(
+                BusEventos.HILO_PRINCIPAL, true, this::mostrarSeguimiento);
 
-        Log.d("GPS_DIST", "Receiver registrado correctamente");
+        // Primer pintado al momento, luego al ritmo del tic
+        segundosMostrados = -1;
+        handlerUi.removeCallbacks(ticTrayecto);
+        ticTrayecto.run();
+        Log.d("GPS_DIST", "Muestreo del trayecto activo");
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        try {
-            LocalBroadcastManager.getInstance(this).unregisterReceiver(distanceReceiver);
-        } catch (Exception ignored) {}
-        Log.d("GPS_DIST", "Receiver desregistrado");
+        handlerUi.removeCallbacks(ticTrayecto);
+        if (suscripcionSeguimiento != null) suscripcionSeguimiento.cancelar();
+        Log.d("GPS_DIST", "Muestreo del trayecto parado");
     }
 
 }
\ No newline at end of file
@@ -16,6 +16,7 @@ import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.eolos.ClienteHttp;
 import com.example.eolos.R;
 import com.example.eolos.logica_fake.LoginFake;
 import com.google.android.material.button.MaterialButton;
@@ -144,7 +145,7 @@ public class LoginActivity extends AppCompatActivity {
          * Abre la página web de recuperación de contraseña en Chrome Custom Tab.
          */
         forgotPassword.setOnClickListener(v -> {
-            String url = "http://172.20.10.12:8000/pages/forgot-password.html";
+            String url = ClienteHttp.url("/pages/forgot-password.html");
             Uri uri = Uri.parse(url);
             CustomTabsIntent.Builder builder = new CustomTabsIntent.Builder();
             builder.setToolbarColor(ContextCompat.getColor(this, R.color.azul_profundo));
@@ -36,7 +36,7 @@ public class MainActivity extends AppCompatActivity {
         //setupBottomNavigation();
 
         // === Verificar permisos ===
-        PermisosHelper.verificarYIniciarServicio(this);
+        PermisosHelper.verificarPermisos(this);
 
         // === REDIRECCIÓN SI YA ESTÁ LOGUEADO ===
         SharedPreferences prefs = getSharedPreferences("auth", MODE_PRIVATE);
@@ -0,0 +1,168 @@
+/**
+ * Fichero: CodificadorRuta.java
+ * Descripción: Guarda los puntos de una ruta en un array de bytes compacto: coordenadas
+ *              en punto fijo (1e-5 grados, ~1 m) y tiempos en segundos, cada uno como
+ *              diferencia con el anterior en varint con zigzag. Una hora de trayecto
+ *              simplificada ocupa unos pocos KB.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 26/11/2025
+ */
+
+package com.example.eolos.captura;
+
+import java.util.Arrays;
+
+// -----------------------------------------------------------------------------------
+// Formato:
+//
+//   cabecera: byte    VERSION
+//   punto:    varint  zigzag(lat  - lat anterior)    lat en 1e-5 grados
+//             varint  zigzag(lon  - lon anterior)    lon en 1e-5 grados
+//             varint  zigzag(seg  - seg anterior)    segundos desde 1970
+//
+// El primer punto va con diferencias respecto a 0 (es decir, en absoluto). varint: 7
+// bits por byte, el bit alto indica que sigue otro byte (LEB128 sin signo); zigzag
+// pasa los negativos pequeños a positivos pequeños (0, -1, 1, -2... → 0, 1, 2, 3...).
+//
+// Sin dependencias de Android.
+// -----------------------------------------------------------------------------------
+public class CodificadorRuta implements SimplificadorRuta.Salida {
+
+    public static final byte VERSION = 1;
+    private static final double ESCALA = 1e5;
+
+    private byte[] datos = new byte[512];
+    private int longitud = 0;
+    private int puntos = 0;
+
+    private long latAnterior = 0;
+    private long lonAnterior = 0;
+    private long segAnterior = 0;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public CodificadorRuta() {
+        datos[longitud++] = VERSION;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Añade un punto al final de la ruta.
+     */
+    @Override
+    public void punto(double lat, double lon, long instanteMs) {
+        long latFija = Math.round(lat * ESCALA);
+        long lonFija = Math.round(lon * ESCALA);
+        long seg = instanteMs / 1000;
+
+        escribirVarint(zigzag(latFija - latAnterior));
+        escribirVarint(zigzag(lonFija - lonAnterior));
+        escribirVarint(zigzag(seg - segAnterior));
+
+        latAnterior = latFija;
+        lonAnterior = lonFija;
+        segAnterior = seg;
+        puntos++;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Vacía la ruta (se conserva el buffer).
+     */
+    public void reiniciar() {
+        longitud = 0;
+        datos[longitud++] = VERSION;
+        puntos = 0;
+        latAnterior = 0;
+        lonAnterior = 0;
+        segAnterior = 0;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @return copia de los bytes de la ruta (cabecera incluida)
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(datos, longitud);
+    }
+
+    public int getPuntos() {
+        return puntos;
+    }
+
+    public int getLongitud() {
+        return longitud;
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Recorre una ruta codificada.
+     *
+     * @param ruta   bytes de toByteArray()
+     * @param salida recibe cada punto (con la precisión del punto fijo)
+     * @return número de puntos leídos
+     * @throws IllegalArgumentException si la versión no es conocida o la ruta está cortada
+     */
+    public static int decodificar(byte[] ruta, SimplificadorRuta.Salida salida) {
+        if (ruta.length == 0 || ruta[0] != VERSION) {
+            throw new IllegalArgumentException("Versión de ruta no soportada");
+        }
+        int[] pos = {1};
+        long lat = 0, lon = 0, seg = 0;
+        int leidos = 0;
+        while (pos[0] < ruta.length) {
+            lat += deszigzag(leerVarint(ruta, pos));
+            lon += deszigzag(leerVarint(ruta, pos));
+            seg += deszigzag(leerVarint(ruta, pos));
+            salida.punto(lat / ESCALA, lon / ESCALA, seg * 1000);
+            leidos++;
+        }
+        return leidos;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private void escribirVarint(long valor) {
+        if (longitud + 10 > datos.length) {
+            datos = Arrays.copyOf(datos, datos.length * 2);
+        }
+        while ((valor & ~0x7FL) != 0) {
+            datos[longitud++] = (byte) ((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        datos[longitud++] = (byte) valor;
+    }
+
+    private static long leerVarint(byte[] ruta, int[] pos) {
+        long valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+            if (pos[0] >= ruta.length) {
+                throw new IllegalArgumentException("Ruta cortada");
+            }
+            byte b = ruta[pos[0]++];
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IllegalArgumentException("Varint demasiado largo");
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long deszigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -0,0 +1,99 @@
+/**
+ * Fichero: GrabadorEscaneo.java
+ * Descripción: Graba las tramas crudas del escaneo BLE (bytes del scan record, RSSI,
+ *              instante y MAC) en un fichero binario compacto, para reproducirlas después
+ *              con ReproductorEscaneo en una JVM normal.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 21/11/2025
+ */
+
+package com.example.eolos.captura;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// -----------------------------------------------------------------------------------
+// Formato (big-endian, DataOutputStream):
+//
+//   cabecera: int    MAGIA ("EOLC")
+//             short  VERSION
+//             long   inicioMs      hora de pared al abrir la grabación
+//             long   inicioNanos   reloj monotónico (elapsedRealtimeNanos) en ese momento
+//
+//   registro: long   instanteNanos reloj monotónico de la recepción
+//             long   mac           48 bits (ver Utilidades.macToLong)
+//             byte   rssi          dBm
+//             short  longitud      del scan record (0..65535)
+//             byte[] record
+//
+// Con la pareja inicioMs/inicioNanos el reproductor recupera la hora de pared de cada
+// registro sin guardarla en todos.
+// -----------------------------------------------------------------------------------
+public class GrabadorEscaneo {
+
+    public static final int MAGIA = 0x454F4C43; // "EOLC"
+    public static final short VERSION = 1;
+
+    private final DataOutputStream salida;
+    private long registros = 0;
+    private boolean cerrado = false;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Abre la grabación y escribe la cabecera.
+     *
+     * @param destino     flujo donde grabar (normalmente un FileOutputStream)
+     * @param inicioMs    hora de pared actual (System.currentTimeMillis)
+     * @param inicioNanos reloj monotónico actual (SystemClock.elapsedRealtimeNanos)
+     */
+    public GrabadorEscaneo(OutputStream destino, long inicioMs, long inicioNanos) throws IOException {
+        this.salida = new DataOutputStream(new BufferedOutputStream(destino));
+        salida.writeInt(MAGIA);
+        salida.writeShort(VERSION);
+        salida.writeLong(inicioMs);
+        salida.writeLong(inicioNanos);
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Añade una trama a la grabación.
+     */
+    public synchronized void grabar(byte[] record, int rssi, long mac, long instanteNanos) throws IOException {
+        if (cerrado) {
+            throw new IOException("Grabación cerrada");
+        }
+        int longitud = (record == null) ? 0 : Math.min(record.length, 0xFFFF);
+        salida.writeLong(instanteNanos);
+        salida.writeLong(mac);
+        salida.writeByte(rssi);
+        salida.writeShort(longitud);
+        if (longitud > 0) {
+            salida.write(record, 0, longitud);
+        }
+        registros++;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public synchronized void cerrar() throws IOException {
+        if (cerrado) return;
+        cerrado = true;
+        salida.close();
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public synchronized long getRegistros() {
+        return registros;
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -0,0 +1,167 @@
+/**
+ * Fichero: HistorialUbicaciones.java
+ * Descripción: Anillo en memoria con las últimas posiciones del trayecto, ordenadas por
+ *              instante. Da la posición en un instante cualquiera interpolando entre las dos
+ *              que lo rodean, con su precisión, para geoetiquetar cada medida en el momento
+ *              en que se recibió y no en el de la subida.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 27/11/2025
+ */
+
+package com.example.eolos.captura;
+
+// -----------------------------------------------------------------------------------
+// Arrays paralelos de tamaño fijo (sin objetos por posición); al llenarse se pisa la más
+// antigua. Con posiciones cada 2 s, CAPACIDAD cubre ~17 min, de sobra para las ventanas
+// de 10 s y los reintentos de subida.
+//
+// Los instantes son del reloj monotónico en ms (Location.getElapsedRealtimeNanos() y
+// ScanResult.getTimestampNanos() entre 1e6), no de pared: la hora de la posición es la
+// del GPS y la de la medida la del móvil, que pueden ir segundos desfasadas, y la de
+// pared además salta si se ajusta el reloj. Una posición anterior a la última guardada
+// se ignora.
+//
+// Precisión devuelta (radio del 68%, en m):
+//   - entre dos posiciones: la interpolada de las dos, más lo que se pudo mover la bici
+//     sin que lo viéramos si el hueco es largo (parado en modo económico: 15 s)
+//   - fuera del rango (antes de la primera o después de la última): la de la extrema más
+//     edad · VELOCIDAD_MAXIMA, y nada si pasa de MARGEN_MAXIMO_MS
+//
+// synchronized como AgregadorVentana: escribe el oyente de ubicación y lee quien sube las
+// medidas (hoy los dos en el hilo de trabajo del servicio).
+// -----------------------------------------------------------------------------------
+public class HistorialUbicaciones {
+
+    /**
+     * Posición en un instante, rellenada por posicionEn(). Quien consulta guarda una y
+     * la reutiliza en cada llamada.
+     */
+    public static final class Posicion {
+        private double lat, lon;
+        private float precisionM;
+
+        public double getLat() {
+            return lat;
+        }
+
+        public double getLon() {
+            return lon;
+        }
+
+        public float getPrecisionM() {
+            return precisionM;
+        }
+    } // class Posicion
+
+    public static final int CAPACIDAD = 512;
+
+    // Bici rápida en ciudad (m/s): cota de lo que se mueve entre posiciones
+    private static final float VELOCIDAD_MAXIMA = 8.0f;
+    // Hueco entre posiciones a partir del cual se suma incertidumbre por no verla
+    private static final long HUECO_SIN_COSTE_MS = 3_000;
+    private static final long MARGEN_MAXIMO_MS = 30_000;
+
+    private final double[] lats = new double[CAPACIDAD];
+    private final double[] lons = new double[CAPACIDAD];
+    private final float[] precisiones = new float[CAPACIDAD];
+    private final long[] instantes = new long[CAPACIDAD];
+    private int inicio = 0;  // índice de la más antigua
+    private int numero = 0;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Guarda una posición.
+     *
+     * @param instanteMs reloj monotónico de la posición (elapsedRealtimeNanos / 1e6)
+     * @return false si es más antigua que la última guardada (no se guarda)
+     */
+    public synchronized boolean anyadir(double lat, double lon, float precisionM, long instanteMs) {
+        if (numero > 0 && instanteMs < instantes[indice(numero - 1)]) {
+            return false;
+        }
+        int i;
+        if (numero < CAPACIDAD) {
+            i = indice(numero++);
+        } else {
+            i = inicio;
+            inicio = (inicio + 1) % CAPACIDAD;
+        }
+        lats[i] = lat;
+        lons[i] = lon;
+        precisiones[i] = precisionM;
+        instantes[i] = instanteMs;
+        return true;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Posición en un instante.
+     *
+     * @param instanteMs reloj monotónico (p. ej. el de recepción de una medida)
+     * @param destino    se rellena con la posición y su precisión
+     * @return false si no hay ninguna posición a menos de MARGEN_MAXIMO_MS
+     */
+    public synchronized boolean posicionEn(long instanteMs, Posicion destino) {
+        if (numero == 0) return false;
+
+        // Primera posición con instante >= instanteMs (búsqueda binaria en orden lógico)
+        int bajo = 0, alto = numero;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (instantes[indice(medio)] < instanteMs) bajo = medio + 1;
+            else alto = medio;
+        }
+
+        if (bajo == 0 || bajo == numero) {
+            // Fuera del rango: la extrema más cercana, con lo que se pudo mover desde ella
+            int i = indice(bajo == 0 ? 0 : numero - 1);
+            long edad = Math.abs(instanteMs - instantes[i]);
+            if (edad > MARGEN_MAXIMO_MS) return false;
+            destino.lat = lats[i];
+            destino.lon = lons[i];
+            destino.precisionM = precisiones[i] + VELOCIDAD_MAXIMA * edad / 1000f;
+            return true;
+        }
+
+        int a = indice(bajo - 1);
+        int b = indice(bajo);
+        long hueco = instantes[b] - instantes[a];
+        double f = (hueco == 0) ? 0 : (double) (instanteMs - instantes[a]) / hueco;
+        destino.lat = lats[a] + f * (lats[b] - lats[a]);
+        destino.lon = lons[a] + f * (lons[b] - lons[a]);
+        float precision = (float) (precisiones[a] + f * (precisiones[b] - precisiones[a]));
+        if (hueco > HUECO_SIN_COSTE_MS) {
+            // Lo más lejos que pudo quedar de la recta, a mitad de hueco
+            long aLoMasCercano = Math.min(instanteMs - instantes[a], instantes[b] - instanteMs);
+            precision += VELOCIDAD_MAXIMA * aLoMasCercano / 1000f;
+        }
+        destino.precisionM = precision;
+        return true;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Olvida todas las posiciones (nuevo trayecto).
+     */
+    public synchronized void reiniciar() {
+        inicio = 0;
+        numero = 0;
+    }
+
+    public synchronized int getNumero() {
+        return numero;
+    }
+
+    private int indice(int logico) {
+        return (inicio + logico) % CAPACIDAD;
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -0,0 +1,115 @@
+/**
+ * Fichero: ReproductorEscaneo.java
+ * Descripción: Lee una grabación de GrabadorEscaneo y entrega sus tramas en orden,
+ *              respetando los tiempos originales multiplicados por un factor (1 = tiempo
+ *              real, 10 = diez veces más rápido, 0 = sin esperas).
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 21/11/2025
+ */
+
+package com.example.eolos.captura;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+// -----------------------------------------------------------------------------------
+// Sin dependencias de Android: sirve para pasar capturas reales por ProcesadorTramas en
+// el ordenador (pruebas de regresión, medir el coste del camino de decodificación).
+// -----------------------------------------------------------------------------------
+public class ReproductorEscaneo {
+
+    /**
+     * Recibe cada trama reproducida (un array nuevo por trama, como getBytes() en Android).
+     */
+    public interface Receptor {
+        void recibir(byte[] record, int rssi, long mac, long instanteNanos, long instanteMs);
+    }
+
+    private final DataInputStream entrada;
+    private final long inicioMs;
+    private final long inicioNanos;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Abre la grabación y valida la cabecera.
+     */
+    public ReproductorEscaneo(InputStream origen) throws IOException {
+        this.entrada = new DataInputStream(new BufferedInputStream(origen));
+        if (entrada.readInt() != GrabadorEscaneo.MAGIA) {
+            throw new IOException("No es una grabación de escaneo");
+        }
+        short version = entrada.readShort();
+        if (version != GrabadorEscaneo.VERSION) {
+            throw new IOException("Versión de grabación no soportada: " + version);
+        }
+        this.inicioMs = entrada.readLong();
+        this.inicioNanos = entrada.readLong();
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Reproduce la grabación entera.
+     *
+     * @param receptor  destino de las tramas
+     * @param velocidad múltiplo del tiempo real; 0 (o negativo) para ir lo más rápido posible
+     * @return número de tramas entregadas
+     */
+    public long reproducir(Receptor receptor, double velocidad) throws IOException, InterruptedException {
+        long tramas = 0;
+        long primerInstante = Long.MIN_VALUE;
+        long inicioReal = System.nanoTime();
+
+        while (true) {
+            long instanteNanos;
+            try {
+                instanteNanos = entrada.readLong();
+            } catch (EOFException fin) {
+                break;
+            }
+            long mac = entrada.readLong();
+            int rssi = entrada.readByte();
+            int longitud = entrada.readUnsignedShort();
+            byte[] record = new byte[longitud];
+            entrada.readFully(record);
+
+            if (velocidad > 0) {
+                if (primerInstante == Long.MIN_VALUE) {
+                    primerInstante = instanteNanos;
+                }
+                long objetivo = inicioReal + (long) ((instanteNanos - primerInstante) / velocidad);
+                long espera = objetivo - System.nanoTime();
+                if (espera > 0) {
+                    Thread.sleep(espera / 1_000_000L, (int) (espera % 1_000_000L));
+                }
+            }
+
+            long instanteMs = inicioMs + (instanteNanos - inicioNanos) / 1_000_000L;
+            receptor.recibir(record, rssi, mac, instanteNanos, instanteMs);
+            tramas++;
+        }
+        return tramas;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public void cerrar() throws IOException {
+        entrada.close();
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public long getInicioMs() {
+        return inicioMs;
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
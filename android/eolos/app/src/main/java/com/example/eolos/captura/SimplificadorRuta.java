@@ -0,0 +1,167 @@
+/**
+ * Fichero: SimplificadorRuta.java
+ * Descripción: Simplifica en streaming la ruta de un trayecto: recibe las posiciones una
+ *              a una y solo deja pasar las necesarias para que ninguna descartada quede a
+ *              más de la tolerancia del trazo guardado. Una sola pasada, memoria acotada.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 26/11/2025
+ */
+
+package com.example.eolos.captura;
+
+// -----------------------------------------------------------------------------------
+// Ventana abierta (la variante en línea de Douglas-Peucker): desde el último punto
+// guardado (ancla) se acumulan los pendientes; al llegar uno nuevo se comprueba que todos
+// los pendientes quedan a menos de 'toleranciaM' del segmento ancla → nuevo. Si alguno
+// se sale, el último pendiente se guarda y pasa a ser el ancla. Con 'maxPendientes'
+// lleno se guarda igualmente, así el coste por posición está acotado.
+//
+// Sin dependencias de Android. Las distancias se calculan en un plano local alrededor
+// del ancla (equirectangular), de sobra para segmentos de unos cientos de metros.
+// -----------------------------------------------------------------------------------
+public class SimplificadorRuta {
+
+    /**
+     * Recibe los puntos que sobreviven a la simplificación, en orden.
+     */
+    public interface Salida {
+        void punto(double lat, double lon, long instanteMs);
+    }
+
+    private static final double METROS_POR_GRADO = 6_371_000.0 * Math.PI / 180.0;
+
+    private final double toleranciaCuadrada;
+    private final Salida salida;
+
+    // Ancla (último punto guardado)
+    private boolean hayAncla = false;
+    private double anclaLat, anclaLon;
+    private double metrosPorGradoLon;
+
+    // Pendientes desde el ancla, en metros respecto a ella; del último se guarda también
+    // el original por si hay que emitirlo
+    private final double[] xs;
+    private final double[] ys;
+    private int pendientes = 0;
+    private double ultimoLat, ultimoLon;
+    private long ultimoInstante;
+
+    private long recibidos = 0;
+    private long guardados = 0;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @param toleranciaM    distancia máxima de un punto descartado al trazo guardado
+     * @param maxPendientes  puntos como mucho entre dos guardados
+     * @param salida         destino de los puntos guardados
+     */
+    public SimplificadorRuta(double toleranciaM, int maxPendientes, Salida salida) {
+        this.toleranciaCuadrada = toleranciaM * toleranciaM;
+        this.xs = new double[maxPendientes];
+        this.ys = new double[maxPendientes];
+        this.salida = salida;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Añade una posición de la ruta.
+     */
+    public void anyadir(double lat, double lon, long instanteMs) {
+        recibidos++;
+        if (!hayAncla) {
+            guardar(lat, lon, instanteMs);
+            return;
+        }
+
+        if (pendientes == xs.length || (pendientes > 0 && !cabe(lat, lon))) {
+            // El último pendiente es el punto más lejano que aún representaba bien el tramo
+            guardar(ultimoLat, ultimoLon, ultimoInstante);
+        }
+
+        xs[pendientes] = (lon - anclaLon) * metrosPorGradoLon;
+        ys[pendientes] = (lat - anclaLat) * METROS_POR_GRADO;
+        pendientes++;
+        ultimoLat = lat;
+        ultimoLon = lon;
+        ultimoInstante = instanteMs;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Cierra la ruta: guarda el último punto recibido si estaba pendiente.
+     */
+    public void terminar() {
+        if (pendientes > 0) {
+            guardar(ultimoLat, ultimoLon, ultimoInstante);
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Olvida la ruta en curso (el siguiente punto empieza una nueva).
+     */
+    public void reiniciar() {
+        hayAncla = false;
+        pendientes = 0;
+        recibidos = 0;
+        guardados = 0;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @return true si todos los pendientes quedan dentro de la tolerancia del segmento
+     *         ancla → (lat, lon)
+     */
+    private boolean cabe(double lat, double lon) {
+        double bx = (lon - anclaLon) * metrosPorGradoLon;
+        double by = (lat - anclaLat) * METROS_POR_GRADO;
+        double longitudCuadrada = bx * bx + by * by;
+
+        for (int i = 0; i < pendientes; i++) {
+            double px = xs[i];
+            double py = ys[i];
+            double t = (longitudCuadrada == 0) ? 0 : (px * bx + py * by) / longitudCuadrada;
+            if (t < 0) t = 0;
+            else if (t > 1) t = 1;
+            double dx = px - t * bx;
+            double dy = py - t * by;
+            if (dx * dx + dy * dy > toleranciaCuadrada) {
+                return false;
+            }
+        }
+        return true;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private void guardar(double lat, double lon, long instanteMs) {
+        salida.punto(lat, lon, instanteMs);
+        guardados++;
+        hayAncla = true;
+        anclaLat = lat;
+        anclaLon = lon;
+        metrosPorGradoLon = METROS_POR_GRADO * Math.cos(Math.toRadians(lat));
+        pendientes = 0;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public long getRecibidos() {
+        return recibidos;
+    }
+
+    public long getGuardados() {
+        return guardados;
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -0,0 +1,224 @@
+/**
+ * Fichero: DistanciaKalman.java
+ * Descripción: Distancia sobre la trayectoria suavizada por un filtro de Kalman de
+ *              velocidad constante: cada posición pesa según su precisión, los saltos
+ *              imposibles se descartan y se suma el recorrido de la posición filtrada
+ *              en pasos de 1-2 m, así las curvas lentas no se recortan y el baile del
+ *              GPS parado apenas suma.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 26/11/2025
+ */
+
+package com.example.eolos.distancia;
+
+// -----------------------------------------------------------------------------------
+// Estado en un plano local (metros, este/norte) alrededor de la primera posición:
+// posición y velocidad por eje. Los dos ejes comparten covarianza (mismo dt y misma
+// precisión de medida), así que solo se guarda una matriz 2x2 simétrica [a b; b c].
+//
+//   predicción:  p += v·dt     P = F·P·Fᵀ + Q(dt)     (ruido de aceleración ACELERACION²)
+//   corrección:  R = (precisión / 1.5)²               (radio del 68% → σ por eje)
+//                innovación fuera de PUERTA σ → se descarta la posición
+//
+// Si se descartan DESCARTES_PARA_REINICIAR seguidas (el filtro se ha quedado atrás, p.
+// ej. tras un túnel) o pasan más de HUECO_MAXIMO_MS sin posiciones, se reinicia en la
+// posición nueva sumando el tramo recto hasta ella.
+//
+// La suma va por anclas sobre la posición filtrada: solo se suma cuando se ha alejado
+// del ancla más que su propia incertidumbre (SIGMAS_PASO·σ, mínimo PASO_MINIMO_M), que
+// con buena señal son 1-2 m en vez de los 5 m fijos. Sumar cada paso suelto acumula el
+// temblor residual del filtro (+8% en DistanciaKalmanTest). Por debajo de
+// VELOCIDAD_PARADO no se suma nada y el ancla sigue a la estimación; la velocidad es la
+// Doppler de la posición si la trae y, si no, la del filtro. Las posiciones peores que
+// PRECISION_SUMA_M (modo económico de PoliticaUbicacion, ~30 m) corrigen el filtro pero
+// no suman ni mueven el ancla: su baile sumaba un 3-14% en PoliticaUbicacionTest. Lo
+// recorrido mientras tanto se suma de una vez con la primera posición buena.
+//
+// Sumas en double con compensación (SumaCompensada): en un float de ~50 km el paso más
+// pequeño representable ya es de varios mm y los pasos de 1 m pierden cifras.
+// -----------------------------------------------------------------------------------
+public class DistanciaKalman implements MotorDistancia {
+
+    private static final double METROS_POR_GRADO = 6_371_000.0 * Math.PI / 180.0;
+
+    // Aceleración típica de una bici en ciudad (m/s²)
+    private static final double ACELERACION = 0.8;
+    private static final double Q = ACELERACION * ACELERACION;
+
+    // Varianza inicial de la velocidad: (5 m/s)²
+    private static final double VARIANZA_VELOCIDAD_INICIAL = 25.0;
+
+    // Innovación normalizada máxima (al cuadrado, 2 grados de libertad ~99.99%)
+    private static final double PUERTA_CUADRADA = 18.4;
+    private static final int DESCARTES_PARA_REINICIAR = 5;
+    private static final long HUECO_MAXIMO_MS = 30_000;
+
+    private static final double VELOCIDAD_PARADO = 0.5;
+    private static final double PASO_MINIMO_M = 1.0;
+    private static final double SIGMAS_PASO = 2.0;
+    private static final float PRECISION_MINIMA_M = 1.0f;
+    private static final float PRECISION_SUMA_M = 25.0f;
+
+    private final SumaCompensada total = new SumaCompensada();
+
+    // Plano local
+    private boolean iniciado = false;
+    private double origenLat, origenLon, metrosPorGradoLon;
+
+    // Estado por eje y covarianza compartida
+    private double px, vx, py, vy;
+    private double anclaX, anclaY; // última posición filtrada ya sumada
+    private double a, b, c;
+    private long ultimoInstante;
+    private int descartesSeguidos = 0;
+
+    private long aceptadas = 0;
+    private long descartadas = 0;
+    private long reinicios = 0;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Override
+    public boolean anyadir(double lat, double lon, float precisionM, float velocidadMs, long instanteMs) {
+        if (!iniciado) {
+            origenLat = lat;
+            origenLon = lon;
+            metrosPorGradoLon = METROS_POR_GRADO * Math.cos(Math.toRadians(lat));
+            iniciar(0, 0, precisionM, instanteMs);
+            iniciado = true;
+            return false;
+        }
+
+        double zx = (lon - origenLon) * metrosPorGradoLon;
+        double zy = (lat - origenLat) * METROS_POR_GRADO;
+        double r = varianzaMedida(precisionM);
+
+        long dtMs = instanteMs - ultimoInstante;
+        if (dtMs <= 0) return false; // repetida o desordenada
+        if (dtMs > HUECO_MAXIMO_MS) {
+            return reiniciarEn(zx, zy, precisionM, instanteMs);
+        }
+        double dt = dtMs / 1000.0;
+
+        // Predicción
+        double pxPred = px + vx * dt;
+        double pyPred = py + vy * dt;
+        double dt2 = dt * dt;
+        double aPred = a + 2 * dt * b + dt2 * c + Q * dt2 * dt / 3;
+        double bPred = b + dt * c + Q * dt2 / 2;
+        double cPred = c + Q * dt;
+
+        // Puerta
+        double s = aPred + r;
+        double ix = zx - pxPred;
+        double iy = zy - pyPred;
+        if ((ix * ix + iy * iy) / s > PUERTA_CUADRADA) {
+            descartadas++;
+            if (++descartesSeguidos >= DESCARTES_PARA_REINICIAR) {
+                return reiniciarEn(zx, zy, precisionM, instanteMs);
+            }
+            return false;
+        }
+        descartesSeguidos = 0;
+        aceptadas++;
+
+        // Corrección
+        double k0 = aPred / s;
+        double k1 = bPred / s;
+        double nuevoX = pxPred + k0 * ix;
+        double nuevoY = pyPred + k0 * iy;
+        vx += k1 * ix;
+        vy += k1 * iy;
+        a = (1 - k0) * aPred;
+        b = (1 - k0) * bPred;
+        c = cPred - k1 * bPred;
+        ultimoInstante = instanteMs;
+
+        px = nuevoX;
+        py = nuevoY;
+        if (precisionM > PRECISION_SUMA_M) {
+            return false;
+        }
+
+        // Parado o no: con la velocidad Doppler si la hay. La del filtro, con ruido blanco
+        // de 2 m, pasa de 0.5 m/s a menudo estando quieto y suma el temblor de cada parada
+        double rapidez = (velocidadMs >= 0) ? velocidadMs : Math.hypot(vx, vy);
+        if (rapidez < VELOCIDAD_PARADO) {
+            // Parado: el ancla sigue a la estimación sin sumar
+            anclaX = px;
+            anclaY = py;
+            return false;
+        }
+        double paso = Math.hypot(px - anclaX, py - anclaY);
+        if (paso < Math.max(PASO_MINIMO_M, SIGMAS_PASO * Math.sqrt(a))) {
+            return false;
+        }
+        total.sumar(paso);
+        anclaX = px;
+        anclaY = py;
+        return true;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private void iniciar(double x, double y, float precisionM, long instanteMs) {
+        px = x;
+        py = y;
+        anclaX = x;
+        anclaY = y;
+        vx = 0;
+        vy = 0;
+        a = varianzaMedida(precisionM);
+        b = 0;
+        c = VARIANZA_VELOCIDAD_INICIAL;
+        ultimoInstante = instanteMs;
+        descartesSeguidos = 0;
+    }
+
+    private boolean reiniciarEn(double x, double y, float precisionM, long instanteMs) {
+        reinicios++;
+        double salto = Math.hypot(x - px, y - py);
+        iniciar(x, y, precisionM, instanteMs);
+        total.sumar(salto);
+        return salto > 0;
+    }
+
+    private static double varianzaMedida(float precisionM) {
+        double sigma = Math.max(precisionM, PRECISION_MINIMA_M) / 1.5;
+        return sigma * sigma;
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Override
+    public double getDistanciaMetros() {
+        return total.get();
+    }
+
+    @Override
+    public void reiniciar() {
+        total.reiniciar();
+        iniciado = false;
+        aceptadas = 0;
+        descartadas = 0;
+        reinicios = 0;
+    }
+
+    public long getAceptadas() {
+        return aceptadas;
+    }
+
+    public long getDescartadas() {
+        return descartadas;
+    }
+
+    public long getReinicios() {
+        return reinicios;
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
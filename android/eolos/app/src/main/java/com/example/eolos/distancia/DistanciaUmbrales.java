@@ -0,0 +1,76 @@
+/**
+ * Fichero: DistanciaUmbrales.java
+ * Descripción: Distancia con los filtros fijos de siempre: solo suma el salto desde la
+ *              última posición aceptada si la precisión es buena (< 15 m) y el salto
+ *              supera 5 m. Se queda como referencia frente a DistanciaKalman.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 26/11/2025
+ */
+
+package com.example.eolos.distancia;
+
+// -----------------------------------------------------------------------------------
+// Cuenta de menos en tramos lentos y con curvas (cada salto es una cuerda de al menos
+// 5 m) y de más con la bici parada y el GPS bailando más de 5 m.
+// -----------------------------------------------------------------------------------
+public class DistanciaUmbrales implements MotorDistancia {
+
+    private static final float PRECISION_MAXIMA_M = 15.0f;
+    private static final double SALTO_MINIMO_M = 5.0;
+    private static final double RADIO_TIERRA_M = 6_371_000.0;
+
+    private final SumaCompensada total = new SumaCompensada();
+    private boolean hayAncla = false;
+    private double anclaLat, anclaLon;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Override
+    public boolean anyadir(double lat, double lon, float precisionM, float velocidadMs, long instanteMs) {
+        if (!hayAncla) {
+            anclaLat = lat;
+            anclaLon = lon;
+            hayAncla = true;
+            return false;
+        }
+        double salto = metrosEntre(anclaLat, anclaLon, lat, lon);
+        if (precisionM >= PRECISION_MAXIMA_M || salto <= SALTO_MINIMO_M) {
+            return false;
+        }
+        total.sumar(salto);
+        anclaLat = lat;
+        anclaLon = lon;
+        return true;
+    } // ()
+
+    @Override
+    public double getDistanciaMetros() {
+        return total.get();
+    }
+
+    @Override
+    public void reiniciar() {
+        total.reiniciar();
+        hayAncla = false;
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Distancia de haversine (esfera de radio medio).
+     */
+    static double metrosEntre(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RADIO_TIERRA_M * Math.asin(Math.min(1, Math.sqrt(a)));
+    } // ()
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
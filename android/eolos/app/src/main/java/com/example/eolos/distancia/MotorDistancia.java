@@ -0,0 +1,46 @@
+/**
+ * Fichero: MotorDistancia.java
+ * Descripción: Interfaz de los cálculos de distancia recorrida a partir de las posiciones
+ *              del GPS, para poder cambiar de algoritmo sin tocar el servicio.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 26/11/2025
+ */
+
+package com.example.eolos.distancia;
+
+// -----------------------------------------------------------------------------------
+// Implementaciones: DistanciaUmbrales (filtros fijos de siempre) y DistanciaKalman
+// (filtro de velocidad constante ponderado por la precisión). Sin dependencias de
+// Android: se les pasa lo que hace falta de cada Location.
+// -----------------------------------------------------------------------------------
+public interface MotorDistancia {
+
+    /**
+     * Procesa una posición nueva.
+     *
+     * @param lat         latitud (grados)
+     * @param lon         longitud (grados)
+     * @param precisionM  radio de precisión del 68% (Location.getAccuracy)
+     * @param velocidadMs velocidad medida por el GPS (Location.getSpeed, Doppler) o -1
+     *                    si la posición no la trae
+     * @param instanteMs  reloj monotónico (elapsedRealtimeNanos / 1e6)
+     * @return true si la distancia total ha cambiado
+     */
+    boolean anyadir(double lat, double lon, float precisionM, float velocidadMs, long instanteMs);
+
+    /**
+     * @return metros recorridos desde el último reiniciar()
+     */
+    double getDistanciaMetros();
+
+    /**
+     * Empieza de cero (nuevo trayecto).
+     */
+    void reiniciar();
+} // interface
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -0,0 +1,47 @@
+/**
+ * Fichero: SumaCompensada.java
+ * Descripción: Suma de muchos términos pequeños sin perder precisión (Kahan-Babuška /
+ *              Neumaier): tras horas de pasos de pocos metros el total no se queda corto
+ *              por el redondeo.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 26/11/2025
+ */
+
+package com.example.eolos.distancia;
+
+// -----------------------------------------------------------------------------------
+// Lleva aparte el error de redondeo de cada suma y lo devuelve en get(). Funciona también
+// cuando el término es mayor que el total (a diferencia de Kahan), p. ej. el primer paso.
+// -----------------------------------------------------------------------------------
+public final class SumaCompensada {
+
+    private double suma = 0;
+    private double compensacion = 0; // lo que el redondeo se ha ido comiendo
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public void sumar(double valor) {
+        double t = suma + valor;
+        if (Math.abs(suma) >= Math.abs(valor)) {
+            compensacion += (suma - t) + valor;
+        } else {
+            compensacion += (valor - t) + suma;
+        }
+        suma = t;
+    } // ()
+
+    public double get() {
+        return suma + compensacion;
+    }
+
+    public void reiniciar() {
+        suma = 0;
+        compensacion = 0;
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -1,9 +1,5 @@
 package com.example.eolos.fragments;
 
-import android.content.BroadcastReceiver;
-import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.util.Log;
@@ -15,11 +11,14 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
+import com.example.eolos.AgregadorVentana;
+import com.example.eolos.BusEventos;
+import com.example.eolos.MedidaBeacon;
 import com.example.eolos.R;
+import com.example.eolos.VidaBeacon;
 import com.example.eolos.logica_fake.LogicaTrayectosFake;
-import com.example.eolos.servicio.BeaconScanService;
+import com.example.eolos.servicio.ServicioTrayecto;
 
 public class BeaconStatusFragment extends Fragment {
 
@@ -27,7 +26,6 @@ public class BeaconStatusFragment extends Fragment {
     private TextView tvMedida;
     private TextView tvTrayectoInfo;
     private View cardStatus;
-    private LogicaTrayectosFake logicaTrayectos;
 
     @Nullable
     @Override
@@ -43,11 +41,8 @@ public class BeaconStatusFragment extends Fragment {
         // tvTrayectoInfo = view.findViewById(R.id.tv_trayecto_info);
         cardStatus  = view.findViewById(R.id.card_status);
 
-        // Inicializar lógica de trayectos
-        logicaTrayectos = LogicaTrayectosFake.getInstance(requireContext());
-
         // Estado inicial según servicio
-        if (BeaconScanService.isBeaconDetectedRecently()) {
+        if (ServicioTrayecto.isBeaconDetectedRecently()) {
             actualizarEstado("Conectado");
             cardStatus.setBackgroundColor(Color.parseColor("#C8E6C9")); // Verde suave
         } else {
@@ -61,48 +56,33 @@ public class BeaconStatusFragment extends Fragment {
         return view;
     }
 
-    private final BroadcastReceiver beaconReceiver = new BroadcastReceiver() {
-        @Override
-        public void onReceive(Context context, Intent intent) {
-            String json = intent.getStringExtra("json_medida");
-            Log.d("BeaconStatusFrag", "Beacon recibido → " + json);
+    private BusEventos.Suscripcion<AgregadorVentana.Resumen> suscripcionResumen;
+    private BusEventos.Suscripcion<VidaBeacon.Estado> suscripcionEstado;
 
-            // Actualizar estado visual
-            actualizarEstado("Conectado");
-            cardStatus.setBackgroundColor(Color.parseColor("#C8E6C9"));
-
-            // Parsear JSON y mostrar medida
-            try {
-                org.json.JSONObject jsonObj = new org.json.JSONObject(json);
-                double valorMedido = jsonObj.getDouble("valor_medido");
-                int tipoMedicion = jsonObj.getInt("tipo_medicion");
-
-                String tipoTexto = "";
-                switch (tipoMedicion) {
-                    case 11: tipoTexto = "PM2.5"; break;
-                    case 12: tipoTexto = "PM10"; break;
-                    case 13: tipoTexto = "CO2"; break;
-                    default: tipoTexto = "Desconocido";
-                }
-
-                tvMedida.setText(String.format("Medida: %.2f (%s)", valorMedido, tipoTexto));
-
-                // Actualizar información del trayecto
-                actualizarInfoTrayecto();
-
-            } catch (Exception e) {
-                tvMedida.setText("Medida: —");
-                Log.e("BeaconStatusFrag", "Error parseando JSON de medida", e);
-            }
-        }
-    };
+    private void mostrarResumen(AgregadorVentana.Resumen resumen) {
+        Log.d("BeaconStatusFrag", "Resumen recibido → " + resumen);
+
+        // Media de la última ventana del servicio (ya viene tipada, no hay que parsear nada)
+        tvMedida.setText(String.format("Medida: %.2f (%s, %d lecturas)",
+                resumen.getMedia(), MedidaBeacon.tipoParaMostrar(resumen.getTipoMedicion()),
+                resumen.getLecturas()));
+
+        // Actualizar información del trayecto
+        actualizarInfoTrayecto();
+    }
+
+    private void mostrarEstadoBeacon(VidaBeacon.Estado estado) {
+        actualizarEstado(estado.isConectado() ? "Conectado" : "No conectado");
+    }
 
     @Override
     public void onResume() {
         super.onResume();
-        LocalBroadcastManager.getInstance(requireContext())
-                .registerReceiver(beaconReceiver,
-                        new IntentFilter("com.example.eolos.BEACON_DETECTED"));
+        // Con repetición del último valor: el estado y la última medida se ven al momento
+        suscripcionEstado = BusEventos.ESTADO_BEACON.suscribir(
+                BusEventos.HILO_PRINCIPAL, true, this::mostrarEstadoBeacon);
+        suscripcionResumen = BusEventos.RESUMEN_BEACON.suscribir(
+                BusEventos.HILO_PRINCIPAL, true, this::mostrarResumen);
 
         // Actualizar información al volver a la actividad
         actualizarInfoTrayecto();
@@ -111,11 +91,8 @@ public class BeaconStatusFragment extends Fragment {
     @Override
     public void onPause() {
         super.onPause();
-        try {
-            LocalBroadcastManager.getInstance(requireContext())
-                    .unregisterReceiver(beaconReceiver);
-        } catch (Exception ignored) {
-        }
+        if (suscripcionEstado != null) suscripcionEstado.cancelar();
+        if (suscripcionResumen != null) suscripcionResumen.cancelar();
     }
 
     public void actualizarEstado(String texto) {
@@ -132,7 +109,9 @@ public class BeaconStatusFragment extends Fragment {
 
     private void actualizarInfoTrayecto() {
         if (tvTrayectoInfo != null) {
-            if (logicaTrayectos.estaActivo()) {
+            // Solo se consulta: la instancia la crea y la destruye ServicioTrayecto
+            LogicaTrayectosFake logicaTrayectos = LogicaTrayectosFake.getInstanciaActual();
+            if (logicaTrayectos != null && logicaTrayectos.estaActivo()) {
                 String info = String.format("Trayecto: %s\nBici: %s\nPlaca: %s",
                         logicaTrayectos.getTrayectoId() != null ?
                                 logicaTrayectos.getTrayectoId().substring(0, 8) + "..." : "N/A",
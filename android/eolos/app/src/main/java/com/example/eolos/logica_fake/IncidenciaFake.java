@@ -4,7 +4,8 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.util.Log;
 
-import com.example.eolos.PeticionarioREST;
+import com.example.eolos.ClienteHttp;
+import com.example.eolos.MotorPeticiones;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -13,7 +14,6 @@ public class IncidenciaFake {
 
     private static final String TAG = "IncidenciaFake";
 
-    private static final String BASE_URL = "http://172.20.10.12:8000";
     private static final String ENDPOINT_INCIDENCIAS = "/api/v1/incidencias";
 
     // Callback para devolver el resultado de la petición
@@ -57,17 +57,17 @@ public class IncidenciaFake {
             return;
         }
 
-        String url = BASE_URL + ENDPOINT_INCIDENCIAS;
+        String url = ClienteHttp.url(ENDPOINT_INCIDENCIAS);
         Log.d(TAG, "➡️ POST " + url);
         Log.d(TAG, "📦 body: " + json.toString());
 
-        // Usamos PeticionarioREST para hacer una petición HTTP con autenticación
-        PeticionarioREST peti = new PeticionarioREST();
-        peti.hacerPeticionRESTconAuth(
+        // Petición HTTP con autenticación; la respuesta vuelve al hilo principal
+        MotorPeticiones.getInstancia().enviar(
                 "POST",
                 url,
                 json.toString(),
                 token,
+                MotorPeticiones.HILO_PRINCIPAL,
                 (codigo, cuerpo) -> {
                     Log.d(TAG, "resp code=" + codigo + ", body=" + cuerpo);
                     boolean exito = (codigo >= 200 && codigo < 300);
@@ -10,6 +10,7 @@ package com.example.eolos.logica_fake;
 
 import android.util.Log;
 
+import com.example.eolos.MotorPeticiones;
 import com.example.eolos.PeticionarioREST;
 
 // -------------------------------------------------------------------------------
@@ -40,10 +41,8 @@ public class LogicaFake {
         String urlCompleta = baseUrl + endpoint;  // <- Construye la URL full aquí (ej. "http://192.168.1.100:8000" + "/api/v1/guardar-medida")
         Log.d("LogicaFake", "URL construida: " + urlCompleta);  // Para depurar
 
-        PeticionarioREST elPeticionario = new PeticionarioREST();
-
-        elPeticionario.hacerPeticionREST("POST", urlCompleta, jsonMedida,
-                new PeticionarioREST.RespuestaREST() {
+        MotorPeticiones.getInstancia().enviar("POST", urlCompleta, jsonMedida, null,
+                MotorPeticiones.HILO_PRINCIPAL, new PeticionarioREST.RespuestaREST() {
                     @Override
                     public void callback(int codigo, String cuerpo) {
                         Log.d("LogicaFake", "Respuesta del servidor: codigo=" + codigo + ", cuerpo=" + cuerpo);
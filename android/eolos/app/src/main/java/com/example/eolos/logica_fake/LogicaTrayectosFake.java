@@ -2,17 +2,18 @@ package com.example.eolos.logica_fake;
 
 import android.content.Context;
 import android.location.Location;
-import android.location.LocationManager;
-import android.location.LocationListener;
-import android.Manifest;
-import android.content.pm.PackageManager;
-import android.os.Bundle;
-import androidx.core.content.ContextCompat;
 import android.os.Handler;
 import android.os.Looper;
-import android.util.Log;
+import android.util.Base64;
 
+import com.example.eolos.AgregadorVentana;
+import com.example.eolos.ClienteHttp;
+import com.example.eolos.MedidaBeacon;
+import com.example.eolos.MotorPeticiones;
 import com.example.eolos.PeticionarioREST;
+import com.example.eolos.Traza;
+import com.example.eolos.captura.HistorialUbicaciones;
+import com.example.eolos.servicio.CentroUbicacion;
 
 import org.json.JSONObject;
 import org.json.JSONException;
@@ -21,48 +22,45 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
+import java.util.concurrent.Executor;
 
 public class LogicaTrayectosFake {
 
     private static final String TAG = "LogicaTrayectosFake";
-    private static final String BASE_URL = "http://172.20.10.12:8000";
     private final Context context;
-    private final Handler handler = new Handler(Looper.getMainLooper());
-    private final LocationManager locationManager;
-    private Location currentLocation;
-
-    private String trayectoId = null;
-    private String placaId = null;
-    private String bicicletaId = null;
+    // Hilo de quien crea la instancia (el de trabajo de ServicioTrayecto): temporizadores
+    // y respuestas REST vuelven ahí, así el estado del trayecto solo lo toca un hilo
+    private final Handler handler;
+    private final Executor hiloRespuestas;
+    // Ubicación compartida del trayecto (la abre y la cierra ServicioTrayecto)
+    private volatile CentroUbicacion centroUbicacion;
+    // Destino de las consultas al historial; solo la usa el hilo de 'handler'
+    private final HistorialUbicaciones.Posicion posicionMedida = new HistorialUbicaciones.Posicion();
+
+    // volatile: se leen desde la interfaz (BeaconStatusFragment)
+    private volatile String trayectoId = null;
+    private volatile String placaId = null;
+    private volatile String bicicletaId = null;
 
     private Runnable placaRunnable;
+    // Solo interesa el último estado de la placa: la anterior se cancela si sigue en cola
+    private MotorPeticiones.Peticion peticionPlaca;
+    private static final String RUTA_ESTADO_PLACA = "/api/v1/trayectos/actualizar-estado-placa";
+    private Runnable esperaOrigen;
 
-    // Singleton instance
-    private static LogicaTrayectosFake instance;
-
-    // Listener para actualizaciones de ubicación
-    private final LocationListener locationListener = new LocationListener() {
-        @Override
-        public void onLocationChanged(Location location) {
-            currentLocation = location;
-            Log.d(TAG, "📍 Ubicación actualizada: " + location.getLatitude() + ", " + location.getLongitude());
-        }
-
-        @Override
-        public void onStatusChanged(String provider, int status, Bundle extras) {}
-
-        @Override
-        public void onProviderEnabled(String provider) {}
+    private static final int ESPERAS_ORIGEN = 5;
+    private static final long ESPERA_ORIGEN_MS = 1000;
 
-        @Override
-        public void onProviderDisabled(String provider) {}
-    };
+    // Singleton instance
+    private static volatile LogicaTrayectosFake instance;
 
     // Constructor privado para Singleton
     private LogicaTrayectosFake(Context context) {
         this.context = context.getApplicationContext();
-        this.locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
-        iniciarActualizacionesUbicacion();
+        Looper propio = Looper.myLooper();
+        this.handler = new Handler(propio != null ? propio : Looper.getMainLooper());
+        this.hiloRespuestas = handler::post;
+        MotorPeticiones.getInstancia().setLimite(RUTA_ESTADO_PLACA, 1);
     }
 
     // Método Singleton
@@ -73,66 +71,57 @@ public class LogicaTrayectosFake {
         return instance;
     }
 
+    /**
+     * Instancia actual sin crearla (null si no hay trayecto en marcha). Para quien solo
+     * consulta el estado, como la interfaz.
+     */
+    public static LogicaTrayectosFake getInstanciaActual() {
+        return instance;
+    }
+
     // Método para resetear la instancia (al desconectar)
-    public static void resetInstance() {
+    public static synchronized void resetInstance() {
         if (instance != null) {
             instance.detenerActualizacionesCompletas();
             instance = null;
-            Log.i(TAG, "🔄 Instancia de LogicaTrayectosFake reseteada");
+            Traza.i(TAG, "🔄 Instancia de LogicaTrayectosFake reseteada");
         }
     }
 
-    // ==================================================================
-    // INICIAR ACTUALIZACIONES DE UBICACIÓN
-    // ==================================================================
-    private void iniciarActualizacionesUbicacion() {
-        if (ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION)
-                == PackageManager.PERMISSION_GRANTED) {
-
-            try {
-                // Obtener última ubicación conocida
-                Location lastLocation = locationManager.getLastKnownLocation(LocationManager.GPS_PROVIDER);
-                if (lastLocation == null) {
-                    lastLocation = locationManager.getLastKnownLocation(LocationManager.NETWORK_PROVIDER);
-                }
-                if (lastLocation != null) {
-                    currentLocation = lastLocation;
-                }
-
-                // Solicitar actualizaciones continuas
-                locationManager.requestLocationUpdates(
-                        LocationManager.GPS_PROVIDER,
-                        5000,  // 5 segundos
-                        10,    // 10 metros
-                        locationListener
-                );
-
-                locationManager.requestLocationUpdates(
-                        LocationManager.NETWORK_PROVIDER,
-                        5000,
-                        10,
-                        locationListener
-                );
-
-                Log.i(TAG, "📍 Servicio de ubicación iniciado");
-
-            } catch (SecurityException e) {
-                Log.e(TAG, "❌ Sin permisos para acceder a la ubicación", e);
-            }
-        } else {
-            Log.w(TAG, "⚠️ No hay permisos de ubicación");
-        }
+    /**
+     * Fuente de posiciones para origen, destino y medidas. Sin ella (o sin posición aún)
+     * se usa la posición por defecto.
+     */
+    public void setCentroUbicacion(CentroUbicacion centroUbicacion) {
+        this.centroUbicacion = centroUbicacion;
     }
 
     // ==================================================================
     // 1. INICIAR TRAYECTO
     // ==================================================================
     public void iniciarTrayecto(String bicicletaId) {
+        iniciarTrayecto(bicicletaId, ESPERAS_ORIGEN);
+    }
+
+    private void iniciarTrayecto(String bicicletaId, int esperasRestantes) {
         this.bicicletaId = bicicletaId;
+        if (esperaOrigen != null) {
+            handler.removeCallbacks(esperaOrigen); // otra bici: se descarta la espera anterior
+            esperaOrigen = null;
+        }
+
+        // La suscripción se acaba de abrir: se espera un poco a la primera posición
+        // antes de caer en la posición por defecto
+        if (getUbicacion() == null && esperasRestantes > 0) {
+            Traza.d(TAG, "📍 Sin posición aún, origen en {} ms", ESPERA_ORIGEN_MS);
+            esperaOrigen = () -> iniciarTrayecto(bicicletaId, esperasRestantes - 1);
+            handler.postDelayed(esperaOrigen, ESPERA_ORIGEN_MS);
+            return;
+        }
 
         JSONObject origen = getPosicionActual();
         if (origen == null) {
-            Log.e(TAG, "❌ No se pudo obtener ubicación GPS para iniciar trayecto");
+            Traza.e(TAG, "❌ No se pudo obtener ubicación GPS para iniciar trayecto");
             return;
         }
 
@@ -141,7 +130,7 @@ public class LogicaTrayectosFake {
         // Obtener targeta_id del usuario desde SharedPreferences
         String targetaId = obtenerTargetaIdUsuario();
         if (targetaId == null) {
-            Log.e(TAG, "❌ No se pudo obtener targeta_id del usuario");
+            Traza.e(TAG, "❌ No se pudo obtener targeta_id del usuario");
             return;
         }
 
@@ -152,44 +141,32 @@ public class LogicaTrayectosFake {
             body.put("fecha_inicio", fechaInicio);
             body.put("origen", origen);
         } catch (JSONException e) {
-            Log.e(TAG, "❌ Error creando JSON iniciar trayecto", e);
+            Traza.e(TAG, "❌ Error creando JSON iniciar trayecto", e);
             return;
         }
 
-        String url = BASE_URL + "/api/v1/trayectos/iniciar-trayecto";
+        String url = ClienteHttp.url("/api/v1/trayectos/iniciar-trayecto");
 
-        Log.d(TAG, "🚀 ========== INICIANDO PETICIÓN INICIAR-TRAYECTO ==========");
-        Log.d(TAG, "📤 URL: " + url);
-        Log.d(TAG, "📤 MÉTODO: POST");
-        Log.d(TAG, "📤 BODY COMPLETO:");
-        Log.d(TAG, "📤 " + body.toString());
-        Log.d(TAG, "📤 targeta_id: " + targetaId);
-        Log.d(TAG, "📤 bicicleta_id: " + bicicletaId);
-        Log.d(TAG, "📤 fecha_inicio: " + fechaInicio);
-        Log.d(TAG, "📤 origen: " + origen.toString());
-        Log.d(TAG, "🚀 =======================================================");
+        Traza.d(TAG, "🚀 INICIAR-TRAYECTO → POST {} | body: {}", url, body);
 
-        new PeticionarioREST().hacerPeticionREST("POST", url, body.toString(), new PeticionarioREST.RespuestaREST() {
+        pedir("POST", url, body.toString(), new PeticionarioREST.RespuestaREST() {
             @Override
             public void callback(int codigo, String cuerpo) {
-                Log.d(TAG, "📥 ========== RESPUESTA INICIAR-TRAYECTO ==========");
-                Log.d(TAG, "📥 CÓDIGO HTTP: " + codigo);
-                Log.d(TAG, "📥 CUERPO RESPUESTA: " + cuerpo);
-                Log.d(TAG, "📥 ===============================================");
+                Traza.d(TAG, "📥 INICIAR-TRAYECTO ← {} | {}", codigo, cuerpo);
 
                 if (codigo == 200) {
                     try {
                         JSONObject res = new JSONObject(cuerpo);
                         trayectoId = res.getString("trayecto_id");
-                        Log.i(TAG, "✅ Trayecto iniciado correctamente: " + trayectoId);
+                        Traza.i(TAG, "✅ Trayecto iniciado correctamente: {}", trayectoId);
 
                         // 2. OBTENER DATOS DEL TRAYECTO (siguiente paso)
                         obtenerDatosTrayecto();
                     } catch (Exception e) {
-                        Log.e(TAG, "❌ Error parseando respuesta iniciar-trayecto", e);
+                        Traza.e(TAG, "❌ Error parseando respuesta iniciar-trayecto", e);
                     }
                 } else {
-                    Log.e(TAG, "❌ Error iniciar trayecto: " + codigo + " → " + cuerpo);
+                    Traza.e(TAG, "❌ Error iniciar trayecto: {} → {}", codigo, cuerpo);
                 }
             }
         });
@@ -200,32 +177,25 @@ public class LogicaTrayectosFake {
     // ==================================================================
     private void obtenerDatosTrayecto() {
         if (trayectoId == null) {
-            Log.e(TAG, "❌ No hay trayectoId para obtener datos");
+            Traza.e(TAG, "❌ No hay trayectoId para obtener datos");
             return;
         }
 
-        String url = BASE_URL + "/api/v1/trayectos/obtener-datos-trayecto/" + trayectoId;
+        String url = ClienteHttp.url("/api/v1/trayectos/obtener-datos-trayecto/" + trayectoId);
 
-        Log.d(TAG, "🚀 ========== INICIANDO PETICIÓN OBTENER-DATOS-TRAYECTO ==========");
-        Log.d(TAG, "📤 URL: " + url);
-        Log.d(TAG, "📤 MÉTODO: GET");
-        Log.d(TAG, "📤 trayecto_id: " + trayectoId);
-        Log.d(TAG, "🚀 ============================================================");
+        Traza.d(TAG, "🚀 OBTENER-DATOS-TRAYECTO → GET {}", url);
 
-        new PeticionarioREST().hacerPeticionREST("GET", url, null, new PeticionarioREST.RespuestaREST() {
+        pedir("GET", url, null, new PeticionarioREST.RespuestaREST() {
             @Override
             public void callback(int codigo, String cuerpo) {
-                Log.d(TAG, "📥 ========== RESPUESTA OBTENER-DATOS-TRAYECTO ==========");
-                Log.d(TAG, "📥 CÓDIGO HTTP: " + codigo);
-                Log.d(TAG, "📥 CUERPO RESPUESTA: " + cuerpo);
-                Log.d(TAG, "📥 ====================================================");
+                Traza.d(TAG, "📥 OBTENER-DATOS-TRAYECTO ← {} | {}", codigo, cuerpo);
 
                 if (codigo == 200) {
                     try {
                         JSONObject res = new JSONObject(cuerpo);
                         placaId = res.getString("placa_id");
-                        Log.i(TAG, "✅ Datos recibidos - placa_id: " + placaId);
-                        Log.i(TAG, "✅ TRAYECTO COMPLETAMENTE INICIALIZADO - Estado: " + getEstadoActual());
+                        Traza.i(TAG, "✅ Datos recibidos - placa_id: {}", placaId);
+                        Traza.i(TAG, "✅ TRAYECTO COMPLETAMENTE INICIALIZADO - Estado: {}", getEstadoActual());
 
                         // 3. ACTUALIZAR ESTADO BICICLETA A "en_uso"
                         actualizarEstadoBicicleta("en_uso");
@@ -233,10 +203,10 @@ public class LogicaTrayectosFake {
                         // 4. INICIAR ACTUALIZACIONES PERIÓDICAS
                         iniciarActualizacionesPeriodicas();
                     } catch (Exception e) {
-                        Log.e(TAG, "❌ Error parseando obtener-datos-trayecto", e);
+                        Traza.e(TAG, "❌ Error parseando obtener-datos-trayecto", e);
                     }
                 } else {
-                    Log.e(TAG, "❌ Error obtener datos: " + codigo + " → " + cuerpo);
+                    Traza.e(TAG, "❌ Error obtener datos: {} → {}", codigo, cuerpo);
                 }
             }
         });
@@ -247,13 +217,13 @@ public class LogicaTrayectosFake {
     // ==================================================================
     public void actualizarEstadoBicicleta(String estado) {
         if (bicicletaId == null) {
-            Log.w(TAG, "⚠️ No hay bicicleta_id para actualizar estado");
+            Traza.w(TAG, "⚠️ No hay bicicleta_id para actualizar estado");
             return;
         }
 
         JSONObject posicion = getPosicionActual();
         if (posicion == null) {
-            Log.e(TAG, "❌ No se pudo obtener ubicación para actualizar estado bicicleta");
+            Traza.e(TAG, "❌ No se pudo obtener ubicación para actualizar estado bicicleta");
             return;
         }
 
@@ -263,34 +233,23 @@ public class LogicaTrayectosFake {
             body.put("estado", estado);
             body.put("posicion", posicion);
         } catch (JSONException e) {
-            Log.e(TAG, "❌ Error JSON actualizar bicicleta", e);
+            Traza.e(TAG, "❌ Error JSON actualizar bicicleta", e);
             return;
         }
 
-        String url = BASE_URL + "/api/v1/trayectos/actualizar-estado-bici";
+        String url = ClienteHttp.url("/api/v1/trayectos/actualizar-estado-bici");
 
-        Log.d(TAG, "🚀 ========== INICIANDO PETICIÓN ACTUALIZAR-ESTADO-BICI ==========");
-        Log.d(TAG, "📤 URL: " + url);
-        Log.d(TAG, "📤 MÉTODO: PUT");
-        Log.d(TAG, "📤 BODY COMPLETO:");
-        Log.d(TAG, "📤 " + body.toString());
-        Log.d(TAG, "📤 bicicleta_id: " + bicicletaId);
-        Log.d(TAG, "📤 estado: " + estado);
-        Log.d(TAG, "📤 posicion: " + posicion.toString());
-        Log.d(TAG, "🚀 =============================================================");
+        Traza.d(TAG, "🚀 ACTUALIZAR-ESTADO-BICI → PUT {} | body: {}", url, body);
 
-        new PeticionarioREST().hacerPeticionREST("PUT", url, body.toString(), new PeticionarioREST.RespuestaREST() {
+        pedir("PUT", url, body.toString(), new PeticionarioREST.RespuestaREST() {
             @Override
             public void callback(int codigo, String cuerpo) {
-                Log.d(TAG, "📥 ========== RESPUESTA ACTUALIZAR-ESTADO-BICI ==========");
-                Log.d(TAG, "📥 CÓDIGO HTTP: " + codigo);
-                Log.d(TAG, "📥 CUERPO RESPUESTA: " + cuerpo);
-                Log.d(TAG, "📥 =====================================================");
+                Traza.d(TAG, "📥 ACTUALIZAR-ESTADO-BICI ← {} | {}", codigo, cuerpo);
 
                 if (codigo == 200) {
-                    Log.i(TAG, "✅ Estado bicicleta actualizado a '" + estado + "'");
+                    Traza.i(TAG, "✅ Estado bicicleta actualizado a '{}'", estado);
                 } else {
-                    Log.e(TAG, "❌ Error actualizando estado bicicleta: " + codigo + " → " + cuerpo);
+                    Traza.e(TAG, "❌ Error actualizando estado bicicleta: {} → {}", codigo, cuerpo);
                 }
             }
         });
@@ -300,7 +259,7 @@ public class LogicaTrayectosFake {
     // 4. ACTUALIZACIONES PERIÓDICAS
     // ==================================================================
     private void iniciarActualizacionesPeriodicas() {
-        Log.i(TAG, "🔄 Iniciando actualizaciones periódicas cada 30 segundos");
+        Traza.i(TAG, "🔄 Iniciando actualizaciones periódicas cada 30 segundos");
 
         placaRunnable = new Runnable() {
             @Override
@@ -316,7 +275,7 @@ public class LogicaTrayectosFake {
 
     private void actualizarEstadoPlaca() {
         if (placaId == null) {
-            Log.w(TAG, "⚠️ No hay placa_id para actualizar estado");
+            Traza.w(TAG, "⚠️ No hay placa_id para actualizar estado");
             return;
         }
 
@@ -326,25 +285,26 @@ public class LogicaTrayectosFake {
             body.put("estado", "activa");
             body.put("ult_actualizacion_estado", getFechaISO());
         } catch (JSONException e) {
-            Log.e(TAG, "❌ Error creando JSON actualizar placa", e);
+            Traza.e(TAG, "❌ Error creando JSON actualizar placa", e);
             return;
         }
 
-        String url = BASE_URL + "/api/v1/trayectos/actualizar-estado-placa";
+        String url = ClienteHttp.url(RUTA_ESTADO_PLACA);
 
-        Log.d(TAG, "🔄 ========== ACTUALIZANDO ESTADO PLACA ==========");
-        Log.d(TAG, "📤 URL: " + url);
-        Log.d(TAG, "📤 MÉTODO: PUT");
-        Log.d(TAG, "📤 BODY: " + body.toString());
-        Log.d(TAG, "🔄 =============================================");
+        Traza.d(TAG, "🔄 ACTUALIZAR-ESTADO-PLACA → PUT {} | body: {}", url, body);
 
-        new PeticionarioREST().hacerPeticionREST("PUT", url, body.toString(), new PeticionarioREST.RespuestaREST() {
+        // Solo se sustituye el anterior si sigue en cola; si ya está en curso se deja
+        // terminar (cortarlo haría que con un servidor lento no acabara ninguno)
+        if (peticionPlaca != null && peticionPlaca.cancelarSiEnEspera()) {
+            Traza.d(TAG, "Estado de placa anterior sin enviar: sustituido");
+        }
+        peticionPlaca = pedir("PUT", url, body.toString(), new PeticionarioREST.RespuestaREST() {
             @Override
             public void callback(int codigo, String cuerpo) {
                 if (codigo == 200) {
-                    Log.d(TAG, "✅ Estado placa actualizado correctamente");
+                    Traza.d(TAG, "✅ Estado placa actualizado correctamente");
                 } else {
-                    Log.e(TAG, "❌ Error actualizando estado placa: " + codigo + " → " + cuerpo);
+                    Traza.e(TAG, "❌ Error actualizando estado placa: {} → {}", codigo, cuerpo);
                 }
             }
         });
@@ -353,41 +313,46 @@ public class LogicaTrayectosFake {
     // ==================================================================
     // GUARDAR MEDIDA DESDE BEACON
     // ==================================================================
-    public void guardarMedidaDesdeBeacon(String jsonTrama) {
-        Log.d(TAG, "🔍 Estado actual al recibir medida: " + getEstadoActual());
+    public void guardarMedidaDesdeBeacon(MedidaBeacon medida) {
+        guardarMedida(medida.getTipoMedicion(), medida.getValorMedido(), medida.getInstanteMs(),
+                medida.getInstanteNanos() / 1_000_000);
+    }
+
+    /**
+     * Sube el resumen de una ventana: la media como valor y, como fecha, la media de las
+     * horas de recepción de sus lecturas.
+     */
+    public void guardarResumenDesdeBeacon(AgregadorVentana.Resumen resumen) {
+        guardarMedida(resumen.getTipoMedicion(), resumen.getMedia(), resumen.getInstanteMedioMs(),
+                resumen.getMonotonicoMedioMs());
+    }
+
+    private void guardarMedida(int tipoMedicion, double valor, long instanteMs, long monotonicoMs) {
+        Traza.d(TAG, "🔍 Estado actual al recibir medida: {}", getEstadoActual());
 
         if (!estaCompletamenteInicializado()) {
-            Log.w(TAG, "⚠️ Trayecto no completamente inicializado. Estado: " + getEstadoActual());
+            Traza.w(TAG, "⚠️ Trayecto no completamente inicializado. Estado: {}", getEstadoActual());
 
             // Reintentar después de 3 segundos si el trayecto está activo pero falta placa
             if (trayectoId != null && placaId == null) {
-                Log.d(TAG, "🔄 Reintentando guardar medida en 3 segundos...");
-                handler.postDelayed(() -> guardarMedidaDesdeBeacon(jsonTrama), 3000);
+                Traza.d(TAG, "🔄 Reintentando guardar medida en 3 segundos...");
+                handler.postDelayed(() -> guardarMedida(tipoMedicion, valor, instanteMs, monotonicoMs), 3000);
             }
             return;
         }
 
         try {
-            JSONObject trama = new JSONObject(jsonTrama);
-            double valor = trama.getDouble("valor_medido");
-            int tipoMedicion = trama.getInt("tipo_medicion");
-
-            String tipo;
-            if (tipoMedicion == 11) {
-                tipo = "pm2_5";
-            } else if (tipoMedicion == 12) {
-                tipo = "pm10";
-            } else if (tipoMedicion == 13) {
-                tipo = "co2";
-            } else {
-                tipo = "desconocido";
-                Log.w(TAG, "⚠️ Tipo de medición desconocido: " + tipoMedicion);
+            // La medida ya llega tipada: el JSON solo se construye aquí, al enviarla
+            String tipo = MedidaBeacon.tipoParaServidor(tipoMedicion);
+            if (tipo == null) {
+                Traza.w(TAG, "⚠️ Tipo de medición desconocido: {}", tipoMedicion);
                 return;
             }
 
-            JSONObject posicion = getPosicionActual();
+            // Donde estaba la bici al recibir la medida, no al subirla
+            JSONObject posicion = getPosicionEn(monotonicoMs);
             if (posicion == null) {
-                Log.e(TAG, "❌ No se pudo obtener ubicación para guardar medida");
+                Traza.e(TAG, "❌ No se pudo obtener ubicación para guardar medida");
                 return;
             }
 
@@ -396,35 +361,28 @@ public class LogicaTrayectosFake {
             body.put("placa_id", placaId);
             body.put("tipo", tipo);
             body.put("valor", valor);
-            body.put("fecha_hora", getFechaISO());
+            body.put("fecha_hora", getFechaISO(instanteMs));
             body.put("posicion", posicion);
 
-            String url = BASE_URL + "/api/v1/trayectos/guardar-medida";
+            String url = ClienteHttp.url("/api/v1/trayectos/guardar-medida");
 
-            Log.d(TAG, "📊 ========== GUARDANDO MEDIDA DESDE BEACON ==========");
-            Log.d(TAG, "📤 URL: " + url);
-            Log.d(TAG, "📤 MÉTODO: POST");
-            Log.d(TAG, "📤 BODY: " + body.toString());
-            Log.d(TAG, "📊 ==================================================");
+            Traza.d(TAG, "📊 GUARDAR-MEDIDA → POST {} | body: {}", url, body);
 
-            new PeticionarioREST().hacerPeticionREST("POST", url, body.toString(), new PeticionarioREST.RespuestaREST() {
+            pedir("POST", url, body.toString(), new PeticionarioREST.RespuestaREST() {
                 @Override
                 public void callback(int codigo, String cuerpo) {
-                    Log.d(TAG, "📥 ========== RESPUESTA GUARDAR-MEDIDA ==========");
-                    Log.d(TAG, "📥 CÓDIGO HTTP: " + codigo);
-                    Log.d(TAG, "📥 CUERPO RESPUESTA: " + cuerpo);
-                    Log.d(TAG, "📥 ============================================");
+                    Traza.d(TAG, "📥 GUARDAR-MEDIDA ← {} | {}", codigo, cuerpo);
 
                     if (codigo == 200) {
-                        Log.i(TAG, "✅ Medida guardada correctamente: " + valor + " (" + tipo + ")");
+                        Traza.i(TAG, "✅ Medida guardada correctamente: {} ({})", valor, tipo);
                     } else {
-                        Log.e(TAG, "❌ Error al guardar medida: " + codigo + " → " + cuerpo);
+                        Traza.e(TAG, "❌ Error al guardar medida: {} → {}", codigo, cuerpo);
                     }
                 }
             });
 
         } catch (Exception e) {
-            Log.e(TAG, "❌ Error procesando trama del beacon", e);
+            Traza.e(TAG, "❌ Error procesando trama del beacon", e);
         }
     }
 
@@ -432,10 +390,18 @@ public class LogicaTrayectosFake {
     // 5. FINALIZAR TRAYECTO
     // ==================================================================
     public void finalizarTrayecto() {
-        Log.i(TAG, "🏁 Iniciando finalización del trayecto. Estado: " + getEstadoActual());
+        finalizarTrayecto(null);
+    }
+
+    /**
+     * @param ruta ruta del trayecto codificada con CodificadorRuta (o null); se sube en
+     *             Base64 junto al fin del trayecto
+     */
+    public void finalizarTrayecto(byte[] ruta) {
+        Traza.i(TAG, "🏁 Iniciando finalización del trayecto. Estado: {}", getEstadoActual());
 
         if (trayectoId == null) {
-            Log.w(TAG, "⚠️ No hay trayecto activo para finalizar");
+            Traza.w(TAG, "⚠️ No hay trayecto activo para finalizar");
             return;
         }
 
@@ -443,7 +409,7 @@ public class LogicaTrayectosFake {
 
         JSONObject destino = getPosicionActual();
         if (destino == null) {
-            Log.e(TAG, "❌ No se pudo obtener ubicación para destino");
+            Traza.e(TAG, "❌ No se pudo obtener ubicación para destino");
             return;
         }
 
@@ -452,38 +418,30 @@ public class LogicaTrayectosFake {
             body.put("trayecto_id", trayectoId);
             body.put("fecha_fin", getFechaISO());
             body.put("destino", destino);
+            if (ruta != null) {
+                body.put("ruta", Base64.encodeToString(ruta, Base64.NO_WRAP));
+            }
         } catch (JSONException e) {
-            Log.e(TAG, "❌ Error JSON finalizar trayecto", e);
+            Traza.e(TAG, "❌ Error JSON finalizar trayecto", e);
             return;
         }
 
-        String url = BASE_URL + "/api/v1/trayectos/finalizar-trayecto";
+        String url = ClienteHttp.url("/api/v1/trayectos/finalizar-trayecto");
 
-        Log.d(TAG, "🏁 ========== FINALIZANDO TRAYECTO ==========");
-        Log.d(TAG, "📤 URL: " + url);
-        Log.d(TAG, "📤 MÉTODO: PUT");
-        Log.d(TAG, "📤 BODY COMPLETO:");
-        Log.d(TAG, "📤 " + body.toString());
-        Log.d(TAG, "📤 trayecto_id: " + trayectoId);
-        Log.d(TAG, "📤 fecha_fin: " + getFechaISO());
-        Log.d(TAG, "📤 destino: " + destino.toString());
-        Log.d(TAG, "🏁 =========================================");
+        Traza.d(TAG, "🏁 FINALIZAR-TRAYECTO → PUT {} | body: {}", url, body);
 
-        new PeticionarioREST().hacerPeticionREST("PUT", url, body.toString(), new PeticionarioREST.RespuestaREST() {
+        pedir("PUT", url, body.toString(), new PeticionarioREST.RespuestaREST() {
             @Override
             public void callback(int codigo, String cuerpo) {
-                Log.d(TAG, "📥 ========== RESPUESTA FINALIZAR-TRAYECTO ==========");
-                Log.d(TAG, "📥 CÓDIGO HTTP: " + codigo);
-                Log.d(TAG, "📥 CUERPO RESPUESTA: " + cuerpo);
-                Log.d(TAG, "📥 =================================================");
+                Traza.d(TAG, "📥 FINALIZAR-TRAYECTO ← {} | {}", codigo, cuerpo);
 
                 if (codigo == 200) {
-                    Log.i(TAG, "✅ Trayecto finalizado correctamente");
+                    Traza.i(TAG, "✅ Trayecto finalizado correctamente");
 
                     // Actualizar estado de la bicicleta a "estacionada"
                     actualizarEstadoBicicleta("estacionada");
                 } else {
-                    Log.e(TAG, "❌ Error finalizando trayecto: " + codigo + " → " + cuerpo);
+                    Traza.e(TAG, "❌ Error finalizando trayecto: {} → {}", codigo, cuerpo);
                 }
 
                 // Limpiar estado independientemente del resultado
@@ -493,69 +451,93 @@ public class LogicaTrayectosFake {
     }
 
     private void detenerActualizacionesCompletas() {
-        Log.i(TAG, "🛑 Deteniendo todas las actualizaciones...");
+        Traza.i(TAG, "🛑 Deteniendo todas las actualizaciones...");
 
         if (placaRunnable != null) {
             handler.removeCallbacks(placaRunnable);
             placaRunnable = null;
-            Log.i(TAG, "✅ Actualizaciones periódicas detenidas");
+            Traza.i(TAG, "✅ Actualizaciones periódicas detenidas");
         }
 
-        // Detener actualizaciones de ubicación
-        try {
-            locationManager.removeUpdates(locationListener);
-            Log.i(TAG, "✅ Actualizaciones de ubicación detenidas");
-        } catch (SecurityException e) {
-            Log.e(TAG, "❌ Error deteniendo actualizaciones de ubicación", e);
+        if (esperaOrigen != null) {
+            handler.removeCallbacks(esperaOrigen);
+            esperaOrigen = null;
+        }
+
+        if (peticionPlaca != null) {
+            peticionPlaca.cancelar();
+            peticionPlaca = null;
         }
     }
 
     private void limpiarEstadoCompleto() {
-        Log.i(TAG, "🧹 Limpiando estado completo del trayecto");
+        Traza.i(TAG, "🧹 Limpiando estado completo del trayecto");
         trayectoId = null;
         placaId = null;
         bicicletaId = null;
-        Log.i(TAG, "✅ Estado limpiado: " + getEstadoActual());
+        Traza.i(TAG, "✅ Estado limpiado: {}", getEstadoActual());
+    }
+
+    // ==================================================================
+    // PETICIONES
+    // ==================================================================
+    /**
+     * Lanza la petición en MotorPeticiones; la respuesta llega en el hilo de esta
+     * instancia.
+     */
+    private MotorPeticiones.Peticion pedir(String metodo, String url, String cuerpo,
+                                           PeticionarioREST.RespuestaREST respuesta) {
+        return MotorPeticiones.getInstancia().enviar(metodo, url, cuerpo, null, hiloRespuestas, respuesta);
     }
 
     // ==================================================================
     // OBTENER POSICIÓN ACTUAL
     // ==================================================================
+    private Location getUbicacion() {
+        CentroUbicacion centro = centroUbicacion;
+        return (centro != null) ? centro.getUltima() : null;
+    }
+
+    /**
+     * Posición interpolada del historial en 'monotonicoMs' (reloj monotónico), con su
+     * precisión en "precision". Si el historial no llega a ese instante, la posición actual.
+     */
+    private JSONObject getPosicionEn(long monotonicoMs) {
+        CentroUbicacion centro = centroUbicacion;
+        HistorialUbicaciones.Posicion p = posicionMedida;
+        if (centro == null || !centro.getHistorial().posicionEn(monotonicoMs, p)) {
+            Traza.w(TAG, "⚠️ Sin posiciones cerca de {}: se usa la actual", monotonicoMs);
+            return getPosicionActual();
+        }
+        try {
+            JSONObject pos = new JSONObject();
+            pos.put("lat", p.getLat());
+            pos.put("lon", p.getLon());
+            pos.put("precision", Math.round(p.getPrecisionM() * 10) / 10.0);
+            return pos;
+        } catch (Exception e) {
+            Traza.e(TAG, "❌ Error obteniendo ubicación", e);
+            return null;
+        }
+    }
+
     private JSONObject getPosicionActual() {
         try {
-            if (currentLocation != null) {
-                JSONObject pos = new JSONObject();
-                pos.put("lat", currentLocation.getLatitude());
-                pos.put("lon", currentLocation.getLongitude());
-                Log.d(TAG, "📍 Usando ubicación actual: " + pos.toString());
-                return pos;
+            Location ubicacion = getUbicacion();
+            JSONObject pos = new JSONObject();
+            if (ubicacion != null) {
+                pos.put("lat", ubicacion.getLatitude());
+                pos.put("lon", ubicacion.getLongitude());
+                Traza.d(TAG, "📍 Usando ubicación actual: {}", pos);
             } else {
-                // Si no hay ubicación actual, intentar obtener una última conocida
-                if (ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION)
-                        == PackageManager.PERMISSION_GRANTED) {
-
-                    Location lastLocation = locationManager.getLastKnownLocation(LocationManager.GPS_PROVIDER);
-                    if (lastLocation == null) {
-                        lastLocation = locationManager.getLastKnownLocation(LocationManager.NETWORK_PROVIDER);
-                    }
-                    if (lastLocation != null) {
-                        JSONObject pos = new JSONObject();
-                        pos.put("lat", lastLocation.getLatitude());
-                        pos.put("lon", lastLocation.getLongitude());
-                        Log.d(TAG, "📍 Usando última ubicación conocida: " + pos.toString());
-                        return pos;
-                    }
-                }
-
                 // Último recurso: posición por defecto
-                Log.w(TAG, "⚠️ Usando posición por defecto (Madrid)");
-                JSONObject pos = new JSONObject();
+                Traza.w(TAG, "⚠️ Usando posición por defecto (Madrid)");
                 pos.put("lat", 40.4168);
                 pos.put("lon", -3.7038);
-                return pos;
             }
+            return pos;
         } catch (Exception e) {
-            Log.e(TAG, "❌ Error obteniendo ubicación", e);
+            Traza.e(TAG, "❌ Error obteniendo ubicación", e);
             return null;
         }
     }
@@ -569,14 +551,14 @@ public class LogicaTrayectosFake {
             String targetaId = prefs.getString("targeta_id", null);
 
             if (targetaId != null && !targetaId.trim().isEmpty()) {
-                Log.d(TAG, "🎫 Usando targeta_id de SharedPreferences: " + targetaId);
+                Traza.d(TAG, "🎫 Usando targeta_id de SharedPreferences: {}", targetaId);
                 return targetaId.trim();
             } else {
-                Log.w(TAG, "⚠️ No hay targeta_id en SharedPreferences, usando valor por defecto");
+                Traza.w(TAG, "⚠️ No hay targeta_id en SharedPreferences, usando valor por defecto");
                 return "12345678Z";
             }
         } catch (Exception e) {
-            Log.e(TAG, "❌ Error obteniendo targeta_id", e);
+            Traza.e(TAG, "❌ Error obteniendo targeta_id", e);
             return "12345678Z";
         }
     }
@@ -585,9 +567,13 @@ public class LogicaTrayectosFake {
     // UTILIDADES
     // ==================================================================
     private String getFechaISO() {
+        return getFechaISO(System.currentTimeMillis());
+    }
+
+    private String getFechaISO(long instanteMs) {
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
         sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
-        return sdf.format(new Date());
+        return sdf.format(new Date(instanteMs));
     }
 
     public boolean estaActivo() {
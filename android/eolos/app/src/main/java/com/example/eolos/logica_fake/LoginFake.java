@@ -8,6 +8,8 @@
 
 package com.example.eolos.logica_fake;
 
+import com.example.eolos.ClienteHttp;
+import com.example.eolos.MotorPeticiones;
 import com.example.eolos.PeticionarioREST;
 
 import org.json.JSONObject;
@@ -17,7 +19,6 @@ import org.json.JSONObject;
 
 public class LoginFake {
 
-    private static final String BASE_URL = "http://172.20.10.12:8000";
     private static final String ENDPOINT_LOGIN = "/api/v1/auth/login";
 
     public interface LoginCallback {
@@ -36,15 +37,15 @@ public class LoginFake {
      * @param callback   Callback con el token JWT o mensaje de error
      */
     public void login(String correo, String contrasena, LoginCallback callback) {
-        PeticionarioREST peticionario = new PeticionarioREST();
-        String url = BASE_URL + ENDPOINT_LOGIN;
+        String url = ClienteHttp.url(ENDPOINT_LOGIN);
 
         try {
             JSONObject body = new JSONObject();
             body.put("correo", correo);
             body.put("contrasena", contrasena);
 
-            peticionario.hacerPeticionREST("POST", url, body.toString(), new PeticionarioREST.RespuestaREST() {
+            MotorPeticiones.getInstancia().enviar("POST", url, body.toString(), null,
+                    MotorPeticiones.HILO_PRINCIPAL, new PeticionarioREST.RespuestaREST() {
                 @Override
                 public void callback(int codigo, String cuerpo) {
                     if (codigo == 200) {
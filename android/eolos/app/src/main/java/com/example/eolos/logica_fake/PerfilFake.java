@@ -4,7 +4,8 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.util.Log;
 
-import com.example.eolos.PeticionarioREST;
+import com.example.eolos.ClienteHttp;
+import com.example.eolos.MotorPeticiones;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -23,8 +24,6 @@ public class PerfilFake {
 
     private static final String TAG = "PerfilFake";
 
-    // 📌 Cambia BASE_URL si ejecutas en dispositivo físico (usa IP de tu PC).
-    private static final String BASE_URL = "http://172.20.10.12:8000";
     private static final String ENDPOINT_PERFIL = "/api/v1/perfil";
 
     // Campos de datos que realmente usas en la app
@@ -62,11 +61,11 @@ public class PerfilFake {
             return;
         }
 
-        String url = BASE_URL + ENDPOINT_PERFIL;
+        String url = ClienteHttp.url(ENDPOINT_PERFIL);
         Log.d(TAG, "➡️ GET " + url);
 
-        PeticionarioREST peti = new PeticionarioREST();
-        peti.hacerPeticionRESTconAuth("GET", url, null, token, (codigo, cuerpo) -> {
+        MotorPeticiones.getInstancia().enviar("GET", url, null, token,
+                MotorPeticiones.HILO_PRINCIPAL, (codigo, cuerpo) -> {
             Log.d(TAG, "GET resp code=" + codigo + ", body=" + cuerpo);
 
             if (codigo >= 200 && codigo < 300) {
@@ -111,14 +110,14 @@ public class PerfilFake {
             return;
         }
 
-        String url = BASE_URL + ENDPOINT_PERFIL;
+        String url = ClienteHttp.url(ENDPOINT_PERFIL);
         String cuerpoJson = toJsonServidor(); // mapea a los campos que espera tu backend
 
         Log.d(TAG, "➡️ PUT " + url);
         Log.d(TAG, "📦 body: " + cuerpoJson);
 
-        PeticionarioREST peti = new PeticionarioREST();
-        peti.hacerPeticionRESTconAuth("PUT", url, cuerpoJson, token, (codigo, cuerpo) -> {
+        MotorPeticiones.getInstancia().enviar("PUT", url, cuerpoJson, token,
+                MotorPeticiones.HILO_PRINCIPAL, (codigo, cuerpo) -> {
             Log.d(TAG, "✅ PUT resp code=" + codigo + ", body=" + cuerpo);
             boolean exito = (codigo >= 200 && codigo < 300);
             if (exito) {
@@ -11,6 +11,8 @@ package com.example.eolos.logica_fake;
 
 import android.util.Log;
 
+import com.example.eolos.ClienteHttp;
+import com.example.eolos.MotorPeticiones;
 import com.example.eolos.PeticionarioREST;
 
 import org.json.JSONObject;
@@ -20,7 +22,6 @@ import org.json.JSONObject;
 
 public class RegistroFake {
 
-    private static final String BASE_URL = "http://172.20.10.12:8000";
     private static final String ENDPOINT_REGISTRO = "/api/v1/auth/registro";
 
     /**
@@ -52,8 +53,7 @@ public class RegistroFake {
                          String contrasena, String contrasenaRepite, boolean aceptaPolitica,
                          RegistroCallback callback) {
 
-        PeticionarioREST peticionario = new PeticionarioREST();
-        String url = BASE_URL + ENDPOINT_REGISTRO;
+        String url = ClienteHttp.url(ENDPOINT_REGISTRO);
 
         try {
             JSONObject body = new JSONObject();
@@ -67,7 +67,8 @@ public class RegistroFake {
 
             Log.d("RegistroFake", "Enviando registro: " + body.toString());
 
-            peticionario.hacerPeticionREST("POST", url, body.toString(), new PeticionarioREST.RespuestaREST() {
+            MotorPeticiones.getInstancia().enviar("POST", url, body.toString(), null,
+                    MotorPeticiones.HILO_PRINCIPAL, new PeticionarioREST.RespuestaREST() {
                 @Override
                 public void callback(int codigo, String cuerpo) {
                     Log.d("RegistroFake", "Respuesta del servidor: código=" + codigo + ", cuerpo=" + cuerpo);
@@ -8,7 +8,8 @@
 
 package com.example.eolos.logica_fake;
 
-import com.example.eolos.PeticionarioREST;
+import com.example.eolos.ClienteHttp;
+import com.example.eolos.MotorPeticiones;
 
 import org.json.JSONObject;
 
@@ -17,8 +18,6 @@ import org.json.JSONObject;
 
 public class VerifyFake {
 
-    private static final String BASE_URL = "http://172.20.10.12:8000";
-
     public interface VerifyCallback {
         void onSuccess(String token);
         void onError(String error);
@@ -40,15 +39,15 @@ public class VerifyFake {
      * @param callback          Callback que recibe el token JWT o error
      */
     public void verificar(String correo, String verification_code, VerifyCallback callback) {
-        PeticionarioREST p = new PeticionarioREST();
-        String url = BASE_URL + "/api/v1/auth/verify-registration";
+        String url = ClienteHttp.url("/api/v1/auth/verify-registration");
 
         try {
             JSONObject body = new JSONObject();
             body.put("correo", correo);
             body.put("verification_code", verification_code);
 
-            p.hacerPeticionREST("POST", url, body.toString(), (codigo, cuerpo) -> {
+            MotorPeticiones.getInstancia().enviar("POST", url, body.toString(), null,
+                    MotorPeticiones.HILO_PRINCIPAL, (codigo, cuerpo) -> {
                 if (codigo == 200) {
                     try {
                         JSONObject resp = new JSONObject(cuerpo);
@@ -81,13 +80,13 @@ public class VerifyFake {
      * @param callback  Callback que notifica éxito o error
      */
     public void reenviar(String correo, ReenvioCallback callback) {
-        PeticionarioREST p = new PeticionarioREST();
-        String url = BASE_URL + "/api/v1/auth/resend-verification";
+        String url = ClienteHttp.url("/api/v1/auth/resend-verification");
 
         try {
             JSONObject body = new JSONObject();
             body.put("correo", correo);
-            p.hacerPeticionREST("POST", url, body.toString(), (codigo, cuerpo) -> {
+            MotorPeticiones.getInstancia().enviar("POST", url, body.toString(), null,
+                    MotorPeticiones.HILO_PRINCIPAL, (codigo, cuerpo) -> {
                 if (codigo == 200) {
                     callback.onReenviado();
                 } else {
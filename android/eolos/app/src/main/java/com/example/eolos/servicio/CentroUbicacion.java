@@ -0,0 +1,300 @@
+/**
+ * Fichero: CentroUbicacion.java
+ * Descripción: Única suscripción a la ubicación (FusedLocationProvider) mientras dura un
+ *              trayecto. Reparte cada posición a todos los interesados (distancia,
+ *              geoetiquetado de medidas) y guarda la última para leerla sin cerrojos.
+ *              El ritmo de la petición lo decide PoliticaUbicacion según la velocidad.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 25/11/2025
+ */
+
+package com.example.eolos.servicio;
+
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+import android.hardware.TriggerEvent;
+import android.hardware.TriggerEventListener;
+import android.location.Location;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.example.eolos.PoliticaUbicacion;
+import com.example.eolos.Traza;
+import com.example.eolos.captura.HistorialUbicaciones;
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
+import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.location.Priority;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+// -----------------------------------------------------------------------------------
+// Lo crea y lo controla ServicioTrayecto: iniciar() al empezar el trayecto y detener()
+// al acabarlo, así no se pide ubicación si no hay trayecto.
+//
+//   FusedLocationProvider --(looper del servicio)--> CentroUbicacion --> oyentes
+//                                                                    --> getUltima()
+//                                                                    --> getHistorial()
+//
+// Los oyentes se llaman en el looper que se pasa al constructor (el hilo de trabajo del
+// servicio). getUltima() y getHistorial() se pueden leer desde cualquier hilo; el
+// historial guarda las posiciones del trayecto para situar cada medida en su instante.
+//
+// Ritmo adaptativo: con la bici parada (PoliticaUbicacion.PARADO) la petición baja a
+// BALANCED_POWER cada 15 s y se arma el sensor de movimiento significativo (un disparo,
+// sin coste mientras espera); al dispararse o al llegar una velocidad de marcha se vuelve
+// a HIGH_ACCURACY cada 2 s sin esperar a la siguiente posición económica.
+// -----------------------------------------------------------------------------------
+public class CentroUbicacion {
+
+    /**
+     * Recibe cada posición nueva.
+     */
+    public interface Oyente {
+        void alRecibirUbicacion(Location ubicacion);
+    }
+
+    private static final String TAG = "CentroUbicacion";
+
+    private static final float DISTANCIA_MINIMA_M = 1.0f;
+
+    // Precisión por debajo de la cual la velocidad derivada de dos posiciones es fiable
+    private static final float PRECISION_VELOCIDAD_M = 20.0f;
+
+    private final FusedLocationProviderClient cliente;
+    private final Looper looper;
+    private final Handler handler;
+    private final PoliticaUbicacion politica = new PoliticaUbicacion();
+    private final SensorManager sensores;
+    private final Sensor movimientoSignificativo; // null si el móvil no lo tiene
+    private boolean sensorArmado = false;
+    private Location anterior; // para derivar la velocidad si la posición no la trae
+
+    private final TriggerEventListener alMoverse = new TriggerEventListener() {
+        @Override
+        public void onTrigger(TriggerEvent evento) {
+            handler.post(() -> {
+                sensorArmado = false;
+                if (callback != null && politica.registrarMovimiento(SystemClock.elapsedRealtime())) {
+                    Traza.i(TAG, "Movimiento detectado por el acelerómetro → ritmo completo");
+                    aplicarModo();
+                }
+            });
+        }
+    };
+    private final CopyOnWriteArrayList<Oyente> oyentes = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Location> ultima = new AtomicReference<>();
+    private final HistorialUbicaciones historial = new HistorialUbicaciones();
+
+    private volatile LocationCallback callback; // null = parado
+    private long recibidas = 0;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @param context contexto (se usa el de la aplicación)
+     * @param looper  hilo donde se entregan las posiciones a los oyentes
+     */
+    public CentroUbicacion(Context context, Looper looper) {
+        this.cliente = LocationServices.getFusedLocationProviderClient(context.getApplicationContext());
+        this.looper = looper;
+        this.handler = new Handler(looper);
+        this.sensores = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        this.movimientoSignificativo = (sensores != null)
+                ? sensores.getDefaultSensor(Sensor.TYPE_SIGNIFICANT_MOTION) : null;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    public void anyadirOyente(Oyente oyente) {
+        oyentes.addIfAbsent(oyente);
+    }
+
+    public void quitarOyente(Oyente oyente) {
+        oyentes.remove(oyente);
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Abre la suscripción (si no lo estaba). La última posición conocida del sistema se
+     * usa como punto de partida mientras llega la primera nueva, sin avisar a los oyentes.
+     *
+     * @return false si no hay permiso de ubicación
+     */
+    public boolean iniciar() {
+        if (callback != null) return true;
+
+        callback = new LocationCallback() {
+            @Override
+            public void onLocationResult(LocationResult resultado) {
+                for (Location ubicacion : resultado.getLocations()) {
+                    if (ubicacion != null) repartir(ubicacion);
+                }
+            }
+        };
+
+        politica.reiniciar(SystemClock.elapsedRealtime());
+        anterior = null;
+        historial.reiniciar();
+        try {
+            cliente.requestLocationUpdates(crearSolicitud(politica.getModo()), callback, looper);
+            cliente.getLastLocation().addOnSuccessListener(ubicacion -> {
+                if (ubicacion != null && callback != null) guardarSiEsMasNueva(ubicacion);
+            });
+        } catch (SecurityException e) {
+            Traza.e(TAG, "Permiso de ubicación denegado", e);
+            callback = null;
+            return false;
+        }
+
+        Traza.d(TAG, "Ubicación solicitada - alta precisión, intervalo {} ms",
+                politica.getModo().getIntervaloMs());
+        return true;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private LocationRequest crearSolicitud(PoliticaUbicacion.Modo modo) {
+        int prioridad = (modo == PoliticaUbicacion.Modo.MOVIMIENTO)
+                ? Priority.PRIORITY_HIGH_ACCURACY
+                : Priority.PRIORITY_BALANCED_POWER_ACCURACY;
+        return new LocationRequest.Builder(prioridad, modo.getIntervaloMs())
+                .setMinUpdateIntervalMillis(modo.getIntervaloMinimoMs())
+                .setMinUpdateDistanceMeters(DISTANCIA_MINIMA_M)
+                .build();
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Repite la petición con el modo actual (la nueva sustituye a la anterior en el mismo
+     * callback) y arma o desarma el sensor de movimiento.
+     */
+    private void aplicarModo() {
+        PoliticaUbicacion.Modo modo = politica.getModo();
+        try {
+            cliente.requestLocationUpdates(crearSolicitud(modo), callback, looper);
+        } catch (SecurityException e) {
+            Traza.e(TAG, "Permiso de ubicación retirado durante el trayecto", e);
+            return;
+        }
+        if (modo == PoliticaUbicacion.Modo.PARADO) {
+            armarSensor();
+        } else {
+            desarmarSensor();
+        }
+        Traza.d(TAG, "Modo de ubicación → {} (cada {} ms)", modo, modo.getIntervaloMs());
+    } // ()
+
+    private void armarSensor() {
+        if (movimientoSignificativo == null || sensorArmado) return;
+        sensorArmado = sensores.requestTriggerSensor(alMoverse, movimientoSignificativo);
+    }
+
+    private void desarmarSensor() {
+        if (!sensorArmado) return;
+        sensores.cancelTriggerSensor(alMoverse, movimientoSignificativo);
+        sensorArmado = false;
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Cierra la suscripción. La última posición se conserva (las respuestas del cierre
+     * del trayecto aún la usan).
+     */
+    public void detener() {
+        if (callback == null) return;
+        cliente.removeLocationUpdates(callback);
+        callback = null;
+        desarmarSensor();
+        Traza.d(TAG, "Ubicación detenida - {} posiciones recibidas", recibidas);
+        Traza.i(TAG, "Ritmo de ubicación → {}", politica.resumen(SystemClock.elapsedRealtime()));
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private void repartir(Location ubicacion) {
+        recibidas++;
+        guardarSiEsMasNueva(ubicacion);
+        historial.anyadir(ubicacion.getLatitude(), ubicacion.getLongitude(),
+                ubicacion.getAccuracy(), ubicacion.getElapsedRealtimeNanos() / 1_000_000);
+
+        if (politica.registrarVelocidad(SystemClock.elapsedRealtime(), velocidadDe(ubicacion))) {
+            aplicarModo();
+        }
+        anterior = ubicacion;
+
+        for (Oyente oyente : oyentes) {
+            oyente.alRecibirUbicacion(ubicacion);
+        }
+    } // ()
+
+    /**
+     * Velocidad de la posición (m/s): la que trae o, si no, la derivada de la anterior
+     * cuando el desplazamiento supera la incertidumbre. -1 si no se puede saber.
+     */
+    private float velocidadDe(Location ubicacion) {
+        if (ubicacion.hasSpeed()) {
+            return ubicacion.getSpeed();
+        }
+        if (anterior == null) return -1;
+
+        long dtNanos = ubicacion.getElapsedRealtimeNanos() - anterior.getElapsedRealtimeNanos();
+        if (dtNanos <= 0) return -1;
+        float distancia = anterior.distanceTo(ubicacion);
+        boolean precisas = ubicacion.getAccuracy() < PRECISION_VELOCIDAD_M
+                && anterior.getAccuracy() < PRECISION_VELOCIDAD_M;
+        if (!precisas && distancia <= ubicacion.getAccuracy() + anterior.getAccuracy()) {
+            return -1; // puede ser solo ruido
+        }
+        return distancia / (dtNanos / 1e9f);
+    }
+
+    // Con la semilla de getLastLocation() llegando tarde, nunca se pisa una más reciente
+    private void guardarSiEsMasNueva(Location ubicacion) {
+        ultima.accumulateAndGet(ubicacion, (previa, nueva) ->
+                (previa == null || previa.getElapsedRealtimeNanos() <= nueva.getElapsedRealtimeNanos())
+                        ? nueva : previa);
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @return última posición, o null si aún no hay ninguna
+     */
+    public Location getUltima() {
+        return ultima.get();
+    }
+
+    /**
+     * @return posiciones recientes del trayecto (se vacía en iniciar())
+     */
+    public HistorialUbicaciones getHistorial() {
+        return historial;
+    }
+
+    public boolean isActivo() {
+        return callback != null;
+    }
+
+    public long getUbicacionesRecibidas() {
+        return recibidas;
+    }
+
+    public PoliticaUbicacion getPolitica() {
+        return politica;
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
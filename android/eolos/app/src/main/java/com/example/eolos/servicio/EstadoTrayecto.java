@@ -0,0 +1,188 @@
+/**
+ * Fichero: EstadoTrayecto.java
+ * Descripción: Último estado del trayecto en curso (distancia, duración, velocidad y la
+ *              última medida de cada tipo) en un solo objeto que el servicio sobrescribe
+ *              y la interfaz consulta cuando le toca pintar. Sin eventos por cada posición
+ *              ni por cada trama: si nadie mira, nadie lo lee.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 27/11/2025
+ */
+
+package com.example.eolos.servicio;
+
+// -----------------------------------------------------------------------------------
+// Escritor (sin crear objetos): ServicioTrayecto en su hilo de trabajo (distancia,
+// velocidad, inicio y fin, y las medidas desde alRecibirMedida). Lector: la pantalla
+// visible, copiando a una Lectura suya que reutiliza en cada tic.
+//
+// Valores "conflados": cada escritura pisa la anterior, la interfaz solo ve el último.
+// El cerrojo es el del propio objeto, como en AgregadorVentana; las secciones son unas
+// pocas asignaciones y el lector entra como mucho una vez por segundo.
+//
+// 'version' sube en cada escritura: la interfaz se salta el repintado si no ha cambiado
+// (la duración la calcula ella con su reloj, no hace falta escribirla).
+// -----------------------------------------------------------------------------------
+public final class EstadoTrayecto {
+
+    public static final int NUM_TIPOS = 256;
+
+    private boolean activo = false;
+    private long inicioMs = 0;  // SystemClock.elapsedRealtime()
+    private long finMs = 0;
+    private double distanciaM = 0;
+    private float velocidadMs = -1;
+    private long version = 0;
+
+    // Última medida por tipo y tipos vistos, en orden de llegada
+    private final float[] valores = new float[NUM_TIPOS];
+    private final long[] instantes = new long[NUM_TIPOS];
+    private final boolean[] visto = new boolean[NUM_TIPOS];
+    private final int[] tipos = new int[NUM_TIPOS];
+    private int numTipos = 0;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Empieza un trayecto: todo a cero.
+     *
+     * @param ahoraMs SystemClock.elapsedRealtime()
+     */
+    public synchronized void iniciar(long ahoraMs) {
+        activo = true;
+        inicioMs = ahoraMs;
+        finMs = 0;
+        distanciaM = 0;
+        velocidadMs = -1;
+        for (int i = 0; i < numTipos; i++) {
+            visto[tipos[i]] = false;
+        }
+        numTipos = 0;
+        version++;
+    } // ()
+
+    /**
+     * Cierra el trayecto; los valores se conservan (la duración queda fija).
+     */
+    public synchronized void terminar(long ahoraMs) {
+        if (!activo) return;
+        activo = false;
+        finMs = ahoraMs;
+        velocidadMs = -1;
+        version++;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @param metros      distancia total del trayecto
+     * @param velocidadMs velocidad actual (m/s), negativa si no se conoce
+     */
+    public synchronized void ponerDistancia(double metros, float velocidadMs) {
+        this.distanciaM = metros;
+        this.velocidadMs = velocidadMs;
+        version++;
+    } // ()
+
+    /**
+     * @param tipoMedicion tipo (0..255)
+     * @param valor        valor medido
+     * @param instanteMs   hora de pared de la recepción
+     */
+    public synchronized void ponerMedida(int tipoMedicion, float valor, long instanteMs) {
+        int t = tipoMedicion & 0xFF;
+        if (!visto[t]) {
+            visto[t] = true;
+            tipos[numTipos++] = t;
+        }
+        valores[t] = valor;
+        instantes[t] = instanteMs;
+        version++;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Copia el estado a 'destino' (no crea objetos).
+     *
+     * @return true si ha cambiado desde la última vez que se copió a 'destino'
+     */
+    public synchronized boolean leer(Lectura destino) {
+        if (destino.version == version) return false;
+        destino.version = version;
+        destino.activo = activo;
+        destino.inicioMs = inicioMs;
+        destino.finMs = finMs;
+        destino.distanciaM = distanciaM;
+        destino.velocidadMs = velocidadMs;
+        destino.numTipos = numTipos;
+        for (int i = 0; i < numTipos; i++) {
+            int t = tipos[i];
+            destino.tipos[i] = t;
+            destino.valores[i] = valores[t];
+            destino.instantes[i] = instantes[t];
+        }
+        return true;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Copia del estado propiedad del lector. Las medidas van en orden de llegada del tipo:
+     * la i-ésima es (getTipo(i), getValor(i), getInstante(i)).
+     */
+    public static final class Lectura {
+        private long version = -1;
+        private boolean activo;
+        private long inicioMs;
+        private long finMs;
+        private double distanciaM;
+        private float velocidadMs;
+        private final int[] tipos = new int[NUM_TIPOS];
+        private final float[] valores = new float[NUM_TIPOS];
+        private final long[] instantes = new long[NUM_TIPOS];
+        private int numTipos;
+
+        public boolean isActivo() {
+            return activo;
+        }
+
+        /**
+         * @param ahoraMs SystemClock.elapsedRealtime()
+         */
+        public long getDuracionMs(long ahoraMs) {
+            if (inicioMs == 0) return 0;
+            return (activo ? ahoraMs : finMs) - inicioMs;
+        }
+
+        public double getDistanciaM() {
+            return distanciaM;
+        }
+
+        /** m/s, negativa si no se conoce */
+        public float getVelocidadMs() {
+            return velocidadMs;
+        }
+
+        public int getNumTipos() {
+            return numTipos;
+        }
+
+        public int getTipo(int i) {
+            return tipos[i];
+        }
+
+        public float getValor(int i) {
+            return valores[i];
+        }
+
+        public long getInstante(int i) {
+            return instantes[i];
+        }
+    } // class Lectura
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
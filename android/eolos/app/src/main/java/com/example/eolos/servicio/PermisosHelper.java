@@ -43,9 +43,10 @@ public class PermisosHelper {
 
     /**
      * Punto de entrada principal:
-     * Llamar a este método desde una Activity para verificar permisos y arrancar el servicio BLE.
+     * Llamar a este método desde una Activity para verificar permisos, Bluetooth y ubicación.
+     * El servicio del trayecto (ServicioTrayecto) se arranca al escanear el QR de la bici.
      */
-    public static void verificarYIniciarServicio(Activity activity) {
+    public static void verificarPermisos(Activity activity) {
         // Crear el canal de notificaciones si no existe
         ensureNotificationChannelExists(activity);
 
@@ -63,16 +64,7 @@ public class PermisosHelper {
             return;
         }
 
-        // 3️⃣ Si todo está correcto, iniciar el servicio de escaneo BLE
-        Intent serviceIntent = new Intent(activity, BeaconScanService.class);
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            // Para Android 8.0 o superior, los servicios deben iniciarse en primer plano
-            ContextCompat.startForegroundService(activity, serviceIntent);
-        } else {
-            activity.startService(serviceIntent);
-        }
-        Toast.makeText(activity, "Escaneo BLE iniciado en segundo plano", Toast.LENGTH_SHORT).show();
-        Log.i(TAG, "BeaconScanService iniciado (todos los permisos OK)");
+        Log.i(TAG, "Todos los permisos OK");
     }
 
     // ————————————————————————————————
@@ -153,7 +145,7 @@ public class PermisosHelper {
     public static void onRequestPermissionsResult(Activity a, int requestCode) {
         if (requestCode == REQ_PERMS_CHAIN) {
             // El usuario ya gestionó los permisos → reintentar
-            verificarYIniciarServicio(a);
+            verificarPermisos(a);
         }
     }
 
@@ -163,7 +155,7 @@ public class PermisosHelper {
      */
     public static void onActivityResult(Activity a, int requestCode, int resultCode, Intent data) {
         if (requestCode == REQ_ENABLE_BT || requestCode == REQ_ENABLE_LOCATION) {
-            verificarYIniciarServicio(a);
+            verificarPermisos(a);
         }
     }
 
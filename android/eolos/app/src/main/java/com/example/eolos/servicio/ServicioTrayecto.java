@@ -0,0 +1,594 @@
+/**
+ * Fichero: ServicioTrayecto.java
+ * Descripción: Único servicio en primer plano de un trayecto en bici. Es dueño del
+ *              escáner de la placa, del GPS de distancia, del estado del trayecto y de
+ *              las subidas al servidor, todo en un mismo hilo de trabajo, con una sola
+ *              notificación. Sustituye a BeaconScanService + GpsDistanceTrackerService.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 24/11/2025
+ */
+
+package com.example.eolos.servicio;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.app.Service;
+import android.content.Context;
+import android.content.Intent;
+import android.location.Location;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.IBinder;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.content.ContextCompat;
+
+import com.example.eolos.AgregadorVentana;
+import com.example.eolos.BusEventos;
+import com.example.eolos.EscanerIBeacons;
+import com.example.eolos.MedidaBeacon;
+import com.example.eolos.Traza;
+import com.example.eolos.VidaBeacon;
+import com.example.eolos.activities.ConnectionActivity;
+import com.example.eolos.captura.CodificadorRuta;
+import com.example.eolos.captura.SimplificadorRuta;
+import com.example.eolos.distancia.DistanciaKalman;
+import com.example.eolos.distancia.MotorDistancia;
+import com.example.eolos.logica_fake.LogicaTrayectosFake;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// -----------------------------------------------------------------------------------
+// Hilos:
+//   - principal: onStartCommand / onDestroy. Android entrega ahí los callbacks del
+//     escaneo BLE, pero EscanerIBeacons los reenvía a su propio hilo sin tocar nada.
+//   - trabajo (HandlerThread "trayecto", uno por proceso): arranque y parada, GPS,
+//     el escáner entero (lo crea este hilo: política, supervisor, caché de MACs y
+//     cada trama hasta alRecibirMedida), cierre de ventanas, plazo de presencia,
+//     notificación y lógica del trayecto.
+//
+// isRunning solo lo cambia el hilo principal, al recibir la orden: un iniciar que llega
+// justo después de un detener ya ve el trayecto parado y encola su arranque detrás del
+// desmontaje en 'trabajo'. stopSelf se decide después, otra vez en el principal, y no
+// se hace si entretanto ha empezado otro trayecto.
+//
+//   ConnectionActivity --iniciar(uuid, bici)--> [ServicioTrayecto] --> escáner + GPS + trayecto
+//                     --iniciar(otra bici)----> cambio de placa sin parar el servicio
+//                     --detener()-------------> finaliza trayecto, para todo, stopSelf
+// -----------------------------------------------------------------------------------
+public class ServicioTrayecto extends Service {
+
+    private static final String TAG = "ServicioTrayecto";
+
+    public static final String ACCION_INICIAR = "com.example.eolos.INICIAR_TRAYECTO";
+    public static final String ACCION_DETENER = "com.example.eolos.DETENER_TRAYECTO";
+    public static final String EXTRA_UUID = "beacon_uuid";
+    public static final String EXTRA_ID_BICI = "id_bici";
+
+    // Entrega de resultados por lotes (ms). Se puede cambiar con el extra del intent.
+    public static final String EXTRA_INTERVALO_LOTES_MS = "intervalo_lotes_ms";
+    public static final long INTERVALO_LOTES_MS_POR_DEFECTO = 5_000;
+
+    private static final int NOTIF_ID = 1;
+
+    // Estado visible desde fuera (actividades, fragment)
+    private static volatile boolean isRunning = false;
+    private static volatile long lastDetectedTime = 0;   // última trama recibida (cualquiera)
+    private static volatile VidaBeacon.Estado estadoBeacon = VidaBeacon.Estado.BUSCANDO;
+    private static final EstadoTrayecto estadoTrayecto = new EstadoTrayecto();
+
+    // Hilo de trabajo del proceso: se crea una vez y se queda dormido entre trayectos
+    private static HandlerThread hiloTrabajo;
+
+    private Handler trabajo;
+    private final Handler principal = new Handler(Looper.getMainLooper());
+    private boolean montado = false; // hilo de trabajo: escáner, GPS y trayecto en marcha
+    private NotificationManager notificationManager;
+    private LogicaTrayectosFake logicaTrayectos;
+    private EscanerIBeacons escanerIBeacons;
+    private volatile String idBici;
+
+    // Presencia de la bici: un solo plazo que se reprograma al vencer, sin sondeo
+    private static final long TIMEOUT_PERDIDA_MS = 15_000;
+    private final VidaBeacon vida = new VidaBeacon(TIMEOUT_PERDIDA_MS);
+    private final AtomicBoolean plazoProgramado = new AtomicBoolean(false);
+    private final Runnable vencimientoPlazo = new Runnable() {
+        @Override
+        public void run() {
+            plazoProgramado.set(false);
+            if (vida.comprobar(SystemClock.elapsedRealtime())) {
+                mostrarEstado(null);
+            } else {
+                programarPlazo(); // llegaron tramas entre medias: el plazo se ha corrido
+            }
+        }
+    };
+
+    // Todas las lecturas se suman por tipo y cada VENTANA_MS se sube un resumen por tipo
+    private static final long VENTANA_MS = 10_000;
+    private final AgregadorVentana agregador = new AgregadorVentana();
+    private final Runnable cierreVentana = new Runnable() {
+        @Override
+        public void run() {
+            cerrarVentana();
+            trabajo.postDelayed(this, VENTANA_MS);
+        }
+    };
+
+    // Ubicación: una sola suscripción por trayecto, repartida a la distancia y al
+    // geoetiquetado de medidas (posiciones entregadas en el hilo de trabajo)
+    private CentroUbicacion centroUbicacion;
+    private final CentroUbicacion.Oyente oyenteDistancia = this::procesarUbicacion;
+    // Distancia sobre la trayectoria filtrada (Kalman); DistanciaUmbrales da la de antes
+    private final MotorDistancia motorDistancia = new DistanciaKalman();
+
+    // Ruta del trayecto: simplificada al vuelo (5 m) y codificada en pocos KB; se sube
+    // al finalizar el trayecto
+    private static final double TOLERANCIA_RUTA_M = 5.0;
+    private static final int MAX_PENDIENTES_RUTA = 100;
+    private static final float PRECISION_RUTA_M = 25.0f;
+    private final CodificadorRuta codificadorRuta = new CodificadorRuta();
+    private final SimplificadorRuta simplificadorRuta =
+            new SimplificadorRuta(TOLERANCIA_RUTA_M, MAX_PENDIENTES_RUTA, codificadorRuta);
+    private final CentroUbicacion.Oyente oyenteRuta = this::grabarRuta;
+
+    // Notificación única: builder y PendingIntents creados una vez; solo se reconstruye
+    // al cambiar el estado
+    private NotificationCompat.Builder constructorNotificacion;
+    private String textoNotificado;
+
+    // -------------------------------------------------------------------------------
+    // API para las actividades
+    // -------------------------------------------------------------------------------
+    /**
+     * Empieza un trayecto con la bici indicada o, si ya hay uno en marcha, cambia de bici
+     * sin parar el servicio.
+     */
+    public static void iniciar(Context context, String uuid, String idBici) {
+        Intent intent = new Intent(context, ServicioTrayecto.class);
+        intent.setAction(ACCION_INICIAR);
+        intent.putExtra(EXTRA_UUID, uuid);
+        intent.putExtra(EXTRA_ID_BICI, idBici);
+        ContextCompat.startForegroundService(context, intent);
+    }
+
+    /**
+     * Finaliza el trayecto y para el servicio.
+     */
+    public static void detener(Context context) {
+        if (!isRunning) return;
+        Intent intent = new Intent(context, ServicioTrayecto.class);
+        intent.setAction(ACCION_DETENER);
+        context.startService(intent);
+    }
+
+    public static boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * Distancia, duración, velocidad y últimas medidas del trayecto (o del último, si ya
+     * acabó). La interfaz lo lee cuando pinta; no hay eventos por cada cambio.
+     */
+    public static EstadoTrayecto getEstado() {
+        return estadoTrayecto;
+    }
+
+    public static boolean isBeaconDetectedRecently() {
+        return isRunning && (System.currentTimeMillis() - lastDetectedTime < 5000);
+    }
+
+    public static boolean isBeaconConnected() {
+        return isRunning && estadoBeacon.isConectado();
+    }
+
+    private static synchronized Looper getLooperTrabajo() {
+        if (hiloTrabajo == null) {
+            hiloTrabajo = new HandlerThread("trayecto");
+            hiloTrabajo.start();
+        }
+        return hiloTrabajo.getLooper();
+    }
+
+    // -------------------------------------------------------------------------------
+    // Ciclo de vida
+    // -------------------------------------------------------------------------------
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        notificationManager = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
+        trabajo = new Handler(getLooperTrabajo());
+        crearCanal();
+        crearConstructorNotificacion();
+        centroUbicacion = new CentroUbicacion(this, trabajo.getLooper());
+    }
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        // 1. DETENER
+        if (intent != null && ACCION_DETENER.equals(intent.getAction())) {
+            Traza.i(TAG, "Deteniendo trayecto por orden explícita");
+            isRunning = false;
+            trabajo.post(() -> {
+                desmontarTodo();
+                principal.post(this::pararSiNoHayTrayecto);
+            });
+            return START_NOT_STICKY;
+        }
+
+        // 2. Notificación obligatoria: cada startForegroundService pide su startForeground
+        pasarAPrimerPlano();
+
+        // 3. VALIDAR PARÁMETROS OBLIGATORIOS
+        String uuid = (intent != null) ? intent.getStringExtra(EXTRA_UUID) : null;
+        if (uuid == null || uuid.trim().isEmpty()) {
+            if (isRunning) return START_STICKY; // reinicio del sistema sin intent: seguimos
+            Traza.e(TAG, "Falta el parámetro 'beacon_uuid'. Deteniendo servicio.");
+            stopSelf();
+            return START_NOT_STICKY;
+        }
+        String uuidLimpio = uuid.trim();
+        String bici = intent.getStringExtra(EXTRA_ID_BICI);
+        long lotesMs = intent.getLongExtra(EXTRA_INTERVALO_LOTES_MS, INTERVALO_LOTES_MS_POR_DEFECTO);
+
+        // 4. Nuevo trayecto o cambio de bici con el servicio ya en marcha
+        if (isRunning) {
+            trabajo.post(() -> cambiarBici(uuidLimpio, bici));
+        } else {
+            isRunning = true;
+            trabajo.post(() -> arrancarTodo(uuidLimpio, bici, lotesMs));
+        }
+        return START_STICKY;
+    }
+
+    @Override
+    public void onDestroy() {
+        // El servicio ya está destruido: solo se desmonta, sin stopForeground/stopSelf
+        if (isRunning) {
+            isRunning = false;
+            trabajo.post(this::desmontarTodo);
+        }
+        principal.removeCallbacksAndMessages(null);
+        super.onDestroy();
+    }
+
+    @Override
+    public IBinder onBind(Intent intent) {
+        return null;
+    }
+
+    // -------------------------------------------------------------------------------
+    // Arranque y parada (hilo de trabajo)
+    // -------------------------------------------------------------------------------
+    private void arrancarTodo(String uuid, String bici, long lotesMs) {
+        Traza.i(TAG, ">>> INICIANDO TRAYECTO | bici: {} | UUID: {} <<<", bici, uuid);
+        montado = true;
+        idBici = bici;
+
+        // Ubicación primero: el trayecto la necesita para el origen
+        iniciarGps();
+
+        // Trayecto (API): creado aquí, vive lo que vive el servicio
+        logicaTrayectos = LogicaTrayectosFake.getInstance(this);
+        logicaTrayectos.setCentroUbicacion(centroUbicacion);
+        logicaTrayectos.iniciarTrayecto(bici);
+
+        // Presencia y ventanas
+        vida.reiniciar();
+        publicarEstado();
+        trabajo.postDelayed(cierreVentana, VENTANA_MS);
+
+        // Escáner: se crea aquí, así su Handler queda en este hilo y con él la política,
+        // el supervisor y el procesado de cada trama (los callbacks BLE se reenvían aquí)
+        escanerIBeacons = EscanerIBeacons.getInstance(this, this::alRecibirMedida);
+        escanerIBeacons.setIdBici(bici);
+        // Lotes: menos despertares con pantalla apagada en trayectos largos
+        escanerIBeacons.setIntervaloLotesMs(lotesMs);
+        escanerIBeacons.iniciarEscaneoAutomatico(uuid);
+    }
+
+    /**
+     * Reapunta el trayecto en marcha a otra placa. El escáner, el GPS y la notificación
+     * se conservan; solo se vacía la tabla de placas y se reabre el escaneo (pasando por
+     * el presupuesto de arranques del supervisor; hasta que arranca sigue el de antes).
+     */
+    private void cambiarBici(String uuid, String bici) {
+        if (escanerIBeacons == null) return;
+        Traza.i(TAG, ">>> CAMBIO DE BICI → {} (UUID: {}) <<<", bici, uuid);
+        idBici = bici;
+
+        logicaTrayectos.iniciarTrayecto(bici);
+
+        lastDetectedTime = 0;
+        vida.reiniciar();
+        publicarEstado();
+        trabajo.removeCallbacks(vencimientoPlazo);
+        plazoProgramado.set(false);
+        actualizarNotificacion(false, "Buscando beacon...");
+
+        escanerIBeacons.setIdBici(bici);
+        escanerIBeacons.iniciarEscaneoAutomatico(uuid);
+
+        // Trayecto nuevo en la API: la ruta empieza de cero
+        simplificadorRuta.reiniciar();
+        codificadorRuta.reiniciar();
+    }
+
+    /**
+     * Cierra el trayecto y suelta escáner y GPS (hilo de trabajo). No para el servicio.
+     */
+    private void desmontarTodo() {
+        if (!montado) return;
+        montado = false;
+        Traza.i(TAG, ">>> FINALIZANDO TRAYECTO <<<");
+
+        trabajo.removeCallbacks(vencimientoPlazo);
+        trabajo.removeCallbacks(cierreVentana);
+        plazoProgramado.set(false);
+
+        // Última ventana a medias: se sube lo que haya antes de cerrar el trayecto
+        cerrarVentana();
+
+        if (escanerIBeacons != null) {
+            escanerIBeacons.destroy();
+            escanerIBeacons = null;
+        }
+        // El destino se toma de la última posición: antes de cerrar la ubicación
+        if (logicaTrayectos != null) {
+            if (logicaTrayectos.estaActivo()) {
+                logicaTrayectos.finalizarTrayecto(cerrarRuta());
+            }
+            LogicaTrayectosFake.resetInstance();
+            logicaTrayectos = null;
+        }
+
+        detenerGps();
+
+        synchronized (this) {
+            textoNotificado = null;
+        }
+        vida.reiniciar();
+        publicarEstado();
+        BusEventos.RESUMEN_BEACON.olvidarUltimo(); // era de este trayecto
+        Traza.i(TAG, "Trayecto finalizado");
+    }
+
+    /**
+     * Hilo principal, tras desmontar: para el servicio salvo que un iniciar posterior
+     * haya abierto ya otro trayecto.
+     */
+    private void pararSiNoHayTrayecto() {
+        if (isRunning) return;
+        stopForeground(true);
+        stopSelf();
+        Traza.i(TAG, "Servicio detenido");
+    }
+
+    // -------------------------------------------------------------------------------
+    // Beacon
+    // -------------------------------------------------------------------------------
+    /**
+     * Cada trama de la placa (hilo de trabajo, reenviada por el escáner). Nada de aquí
+     * bloquea ni crea objetos salvo cuando cambia el estado de la bici.
+     */
+    private void alRecibirMedida(MedidaBeacon medida) {
+        lastDetectedTime = System.currentTimeMillis();
+
+        // Proximidad en cada trama: es barato y detecta al momento que nos alejamos.
+        // CERCA o MEDIA cuentan como "es mi bici"; LEJOS avisa sin esperar al plazo de
+        // 15 s (que queda solo para cuando dejan de llegar tramas).
+        if (vida.registrarDeteccion(SystemClock.elapsedRealtime(), medida.getProximidad())) {
+            mostrarEstado(medida);
+        }
+        if (!plazoProgramado.get()) {
+            programarPlazo();
+        }
+
+        // Ninguna lectura se descarta: se acumula y se sube resumida al cerrar la ventana
+        agregador.anyadir(medida.getTipoMedicion(), medida.getValorMedido(), medida.getInstanteMs(),
+                medida.getInstanteNanos() / 1_000_000);
+        estadoTrayecto.ponerMedida(medida.getTipoMedicion(), medida.getValorMedido(), medida.getInstanteMs());
+    }
+
+    /**
+     * Programa el aviso de pérdida para cuando venza el plazo de VidaBeacon (si hay algo
+     * que vigilar y no hay ya uno programado).
+     */
+    private void programarPlazo() {
+        long plazo = vida.getPlazo();
+        if (plazo == Long.MAX_VALUE || !plazoProgramado.compareAndSet(false, true)) return;
+        trabajo.postDelayed(vencimientoPlazo, Math.max(0, plazo - SystemClock.elapsedRealtime()));
+    }
+
+    /**
+     * Cierra la ventana de agregación y reenvía un resumen por cada tipo que haya tenido
+     * lecturas (BusEventos.RESUMEN_BEACON + subida al servidor si hay trayecto activo).
+     */
+    private void cerrarVentana() {
+        List<AgregadorVentana.Resumen> resumenes = agregador.cerrarVentana();
+        if (resumenes.isEmpty()) return;
+
+        boolean trayectoActivo = logicaTrayectos != null && logicaTrayectos.estaActivo();
+        for (AgregadorVentana.Resumen resumen : resumenes) {
+            Traza.i(TAG, "RESUMEN ENVIADO (cada {} s): {}", VENTANA_MS / 1000, resumen);
+
+            BusEventos.RESUMEN_BEACON.publicar(resumen);
+
+            // VERIFICAR que el trayecto está activo antes de guardar
+            if (trayectoActivo) {
+                logicaTrayectos.guardarResumenDesdeBeacon(resumen);
+            } else {
+                Traza.w(TAG, "⚠️ Trayecto no activo, resumen ignorado");
+            }
+        }
+    }
+
+    /**
+     * Refleja en la notificación el estado actual de VidaBeacon.
+     *
+     * @param medida trama que ha provocado el cambio (para la distancia), o null
+     */
+    private void mostrarEstado(MedidaBeacon medida) {
+        VidaBeacon.Estado estado = publicarEstado();
+
+        String distancia = (medida == null) ? ""
+                : String.format(Locale.ROOT, " (%.1f m)", medida.getDistanciaMetros());
+        switch (estado) {
+            case CERCA:
+                actualizarNotificacion(true, "Tu bici está cerca" + distancia);
+                break;
+            case CONECTADO:
+                actualizarNotificacion(true, "Beacon conectado" + distancia);
+                break;
+            case ALEJADO:
+                Traza.i(TAG, "Alejándose de la bici →{}", distancia);
+                actualizarNotificacion(false, "Te has alejado de la bici" + distancia);
+                break;
+            case PERDIDO:
+                actualizarNotificacion(false, "Beacon desconectado");
+                break;
+            default:
+                actualizarNotificacion(false, "Buscando beacon...");
+                break;
+        }
+    }
+
+    private VidaBeacon.Estado publicarEstado() {
+        VidaBeacon.Estado estado = vida.getEstado();
+        estadoBeacon = estado;
+        BusEventos.ESTADO_BEACON.publicar(estado);
+        return estado;
+    }
+
+    // -------------------------------------------------------------------------------
+    // GPS de distancia
+    // -------------------------------------------------------------------------------
+    private void iniciarGps() {
+        motorDistancia.reiniciar();
+        estadoTrayecto.iniciar(SystemClock.elapsedRealtime());
+
+        simplificadorRuta.reiniciar();
+        codificadorRuta.reiniciar();
+
+        centroUbicacion.anyadirOyente(oyenteDistancia);
+        centroUbicacion.anyadirOyente(oyenteRuta);
+        if (!centroUbicacion.iniciar()) {
+            return;
+        }
+
+        BusEventos.SEGUIMIENTO_GPS.publicar(true);
+    }
+
+    private void procesarUbicacion(Location ubicacion) {
+        float velocidad = ubicacion.hasSpeed() ? ubicacion.getSpeed() : -1f;
+        motorDistancia.anyadir(ubicacion.getLatitude(), ubicacion.getLongitude(),
+                ubicacion.getAccuracy(), velocidad, ubicacion.getElapsedRealtimeNanos() / 1_000_000);
+        // Cada posición, aunque no sume: la velocidad también cambia parado
+        estadoTrayecto.ponerDistancia(motorDistancia.getDistanciaMetros(), velocidad);
+    }
+
+    private void detenerGps() {
+        centroUbicacion.quitarOyente(oyenteDistancia);
+        centroUbicacion.quitarOyente(oyenteRuta);
+        centroUbicacion.detener();
+        estadoTrayecto.terminar(SystemClock.elapsedRealtime());
+        Traza.d(TAG, "GPS detenido - Distancia final: {} m", motorDistancia.getDistanciaMetros());
+        BusEventos.SEGUIMIENTO_GPS.publicar(false);
+    }
+
+    private void grabarRuta(Location ubicacion) {
+        if (ubicacion.getAccuracy() < PRECISION_RUTA_M) {
+            simplificadorRuta.anyadir(ubicacion.getLatitude(), ubicacion.getLongitude(), ubicacion.getTime());
+        }
+    }
+
+    /**
+     * Cierra la ruta en curso.
+     *
+     * @return la ruta codificada (CodificadorRuta), o null si no tiene puntos
+     */
+    private byte[] cerrarRuta() {
+        simplificadorRuta.terminar();
+        Traza.i(TAG, "Ruta: {} de {} posiciones guardadas, {} bytes", simplificadorRuta.getGuardados(),
+                simplificadorRuta.getRecibidos(), codificadorRuta.getLongitud());
+        return (codificadorRuta.getPuntos() > 0) ? codificadorRuta.toByteArray() : null;
+    }
+
+    // -------------------------------------------------------------------------------
+    // Notificación
+    // -------------------------------------------------------------------------------
+    private void crearCanal() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                && notificationManager.getNotificationChannel(PermisosHelper.CHANNEL_ID) == null) {
+            NotificationChannel canal = new NotificationChannel(
+                    PermisosHelper.CHANNEL_ID,
+                    "Trayecto en curso",
+                    NotificationManager.IMPORTANCE_LOW);
+            canal.setDescription("Estado de la bici y del trayecto");
+            notificationManager.createNotificationChannel(canal);
+        }
+    }
+
+    private void crearConstructorNotificacion() {
+        Intent abrir = new Intent(this, ConnectionActivity.class);
+        PendingIntent piAbrir = PendingIntent.getActivity(this, 100, abrir,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+
+        Intent detener = new Intent(this, ServicioTrayecto.class).setAction(ACCION_DETENER);
+        PendingIntent piDetener = PendingIntent.getService(this, 101, detener,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+
+        constructorNotificacion = new NotificationCompat.Builder(this, PermisosHelper.CHANNEL_ID)
+                .setOngoing(true)
+                .setContentIntent(piAbrir)
+                .addAction(android.R.drawable.ic_menu_close_clear_cancel, "Desconectar", piDetener)
+                .setPriority(NotificationCompat.PRIORITY_LOW)
+                .setOnlyAlertOnce(true); // Solo alertar cuando cambie el estado
+    }
+
+    /**
+     * Pone el servicio en primer plano con la notificación actual (o "Buscando beacon..."
+     * si aún no hay ninguna). Hilo principal, desde onStartCommand.
+     */
+    private synchronized void pasarAPrimerPlano() {
+        if (textoNotificado == null) {
+            rellenarNotificacion(false, "Buscando beacon...");
+        }
+        startForeground(NOTIF_ID, constructorNotificacion.build());
+    }
+
+    /**
+     * Actualiza la notificación del servicio si el texto ha cambiado. Hilo de trabajo.
+     */
+    private synchronized void actualizarNotificacion(boolean conectada, String texto) {
+        if (texto.equals(textoNotificado)) {
+            return; // ya se está mostrando esto
+        }
+        rellenarNotificacion(conectada, texto);
+        notificationManager.notify(NOTIF_ID, constructorNotificacion.build());
+    }
+
+    private void rellenarNotificacion(boolean conectada, String texto) {
+        textoNotificado = texto;
+        String titulo = conectada ? "🚴 Beacon Conectado" : "❌ Beacon Desconectado";
+        int icono = conectada ? android.R.drawable.presence_online : android.R.drawable.presence_busy;
+        String contexto = (idBici != null) ? "Bici " + idBici + " · " + texto : texto;
+
+        constructorNotificacion
+                .setContentTitle(titulo)
+                .setContentText(contexto)
+                .setSmallIcon(icono);
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
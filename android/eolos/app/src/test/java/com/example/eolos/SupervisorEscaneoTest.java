@@ -0,0 +1,79 @@
+/**
+ * Fichero: SupervisorEscaneoTest.java
+ * Descripción: Comprueba que el presupuesto de arranques es uno por proceso: un
+ *              supervisor nuevo (el escáner se recrea en cada trayecto) no empieza con la
+ *              cuenta a cero, sino que gasta la misma ventana que el anterior.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 28/11/2025
+ */
+
+package com.example.eolos;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.ContextWrapper;
+import android.os.Handler;
+
+import org.junit.Before;
+import org.junit.Test;
+
+// -----------------------------------------------------------------------------------
+// Sin emulador (unitTests.isReturnDefaultValues): SystemClock.elapsedRealtime() da
+// siempre 0, así que todos los arranques caen en la misma ventana, y el Handler no
+// ejecuta nada (los aplazados se quedan aplazados).
+// -----------------------------------------------------------------------------------
+public class SupervisorEscaneoTest {
+
+    private int arrancados;
+
+    private final SupervisorEscaneo.Acciones contar = new SupervisorEscaneo.Acciones() {
+        @Override
+        public void arrancar() {
+            arrancados++;
+        }
+
+        @Override
+        public void bluetoothApagado() {
+        }
+    };
+
+    @Before
+    public void setUp() {
+        PresupuestoArranques.delProceso().reiniciar();
+        arrancados = 0;
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void dosSupervisoresSeguidosGastanLaMismaVentana() {
+        // Primer trayecto: gasta los arranques normales (todos menos la reserva)
+        SupervisorEscaneo primero = nuevo();
+        for (int i = 0; i < PresupuestoArranques.MAX_ARRANQUES; i++) {
+            primero.solicitarArranque();
+        }
+        int normales = arrancados;
+        assertEquals(PresupuestoArranques.MAX_ARRANQUES - 1, normales);
+        primero.desactivar();
+
+        // Se para y se vuelve a empezar enseguida: escáner y supervisor nuevos
+        SupervisorEscaneo segundo = nuevo();
+        segundo.solicitarArranque();
+        assertEquals(normales, arrancados);
+        assertEquals(0, segundo.getArranques());
+        assertEquals(1, segundo.getArranquesAplazados());
+        assertEquals(normales, PresupuestoArranques.delProceso().contarRecientes(0));
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private SupervisorEscaneo nuevo() {
+        return new SupervisorEscaneo(new ContextWrapper(null), new Handler(), contar);
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
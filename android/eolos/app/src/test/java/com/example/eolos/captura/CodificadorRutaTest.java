@@ -0,0 +1,159 @@
+/**
+ * Fichero: CodificadorRutaTest.java
+ * Descripción: Ida y vuelta de CodificadorRuta (codificar y decodificar da los mismos
+ *              puntos con la precisión del punto fijo), también con coordenadas extremas
+ *              y saltos de tiempo grandes, y rutas cortadas o de otra versión rechazadas.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 27/11/2025
+ */
+
+package com.example.eolos.captura;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// -----------------------------------------------------------------------------------
+// Lo que se espera de vuelta es el punto redondeado a 1e-5 grados y el instante truncado
+// a segundos, exactamente (sin tolerancia): las diferencias van en enteros.
+// -----------------------------------------------------------------------------------
+public class CodificadorRutaTest {
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void idaYVueltaDeUnTrayecto() {
+        Random r = new Random(3);
+        List<double[]> puntos = new ArrayList<>();
+        double lat = 38.996, lon = -0.166;
+        long ms = 1_732_000_000_000L;
+        for (int i = 0; i < 2_000; i++) {
+            lat += (r.nextDouble() - 0.5) * 1e-4;
+            lon += (r.nextDouble() - 0.5) * 1e-4;
+            ms += 1_000 + r.nextInt(4_000);
+            puntos.add(new double[]{lat, lon, ms});
+        }
+        comprobarIdaYVuelta(puntos);
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void idaYVueltaConExtremosYSaltosDeTiempo() {
+        List<double[]> puntos = new ArrayList<>();
+        puntos.add(new double[]{90.0, 180.0, 0});
+        puntos.add(new double[]{-90.0, -180.0, 4_102_444_800_000L});   // año 2100
+        puntos.add(new double[]{0.0, 0.0, 1_000});                       // tiempo hacia atrás
+        puntos.add(new double[]{-89.999_99, 179.999_99, 1_000});         // mismo segundo
+        puntos.add(new double[]{89.999_99, -179.999_99, 1_999});
+        puntos.add(new double[]{0.000_004, -0.000_004, 86_400_000L * 365 * 50});
+        puntos.add(new double[]{-0.000_006, 0.000_006, 0});
+        comprobarIdaYVuelta(puntos);
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void rutaVaciaNoTienePuntos() {
+        CodificadorRuta c = new CodificadorRuta();
+        assertEquals(1, c.getLongitud());
+        assertEquals(0, CodificadorRuta.decodificar(c.toByteArray(), (lat, lon, ms) -> { }));
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void rutaCortadaLanzaExcepcion() {
+        CodificadorRuta c = new CodificadorRuta();
+        c.punto(38.996, -0.166, 1_732_000_000_000L);
+        c.punto(39.470, -0.376, 1_732_000_600_000L);
+        byte[] ruta = c.toByteArray();
+
+        // Cualquier corte que no caiga justo entre dos puntos deja un varint a medias o
+        // un punto sin todos sus campos
+        int primerPunto = longitudDe(38.996, -0.166, 1_732_000_000_000L);
+        for (int corte = 2; corte < ruta.length; corte++) {
+            if (corte == primerPunto) continue;
+            byte[] cortada = Arrays.copyOf(ruta, corte);
+            assertThrows("corte en " + corte, IllegalArgumentException.class,
+                    () -> CodificadorRuta.decodificar(cortada, (lat, lon, ms) -> { }));
+        }
+        assertEquals(1, CodificadorRuta.decodificar(Arrays.copyOf(ruta, primerPunto), (lat, lon, ms) -> { }));
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void versionDesconocidaOVarintLargoLanzaExcepcion() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CodificadorRuta.decodificar(new byte[0], (lat, lon, ms) -> { }));
+        assertThrows(IllegalArgumentException.class,
+                () -> CodificadorRuta.decodificar(new byte[]{2, 0, 0, 0}, (lat, lon, ms) -> { }));
+
+        byte[] largo = new byte[12];
+        Arrays.fill(largo, (byte) 0xFF);
+        largo[0] = CodificadorRuta.VERSION;
+        assertThrows(IllegalArgumentException.class,
+                () -> CodificadorRuta.decodificar(largo, (lat, lon, ms) -> { }));
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void reiniciarEmpiezaUnaRutaNueva() {
+        CodificadorRuta c = new CodificadorRuta();
+        c.punto(38.996, -0.166, 1_732_000_000_000L);
+        c.reiniciar();
+        c.punto(39.470, -0.376, 1_732_000_600_000L);
+
+        CodificadorRuta nuevo = new CodificadorRuta();
+        nuevo.punto(39.470, -0.376, 1_732_000_600_000L);
+        assertEquals(1, c.getPuntos());
+        assertEquals(Arrays.toString(nuevo.toByteArray()), Arrays.toString(c.toByteArray()));
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private static void comprobarIdaYVuelta(List<double[]> puntos) {
+        CodificadorRuta c = new CodificadorRuta();
+        for (double[] p : puntos) {
+            c.punto(p[0], p[1], (long) p[2]);
+        }
+        assertEquals(puntos.size(), c.getPuntos());
+
+        List<double[]> leidos = new ArrayList<>();
+        int n = CodificadorRuta.decodificar(c.toByteArray(),
+                (lat, lon, ms) -> leidos.add(new double[]{lat, lon, ms}));
+        assertEquals(puntos.size(), n);
+        assertEquals(puntos.size(), leidos.size());
+
+        for (int i = 0; i < n; i++) {
+            double[] p = puntos.get(i);
+            double[] q = leidos.get(i);
+            assertEquals("lat " + i, Math.round(p[0] * 1e5) / 1e5, q[0], 0.0);
+            assertEquals("lon " + i, Math.round(p[1] * 1e5) / 1e5, q[1], 0.0);
+            assertEquals("instante " + i, (long) p[2] / 1000 * 1000, (long) q[2]);
+        }
+    }
+
+    /**
+     * @return bytes que ocupa la ruta con solo este punto (cabecera incluida)
+     */
+    private static int longitudDe(double lat, double lon, long ms) {
+        CodificadorRuta c = new CodificadorRuta();
+        c.punto(lat, lon, ms);
+        return c.getLongitud();
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -0,0 +1,210 @@
+/**
+ * Fichero: EmuladorPlacas.java
+ * Descripción: Emulador en el ordenador de N placas ESP32: genera scan records byte a
+ *              byte igual que Publicador::publicarCO2 + BLEBeacon de Bluefruit, con
+ *              repeticiones, pérdidas y tramas corruptas o truncadas opcionales.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 21/11/2025
+ */
+
+package com.example.eolos.captura;
+
+import java.util.Random;
+import java.util.UUID;
+
+// -----------------------------------------------------------------------------------
+// Trama que emite la placa (ver arduino/eolos/Publicador.h y EmisoraBLE.h):
+//
+//   02 01 06                    flags
+//   1A FF 4C 00                 cabecera AD de datos de fabricante (Apple)
+//   02 15                       tipo y longitud iBeacon
+//   uuid (16)                   "EPSG-GTI-PROY-3A" en la placa real
+//   major (2, big-endian)       (CO2 << 8) + contador
+//   minor (2, big-endian)       (int16) round(valor * 1000)
+//   txPower (1)                 RSSI de referencia (-53)
+//
+// Cada placa publica una lectura por periodo y el móvil recibe ese mismo anuncio varias
+// veces (la placa anuncia cada 100 ms), así que cada lectura sale repetida.
+// -----------------------------------------------------------------------------------
+public class EmuladorPlacas {
+
+    public static final int CO2 = 11;          // MedicionesID::CO2 del firmware
+    public static final int RSSI_REFERENCIA = -53;
+
+    // UUID de la placa real: los 16 bytes ASCII de "EPSG-GTI-PROY-3A"
+    public static final UUID UUID_PLACA_REAL = UUID.fromString("45505347-2D47-5449-2D50-524F592D3341");
+
+    private final int numPlacas;
+    private final Random aleatorio;
+    private final int[] contadores;
+    private final UUID[] uuids;
+    private final long[] macs;
+
+    // Verdad de referencia por placa, para comparar con lo que detecta el móvil
+    private final long[] lecturasEnviadas;     // lecturas que llegan (con sus repeticiones)
+    private final long[] perdidasDetectables;  // perdidas con otra lectura recibida después
+    private final int[] perdidasSeguidas;
+
+    private int repeticiones = 3;                 // recepciones por lectura
+    private double probabilidadPerdida = 0.0;     // lectura que no llega nunca
+    private double probabilidadCorrupta = 0.0;    // un byte cambiado
+    private double probabilidadTruncada = 0.0;    // record más corto de lo normal
+    private long periodoMs = 1000;                // intervalo de emisión de la placa
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @param numPlacas placas a emular; la 0 usa el UUID de la placa real y el resto
+     *                  variantes de él cambiando los últimos bytes
+     * @param semilla   semilla del generador, para que las pruebas sean repetibles
+     */
+    public EmuladorPlacas(int numPlacas, long semilla) {
+        this.numPlacas = numPlacas;
+        this.aleatorio = new Random(semilla);
+        this.contadores = new int[numPlacas];
+        this.uuids = new UUID[numPlacas];
+        this.macs = new long[numPlacas];
+        this.lecturasEnviadas = new long[numPlacas];
+        this.perdidasDetectables = new long[numPlacas];
+        this.perdidasSeguidas = new int[numPlacas];
+        for (int i = 0; i < numPlacas; i++) {
+            uuids[i] = new UUID(UUID_PLACA_REAL.getMostSignificantBits(),
+                    UUID_PLACA_REAL.getLeastSignificantBits() + i);
+            macs[i] = 0xC0FFEE000000L + i;
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // Configuración
+    // -------------------------------------------------------------------------------
+    public EmuladorPlacas setRepeticiones(int repeticiones) {
+        this.repeticiones = Math.max(1, repeticiones);
+        return this;
+    }
+
+    public EmuladorPlacas setProbabilidadPerdida(double p) {
+        this.probabilidadPerdida = p;
+        return this;
+    }
+
+    public EmuladorPlacas setProbabilidadCorrupta(double p) {
+        this.probabilidadCorrupta = p;
+        return this;
+    }
+
+    public EmuladorPlacas setProbabilidadTruncada(double p) {
+        this.probabilidadTruncada = p;
+        return this;
+    }
+
+    public EmuladorPlacas setPeriodoMs(long periodoMs) {
+        this.periodoMs = periodoMs;
+        return this;
+    }
+
+    public UUID getUuid(int placa) {
+        return uuids[placa];
+    }
+
+    /** lecturas distintas que ha emitido la placa y no se han perdido */
+    public long getLecturasEnviadas(int placa) {
+        return lecturasEnviadas[placa];
+    }
+
+    /**
+     * @return lecturas perdidas de la placa que el contador puede delatar (las del final,
+     *         sin otra recibida detrás, no se pueden ver)
+     */
+    public long getPerdidasDetectables(int placa) {
+        return perdidasDetectables[placa];
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Simula un intervalo de tiempo y entrega todas las tramas recibidas, en orden de
+     * instante.
+     *
+     * @param duracionMs  tiempo a simular
+     * @param inicioNanos instante monotónico inicial
+     * @param inicioMs    hora de pared correspondiente a inicioNanos
+     * @param receptor    destino de las tramas
+     */
+    public void emitir(long duracionMs, long inicioNanos, long inicioMs, ReproductorEscaneo.Receptor receptor) {
+        long periodoNanos = periodoMs * 1_000_000L;
+        long pasoRepeticion = periodoNanos / (repeticiones + 1);
+        long fin = inicioNanos + duracionMs * 1_000_000L;
+
+        for (long t = inicioNanos; t < fin; t += periodoNanos) {
+            for (int placa = 0; placa < numPlacas; placa++) {
+                contadores[placa] = (contadores[placa] + 1) & 0xFF; // uint8_t cont++ del loop()
+                if (aleatorio.nextDouble() < probabilidadPerdida) {
+                    perdidasSeguidas[placa]++;
+                    continue;
+                }
+                if (lecturasEnviadas[placa] > 0) {
+                    perdidasDetectables[placa] += perdidasSeguidas[placa];
+                }
+                perdidasSeguidas[placa] = 0;
+                lecturasEnviadas[placa]++;
+                float valor = 0.04f + (float) (aleatorio.nextGaussian() * 0.005);
+                for (int r = 0; r < repeticiones; r++) {
+                    long instante = t + r * pasoRepeticion + placa; // desempate estable entre placas
+                    byte[] record = trama(uuids[placa], contadores[placa], valor);
+                    record = alterar(record);
+                    int rssi = RSSI_REFERENCIA - 5 - aleatorio.nextInt(20);
+                    receptor.recibir(record, rssi, macs[placa], instante,
+                            inicioMs + (instante - inicioNanos) / 1_000_000L);
+                }
+            }
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Scan record tal como lo emite Publicador::publicarCO2.
+     */
+    public static byte[] trama(UUID uuid, int contador, float valorCO2) {
+        int major = (CO2 << 8) + (contador & 0xFF);
+        int minor = (short) Math.round(valorCO2 * 1000.0);
+
+        byte[] b = new byte[30];
+        b[0] = 0x02; b[1] = 0x01; b[2] = 0x06;
+        b[3] = 0x1A; b[4] = (byte) 0xFF;
+        b[5] = 0x4C; b[6] = 0x00;
+        b[7] = 0x02; b[8] = 0x15;
+        long mas = uuid.getMostSignificantBits();
+        long menos = uuid.getLeastSignificantBits();
+        for (int i = 0; i < 8; i++) {
+            b[9 + i] = (byte) (mas >>> (56 - 8 * i));
+            b[17 + i] = (byte) (menos >>> (56 - 8 * i));
+        }
+        b[25] = (byte) (major >> 8);
+        b[26] = (byte) major;
+        b[27] = (byte) (minor >> 8);
+        b[28] = (byte) minor;
+        b[29] = (byte) RSSI_REFERENCIA;
+        return b;
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private byte[] alterar(byte[] record) {
+        if (aleatorio.nextDouble() < probabilidadTruncada) {
+            byte[] corto = new byte[aleatorio.nextInt(record.length)];
+            System.arraycopy(record, 0, corto, 0, corto.length);
+            return corto;
+        }
+        if (aleatorio.nextDouble() < probabilidadCorrupta) {
+            record[aleatorio.nextInt(record.length)] ^= (byte) (1 + aleatorio.nextInt(255));
+        }
+        return record;
+    } // ()
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
@@ -0,0 +1,160 @@
+/**
+ * Fichero: ReproduccionEscaneoTest.java
+ * Descripción: Graba tramas de placas emuladas con GrabadorEscaneo, reproduce la captura
+ *              con ReproductorEscaneo por ProcesadorTramas (el mismo camino que en el
+ *              móvil) y comprueba duplicados y pérdidas por placa contra lo que emitió
+ *              el emulador.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 21/11/2025
+ */
+
+package com.example.eolos.captura;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.eolos.BeaconRegistrado;
+import com.example.eolos.MedidaBeacon;
+import com.example.eolos.ProcesadorTramas;
+import com.example.eolos.SeguidorSecuencia;
+import com.example.eolos.TablaBeacons;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+// -----------------------------------------------------------------------------------
+// La captura se graba en memoria con el formato de GrabadorEscaneo y se reproduce sin
+// esperas (velocidad 0). Sin tramas corruptas, el emulador sabe exactamente cuántas
+// lecturas llegan y cuántas pérdidas puede delatar el contador, así que las cuentas
+// del procesador tienen que cuadrar al número.
+// -----------------------------------------------------------------------------------
+public class ReproduccionEscaneoTest {
+
+    private static final int PLACAS = 20;
+    private static final long DURACION_MS = 600_000; // el contador de 8 bits da más de una vuelta
+    private static final int REPETICIONES = 3;
+    private static final long INICIO_MS = 1_732_000_000_000L;
+    private static final long INICIO_NANOS = 1_000_000_000L;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void descartaRepeticionesYCuentaPerdidasPorPlaca() throws Exception {
+        EmuladorPlacas emulador = new EmuladorPlacas(PLACAS, 42)
+                .setRepeticiones(REPETICIONES)
+                .setProbabilidadPerdida(0.05);
+        Captura captura = grabar(emulador);
+
+        TablaBeacons tabla = registrar(emulador);
+        ProcesadorTramas procesador = new ProcesadorTramas(tabla);
+        long[] medidas = new long[1];
+        long tramas = reproducir(captura.bytes, procesador, medidas);
+
+        assertEquals("tramas reproducidas", captura.registros, tramas);
+        assertEquals("rechazadas", 0, procesador.getRechazadas());
+
+        long enviadas = 0;
+        for (int i = 0; i < PLACAS; i++) {
+            UUID u = emulador.getUuid(i);
+            SeguidorSecuencia s = tabla.buscar(u.getMostSignificantBits(), u.getLeastSignificantBits())
+                    .getSecuencia();
+            long lecturas = emulador.getLecturasEnviadas(i);
+            enviadas += lecturas;
+            assertEquals("lecturas de la placa " + i, lecturas, s.getRecibidas());
+            assertEquals("duplicadas de la placa " + i, lecturas * (REPETICIONES - 1), s.getDuplicadas());
+            assertEquals("perdidas de la placa " + i, emulador.getPerdidasDetectables(i), s.getPerdidas());
+            assertEquals("reinicios de la placa " + i, 0, s.getReinicios());
+        }
+        assertEquals("medidas entregadas", enviadas, medidas[0]);
+        assertEquals("duplicadas", enviadas * (REPETICIONES - 1), procesador.getDuplicadas());
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void tramasCorruptasOTruncadasNoRompenLaReproduccion() throws Exception {
+        EmuladorPlacas emulador = new EmuladorPlacas(PLACAS, 7)
+                .setRepeticiones(REPETICIONES)
+                .setProbabilidadPerdida(0.02)
+                .setProbabilidadCorrupta(0.01)
+                .setProbabilidadTruncada(0.01);
+        Captura captura = grabar(emulador);
+
+        TablaBeacons tabla = registrar(emulador);
+        ProcesadorTramas procesador = new ProcesadorTramas(tabla);
+        long[] medidas = new long[1];
+        long tramas = reproducir(captura.bytes, procesador, medidas);
+
+        assertEquals("tramas reproducidas", captura.registros, tramas);
+        assertTrue("las truncadas se rechazan", procesador.getRechazadas() > 0);
+        assertEquals("cada trama se rechaza, se repite o da medida",
+                tramas, procesador.getRechazadas() + procesador.getDuplicadas() + medidas[0]);
+
+        // Un byte cambiado en el contador puede colar una lectura de más o delatar una
+        // pérdida falsa, pero pocas
+        long enviadas = 0;
+        for (int i = 0; i < PLACAS; i++) {
+            enviadas += emulador.getLecturasEnviadas(i);
+        }
+        assertTrue("medidas " + medidas[0] + " de " + enviadas,
+                Math.abs(medidas[0] - enviadas) <= enviadas * 0.02);
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private static final class Captura {
+        byte[] bytes;
+        long registros;
+    }
+
+    private static Captura grabar(EmuladorPlacas emulador) throws IOException {
+        ByteArrayOutputStream destino = new ByteArrayOutputStream();
+        GrabadorEscaneo grabador = new GrabadorEscaneo(destino, INICIO_MS, INICIO_NANOS);
+        emulador.emitir(DURACION_MS, INICIO_NANOS, INICIO_MS,
+                (record, rssi, mac, instanteNanos, instanteMs) -> {
+                    try {
+                        grabador.grabar(record, rssi, mac, instanteNanos);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+        grabador.cerrar();
+
+        Captura captura = new Captura();
+        captura.bytes = destino.toByteArray();
+        captura.registros = grabador.getRegistros();
+        return captura;
+    }
+
+    /**
+     * Placas registradas en la tabla de rutas, como haría EscanerIBeacons.
+     */
+    private static TablaBeacons registrar(EmuladorPlacas emulador) {
+        TablaBeacons tabla = new TablaBeacons();
+        for (int i = 0; i < PLACAS; i++) {
+            UUID u = emulador.getUuid(i);
+            tabla.poner(new BeaconRegistrado(u.getMostSignificantBits(), u.getLeastSignificantBits(),
+                    "bici_" + i, null));
+        }
+        return tabla;
+    }
+
+    private static long reproducir(byte[] captura, ProcesadorTramas procesador, long[] medidas)
+            throws IOException, InterruptedException {
+        ReproductorEscaneo reproductor = new ReproductorEscaneo(new ByteArrayInputStream(captura));
+        return reproductor.reproducir((record, rssi, mac, instanteNanos, instanteMs) -> {
+            MedidaBeacon m = procesador.procesar(record, rssi, mac, instanteNanos, instanteMs);
+            if (m != null) medidas[0]++;
+        }, 0);
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
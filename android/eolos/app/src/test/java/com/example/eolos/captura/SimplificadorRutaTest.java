@@ -0,0 +1,184 @@
+/**
+ * Fichero: SimplificadorRutaTest.java
+ * Descripción: Comprueba que SimplificadorRuta no deja ningún punto descartado a más de
+ *              la tolerancia (5 m, la de ServicioTrayecto) del trazo guardado, que nunca
+ *              descarta más de maxPendientes seguidos y que, encadenado con
+ *              CodificadorRuta, la ruta se decodifica con los mismos puntos guardados.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 27/11/2025
+ */
+
+package com.example.eolos.captura;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// -----------------------------------------------------------------------------------
+// Cada posición lleva como instante su índice en segundos, así los puntos que salen del
+// simplificador se identifican en la entrada. La distancia de un descartado al trazo se
+// mide, como en el simplificador, en un plano local alrededor del guardado anterior.
+// -----------------------------------------------------------------------------------
+public class SimplificadorRutaTest {
+
+    private static final double TOLERANCIA_M = 5.0;
+    private static final int MAX_PENDIENTES = 100;
+
+    private static final double LAT0 = 38.996;
+    private static final double LON0 = -0.166;
+    private static final double METROS_POR_GRADO = 6_371_000.0 * Math.PI / 180.0;
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void ningunDescartadoQuedaFueraDeLaTolerancia() {
+        for (long semilla = 1; semilla <= 5; semilla++) {
+            double[][] ruta = rutaUrbana(new Random(semilla), 3_600);
+            List<Integer> guardados = simplificar(ruta, MAX_PENDIENTES);
+
+            assertEquals("el primero se guarda", 0, (int) guardados.get(0));
+            assertEquals("el último se guarda", ruta.length - 1, (int) guardados.get(guardados.size() - 1));
+            assertTrue("semilla " + semilla + ": " + guardados.size() + " guardados de " + ruta.length,
+                    guardados.size() < ruta.length / 3);
+
+            for (int k = 1; k < guardados.size(); k++) {
+                int a = guardados.get(k - 1);
+                int b = guardados.get(k);
+                for (int i = a + 1; i < b; i++) {
+                    double d = distanciaAlSegmento(ruta[i], ruta[a], ruta[b]);
+                    assertTrue(String.format(Locale.ROOT, "semilla %d: punto %d a %.2f m de %d-%d",
+                            semilla, i, d, a, b), d <= TOLERANCIA_M + 1e-9);
+                }
+            }
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void nuncaDescartaMasDeMaxPendientesSeguidos() {
+        // En línea recta todo cabe: solo guarda por el límite
+        double[][] recta = new double[1_000][];
+        for (int i = 0; i < recta.length; i++) {
+            recta[i] = punto(5.0 * i, 0);
+        }
+        List<Integer> guardados = simplificar(recta, MAX_PENDIENTES);
+        for (int k = 1; k < guardados.size(); k++) {
+            assertTrue("hueco " + guardados.get(k - 1) + "-" + guardados.get(k),
+                    guardados.get(k) - guardados.get(k - 1) <= MAX_PENDIENTES);
+        }
+        assertEquals(recta.length / MAX_PENDIENTES + 1, guardados.size());
+
+        // Parado con el GPS bailando dentro de la tolerancia: igual
+        Random r = new Random(9);
+        double[][] parado = new double[1_000][];
+        for (int i = 0; i < parado.length; i++) {
+            parado[i] = punto(r.nextGaussian(), r.nextGaussian());
+        }
+        guardados = simplificar(parado, MAX_PENDIENTES);
+        for (int k = 1; k < guardados.size(); k++) {
+            assertTrue("hueco " + guardados.get(k - 1) + "-" + guardados.get(k),
+                    guardados.get(k) - guardados.get(k - 1) <= MAX_PENDIENTES);
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void encadenadoConElCodificador() {
+        double[][] ruta = rutaUrbana(new Random(4), 3_600);
+        List<Integer> guardados = simplificar(ruta, MAX_PENDIENTES);
+
+        CodificadorRuta codificador = new CodificadorRuta();
+        SimplificadorRuta simplificador = new SimplificadorRuta(TOLERANCIA_M, MAX_PENDIENTES, codificador);
+        for (double[] p : ruta) {
+            simplificador.anyadir(p[0], p[1], (long) p[2]);
+        }
+        simplificador.terminar();
+        assertEquals(ruta.length, simplificador.getRecibidos());
+        assertEquals(guardados.size(), simplificador.getGuardados());
+
+        List<Long> instantes = new ArrayList<>();
+        byte[] bytes = codificador.toByteArray();
+        CodificadorRuta.decodificar(bytes, (lat, lon, ms) -> instantes.add(ms));
+        assertEquals(guardados.size(), instantes.size());
+        for (int k = 0; k < guardados.size(); k++) {
+            assertEquals((long) ruta[guardados.get(k)][2], (long) instantes.get(k));
+        }
+        // Una hora de trayecto en pocos KB
+        assertTrue(bytes.length + " bytes", bytes.length < 4_096);
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * @return índices de los puntos guardados, en orden
+     */
+    private static List<Integer> simplificar(double[][] ruta, int maxPendientes) {
+        List<Integer> guardados = new ArrayList<>();
+        SimplificadorRuta s = new SimplificadorRuta(TOLERANCIA_M, maxPendientes,
+                (lat, lon, ms) -> guardados.add((int) (ms / 1000)));
+        for (double[] p : ruta) {
+            s.anyadir(p[0], p[1], (long) p[2]);
+        }
+        s.terminar();
+        return guardados;
+    }
+
+    /**
+     * Un punto por segundo: tramos a 4-7 m/s con curvas, paradas y ruido de GPS de ~2 m.
+     */
+    private static double[][] rutaUrbana(Random r, int segundos) {
+        double[][] ruta = new double[segundos][];
+        double x = 0, y = 0, rumbo = 0;
+        int t = 0;
+        while (t < segundos) {
+            int marcha = 30 + r.nextInt(150);
+            double velocidad = 4 + 3 * r.nextDouble();
+            double giro = (r.nextDouble() - 0.5) * 0.1;
+            for (int i = 0; i < marcha && t < segundos; i++, t++) {
+                rumbo += giro;
+                x += velocidad * Math.cos(rumbo);
+                y += velocidad * Math.sin(rumbo);
+                ruta[t] = punto(x + 2 * r.nextGaussian(), y + 2 * r.nextGaussian());
+            }
+            int parada = r.nextInt(60);
+            for (int i = 0; i < parada && t < segundos; i++, t++) {
+                ruta[t] = punto(x + 2 * r.nextGaussian(), y + 2 * r.nextGaussian());
+            }
+            rumbo += (r.nextBoolean() ? 1 : -1) * Math.PI / 2 * r.nextDouble();
+        }
+        for (int i = 0; i < segundos; i++) {
+            ruta[i][2] = i * 1000.0;
+        }
+        return ruta;
+    }
+
+    private static double[] punto(double x, double y) {
+        return new double[]{
+                LAT0 + y / METROS_POR_GRADO,
+                LON0 + x / (METROS_POR_GRADO * Math.cos(Math.toRadians(LAT0))),
+                0};
+    }
+
+    private static double distanciaAlSegmento(double[] p, double[] a, double[] b) {
+        double metrosPorGradoLon = METROS_POR_GRADO * Math.cos(Math.toRadians(a[0]));
+        double px = (p[1] - a[1]) * metrosPorGradoLon, py = (p[0] - a[0]) * METROS_POR_GRADO;
+        double bx = (b[1] - a[1]) * metrosPorGradoLon, by = (b[0] - a[0]) * METROS_POR_GRADO;
+        double l2 = bx * bx + by * by;
+        double t = (l2 == 0) ? 0 : Math.max(0, Math.min(1, (px * bx + py * by) / l2));
+        return Math.hypot(px - t * bx, py - t * by);
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
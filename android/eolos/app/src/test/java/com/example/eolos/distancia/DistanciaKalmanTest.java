@@ -0,0 +1,252 @@
+/**
+ * Fichero: DistanciaKalmanTest.java
+ * Descripción: Reproduce la traza GPX de src/test/resources/trazas como si fueran
+ *              posiciones del GPS (cada 2 s, con ruido) y comprueba que DistanciaKalman
+ *              queda dentro de la tolerancia respecto a la longitud conocida de la traza,
+ *              y que SumaCompensada no pierde lo que pierde una suma normal.
+ * @author Denys Litvynov Lymanets
+ * @version 1.0
+ * @since 26/11/2025
+ */
+
+package com.example.eolos.distancia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// -----------------------------------------------------------------------------------
+// La longitud real es la de la polilínea del GPX (4800.8 m, apuntada en su <desc>). La
+// traza se recorre en el tiempo (los <time> de cada punto) y cada 2 s se entrega una
+// posición interpolada más ruido de GPS: un sesgo que deriva despacio (Gauss-Markov,
+// τ = 120 s) y un ruido blanco encima, con la precisión anunciada como radio del 68%
+// (≈ 1.5 σ). De vez en cuando la precisión empeora un rato (edificios altos) y hay algún
+// salto suelto de 60-120 m (rebote multicamino). La velocidad Doppler es la real de la
+// traza con 0.2 m/s de ruido.
+// -----------------------------------------------------------------------------------
+public class DistanciaKalmanTest {
+
+    private static final String TRAZA = "/trazas/urbano_valencia.gpx";
+    private static final double LONGITUD_M = 4800.8;
+
+    private static final double METROS_POR_GRADO = 6_371_000.0 * Math.PI / 180.0;
+    private static final long INTERVALO_MS = 2_000;
+    private static final double TAU_SESGO_S = 120.0;
+    private static final int SEMILLAS = 12;
+
+    // Error máximo del Kalman respecto a la longitud real (%)
+    private static final double TOLERANCIA = 2.0;
+    private static final double TOLERANCIA_SIN_DOPPLER = 4.0;
+
+    private static final Pattern PUNTO = Pattern.compile(
+            "<trkpt\\s+lat=\"([-0-9.]+)\"\\s+lon=\"([-0-9.]+)\"\\s*>(.*?)</trkpt>", Pattern.DOTALL);
+    private static final Pattern TIEMPO = Pattern.compile("<time>([^<]+)</time>");
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void laTrazaTieneLaLongitudConocida() throws IOException {
+        Traza t = leerTraza();
+        assertTrue("puntos con tiempo: " + t.n, t.n > 100);
+        assertEquals(LONGITUD_M, t.longitud(), 0.5);
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void kalmanDentroDeLaToleranciaYMejorQueLosUmbrales() throws IOException {
+        Traza t = leerTraza();
+        double real = t.longitud();
+        for (long semilla = 1; semilla <= SEMILLAS; semilla++) {
+            DistanciaUmbrales umbrales = new DistanciaUmbrales();
+            DistanciaKalman kalman = new DistanciaKalman();
+            reproducir(t, new Random(semilla), true, umbrales, kalman);
+
+            double errorUmbrales = 100.0 * (umbrales.getDistanciaMetros() - real) / real;
+            double errorKalman = 100.0 * (kalman.getDistanciaMetros() - real) / real;
+            String detalle = String.format(Locale.ROOT, "semilla %d: umbrales %+.2f%% | Kalman %+.2f%%",
+                    semilla, errorUmbrales, errorKalman);
+
+            assertTrue(detalle, Math.abs(errorKalman) <= TOLERANCIA);
+            assertTrue(detalle, Math.abs(errorKalman) < Math.abs(errorUmbrales));
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void kalmanSinVelocidadDoppler() throws IOException {
+        // Posiciones sin getSpeed() (modo económico, algunos móviles): decide parado con
+        // la velocidad del propio filtro
+        Traza t = leerTraza();
+        double real = t.longitud();
+        for (long semilla = 1; semilla <= SEMILLAS; semilla++) {
+            DistanciaKalman kalman = new DistanciaKalman();
+            reproducir(t, new Random(semilla), false, kalman);
+            double errorKalman = 100.0 * (kalman.getDistanciaMetros() - real) / real;
+            assertTrue(String.format(Locale.ROOT, "semilla %d: Kalman %+.2f%%", semilla, errorKalman),
+                    Math.abs(errorKalman) <= TOLERANCIA_SIN_DOPPLER);
+        }
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    @Test
+    public void sumaCompensadaFrenteASumaNormal() {
+        // Un trayecto largo a pasos de ~1 m: 200 000 pasos de 1 + k·1e-7 m
+        SumaCompensada compensada = new SumaCompensada();
+        double normal = 0;
+        float enFloat = 0;
+        BigDecimal exacta = BigDecimal.ZERO;
+        for (int i = 0; i < 200_000; i++) {
+            double paso = 1.0 + (i % 1000) * 1e-7;
+            compensada.sumar(paso);
+            normal += paso;
+            enFloat += (float) paso;
+            exacta = exacta.add(new BigDecimal(paso));
+        }
+        double esperada = exacta.doubleValue();
+        assertEquals(esperada, compensada.get(), 0.0);
+        assertTrue("double normal: " + (normal - esperada), normal != esperada);
+        assertTrue("float: " + (enFloat - esperada), Math.abs(enFloat - esperada) > 1.0);
+
+        // Sumandos de magnitudes muy distintas: la suma normal pierde los pequeños
+        SumaCompensada mezcla = new SumaCompensada();
+        double[] valores = {1.0, 1e100, 1.0, -1e100};
+        double mezclaNormal = 0;
+        for (double v : valores) {
+            mezcla.sumar(v);
+            mezclaNormal += v;
+        }
+        assertEquals(2.0, mezcla.get(), 0.0);
+        assertEquals(0.0, mezclaNormal, 0.0);
+    } // ()
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    /**
+     * Entrega a los motores una posición ruidosa cada INTERVALO_MS a lo largo de la traza.
+     */
+    private static void reproducir(Traza t, Random r, boolean conDoppler, MotorDistancia... motores) {
+        double cosLat = Math.cos(Math.toRadians(t.lat[0]));
+        double sesgoX = 0, sesgoY = 0;
+        int malaRestante = 0;
+        int tramo = 0;
+        double alfa = Math.exp(-INTERVALO_MS / 1000.0 / TAU_SESGO_S);
+
+        for (long ahora = t.ms[0]; ahora <= t.ms[t.n - 1]; ahora += INTERVALO_MS) {
+            while (tramo < t.n - 2 && t.ms[tramo + 1] <= ahora) tramo++;
+            long dur = Math.max(1, t.ms[tramo + 1] - t.ms[tramo]);
+            double f = Math.min(1.0, (ahora - t.ms[tramo]) / (double) dur);
+            double lat = t.lat[tramo] + f * (t.lat[tramo + 1] - t.lat[tramo]);
+            double lon = t.lon[tramo] + f * (t.lon[tramo + 1] - t.lon[tramo]);
+            double velocidadReal = DistanciaUmbrales.metrosEntre(t.lat[tramo], t.lon[tramo],
+                    t.lat[tramo + 1], t.lon[tramo + 1]) * 1000.0 / dur;
+
+            if (malaRestante == 0 && r.nextInt(150) == 0) malaRestante = 10 + r.nextInt(20);
+            float precision = (malaRestante > 0) ? 12.0f + 8.0f * r.nextFloat() : 3.0f + 3.0f * r.nextFloat();
+            if (malaRestante > 0) malaRestante--;
+            double sigma = precision / 1.5;
+
+            // Sesgo correlado (la mayor parte del error) + ruido blanco
+            double escala = sigma * 0.95 * Math.sqrt(1 - alfa * alfa);
+            sesgoX = alfa * sesgoX + escala * r.nextGaussian();
+            sesgoY = alfa * sesgoY + escala * r.nextGaussian();
+            double ex = sesgoX + 0.3 * sigma * r.nextGaussian();
+            double ey = sesgoY + 0.3 * sigma * r.nextGaussian();
+            if (r.nextInt(400) == 0) {
+                double salto = 60 + 60 * r.nextDouble();
+                double angulo = 2 * Math.PI * r.nextDouble();
+                ex += salto * Math.cos(angulo);
+                ey += salto * Math.sin(angulo);
+            }
+            float velocidad = (float) Math.max(0, velocidadReal + 0.2 * r.nextGaussian());
+
+            double latRuido = lat + ey / METROS_POR_GRADO;
+            double lonRuido = lon + ex / (METROS_POR_GRADO * cosLat);
+            for (MotorDistancia m : motores) {
+                m.anyadir(latRuido, lonRuido, precision, conDoppler ? velocidad : -1f, ahora);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------------
+    // -------------------------------------------------------------------------------
+    private static final class Traza {
+        final double[] lat, lon;
+        final long[] ms;
+        final int n;
+
+        Traza(double[] lat, double[] lon, long[] ms, int n) {
+            this.lat = lat;
+            this.lon = lon;
+            this.ms = ms;
+            this.n = n;
+        }
+
+        double longitud() {
+            double total = 0;
+            for (int i = 1; i < n; i++) {
+                total += DistanciaUmbrales.metrosEntre(lat[i - 1], lon[i - 1], lat[i], lon[i]);
+            }
+            return total;
+        }
+    }
+
+    private Traza leerTraza() throws IOException {
+        try (InputStream is = getClass().getResourceAsStream(TRAZA)) {
+            assertNotNull("falta " + TRAZA, is);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] bufer = new byte[8192];
+            int n;
+            while ((n = is.read(bufer)) != -1) {
+                bytes.write(bufer, 0, n);
+            }
+            return leerGpx(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Lee los trkpt con lat, lon y time (los que no tienen tiempo se ignoran).
+     */
+    private static Traza leerGpx(String gpx) {
+        List<double[]> puntos = new ArrayList<>();
+        List<Long> tiempos = new ArrayList<>();
+        Matcher m = PUNTO.matcher(gpx);
+        while (m.find()) {
+            Matcher tm = TIEMPO.matcher(m.group(3));
+            if (!tm.find()) continue;
+            puntos.add(new double[]{Double.parseDouble(m.group(1)), Double.parseDouble(m.group(2))});
+            tiempos.add(Instant.parse(tm.group(1).trim()).toEpochMilli());
+        }
+        int n = puntos.size();
+        double[] lat = new double[n], lon = new double[n];
+        long[] ms = new long[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = puntos.get(i)[0];
+            lon[i] = puntos.get(i)[1];
+            ms[i] = tiempos.get(i);
+        }
+        return new Traza(lat, lon, ms, n);
+    }
+} // class
+
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
+// -----------------------------------------------------------------------------------
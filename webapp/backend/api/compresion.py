@@ -0,0 +1,96 @@
+"""
+Autor: Denys Litvynov Lymanets
+Fecha: 27-11-2025
+Descripción: Middleware que descomprime los cuerpos de petición enviados con
+Content-Encoding: gzip (la app Android comprime los grandes, como la ruta del
+trayecto). Las rutas reciben el JSON ya descomprimido y no cambian.
+"""
+
+# ---------------------------------------------------------
+import zlib
+
+from starlette.responses import JSONResponse
+# ---------------------------------------------------------
+
+# Tope del cuerpo descomprimido (evita que un gzip pequeño ocupe toda la memoria)
+LIMITE_DESCOMPRIMIDO = 5 * 1024 * 1024
+# Tope de lo que se acumula antes de descomprimir (una hora de ruta son pocos KB)
+LIMITE_COMPRIMIDO = 1024 * 1024
+
+# ---------------------------------------------------------
+
+class DescompresionGzip:
+    """
+    Middleware ASGI: si la petición trae Content-Encoding: gzip, lee el cuerpo entero,
+    lo descomprime y se lo pasa a la app sin esa cabecera y con Content-Length nuevo.
+    El resto de peticiones pasan tal cual.
+
+    413 si el cuerpo comprimido pasa de LIMITE_COMPRIMIDO o el descomprimido de
+    LIMITE_DESCOMPRIMIDO; 400 si no es gzip o está cortado.
+    """
+
+    def __init__(self, app):
+        self.app = app
+
+    async def __call__(self, scope, receive, send):
+        if scope["type"] != "http" or not _es_gzip(scope["headers"]):
+            await self.app(scope, receive, send)
+            return
+
+        comprimido = bytearray()
+        while True:
+            mensaje = await receive()
+            if mensaje["type"] == "http.disconnect":
+                return
+            comprimido += mensaje.get("body", b"")
+            if len(comprimido) > LIMITE_COMPRIMIDO:
+                await _responder(scope, receive, send, 413, "Cuerpo demasiado grande")
+                return
+            if not mensaje.get("more_body", False):
+                break
+
+        try:
+            descompresor = zlib.decompressobj(16 + zlib.MAX_WBITS)  # cabecera gzip
+            cuerpo = descompresor.decompress(bytes(comprimido), LIMITE_DESCOMPRIMIDO)
+            if descompresor.unconsumed_tail:
+                await _responder(scope, receive, send, 413, "Cuerpo demasiado grande")
+                return
+            if not descompresor.eof:
+                # decompress() no se queja si el flujo acaba a medias: falta el final
+                await _responder(scope, receive, send, 400, "Cuerpo gzip cortado")
+                return
+        except zlib.error:
+            await _responder(scope, receive, send, 400, "Cuerpo gzip no válido")
+            return
+
+        scope = dict(scope)
+        scope["headers"] = [
+            (k, v) for k, v in scope["headers"] if k not in (b"content-encoding", b"content-length")
+        ] + [(b"content-length", str(len(cuerpo)).encode("latin-1"))]
+
+        entregado = False
+
+        async def recibir():
+            nonlocal entregado
+            if not entregado:
+                entregado = True
+                return {"type": "http.request", "body": cuerpo, "more_body": False}
+            return await receive()
+
+        await self.app(scope, recibir, send)
+
+# ---------------------------------------------------------
+
+async def _responder(scope, receive, send, codigo, detalle):
+    respuesta = JSONResponse({"detail": detalle}, status_code=codigo)
+    await respuesta(scope, receive, send)
+
+# ---------------------------------------------------------
+
+def _es_gzip(cabeceras):
+    for nombre, valor in cabeceras:
+        if nombre == b"content-encoding" and valor.strip().lower() == b"gzip":
+            return True
+    return False
+
+# ---------------------------------------------------------
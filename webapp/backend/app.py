@@ -11,6 +11,7 @@ from fastapi import FastAPI
 from fastapi.staticfiles import StaticFiles
 from fastapi.responses import FileResponse
 from fastapi.middleware.cors import CORSMiddleware
+from fastapi.middleware.gzip import GZipMiddleware
 from pathlib import Path
 from .api.auth import router as auth_router  # Agregado para auth
 from .db.database import engine
@@ -21,6 +22,7 @@ from .api import perfil_api
 from .api import trayectos_api
 from .api import calidad_aire_api
 from .api import estado_sensores_api
+from .api.compresion import DescompresionGzip
 
 # ---------------------------------------------------------
 
@@ -46,6 +48,10 @@ app.add_middleware(
     allow_headers=["*"],
 )
 
+# Compresión: respuestas gzip si el cliente lo acepta y cuerpos de petición gzip (app Android)
+app.add_middleware(GZipMiddleware, minimum_size=1000)
+app.add_middleware(DescompresionGzip)
+
 # Archivos estáticos
 BASE_DIR = Path(__file__).resolve().parent.parent
 FRONTEND_DIR = BASE_DIR / "frontend"
@@ -15,7 +15,9 @@ if __name__ == "__main__":
         "backend.app:app",  
         host="127.0.0.1",
         port=8000,
-        reload=True
+        reload=True,
+        # Más que el intervalo de subida de medidas (10 s): la app reutiliza la conexión
+        timeout_keep_alive=30
     )
 
 # ---------------------------------------------------------